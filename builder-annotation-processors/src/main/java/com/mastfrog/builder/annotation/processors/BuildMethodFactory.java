@@ -40,10 +40,36 @@ import javax.lang.model.type.TypeMirror;
  */
 public class BuildMethodFactory<C> {
 
+    /**
+     * The name of the class tryBuild() returns, nested in each builder which
+     * has one.
+     */
+    static final String RESULT_TYPE = "BuildResult";
+
+    /**
+     * Estimated bytecode size above which build() moves constraint checks into
+     * helper methods. HotSpot never compiles a method over 8000 bytes
+     * (HugeMethodLimit), and only inlines hot ones of up to 325 bytes
+     * (FreqInlineSize), so helpers are kept to about that size.
+     */
+    static final int INLINE_BUDGET = 325;
+    /**
+     * Rough bytecode size of a constraint check - a comparison, and a call to
+     * add a problem built by string concatenation.
+     */
+    private static final int CONSTRAINT_BYTES = 48;
+    /**
+     * Rough bytecode size of a constraint which loops over an array or
+     * collection.
+     */
+    private static final int HEAVY_CONSTRAINT_BYTES = 160;
+
     private final ClassBuilder<C> bldr;
     private final BuilderDescriptor desc;
     private final UnsetCheckerFactory<C> checkers;
     private final Function<? super FieldDescriptor, ? extends LocalFieldFactory.LocalFieldGenerator> fields;
+    private String releaseMethod;
+    private String problemsField;
 
     BuildMethodFactory(ClassBuilder<C> bldr, BuilderDescriptor desc,
             UnsetCheckerFactory<C> checkers, Function<? super FieldDescriptor, ? extends LocalFieldFactory.LocalFieldGenerator> fields) {
@@ -53,10 +79,59 @@ public class BuildMethodFactory<C> {
         this.fields = fields;
     }
 
+    /**
+     * Set a method build() should call once it has successfully constructed
+     * its result, to return a pooled builder to its pool.
+     *
+     * @param releaseMethod A method name, or null
+     * @return this
+     */
+    BuildMethodFactory<C> releasingWith(String releaseMethod) {
+        this.releaseMethod = releaseMethod;
+        return this;
+    }
+
     BuildMethodGenerator flatBuildGenerator() {
         return new FlatBuilderMethodGenerator();
     }
 
+    /**
+     * Get the field build() collects problems in, creating it on first use.
+     * Since a check which throws can leave problems behind, reset() clears it
+     * too.
+     *
+     * @return A field name, or null if build() has nothing to check
+     */
+    String problemsField() {
+        if (problemsField == null && hasChecks()) {
+            problemsField = bldr.unusedFieldName("_problems");
+            bldr.field(problemsField)
+                    .withModifier(Modifier.PRIVATE)
+                    .ofType("java.util.List<String>");
+        }
+        return problemsField;
+    }
+
+    /**
+     * Get the fields whose constraints build() must check. Every setter of
+     * a flat builder validates its argument, so unless validation is
+     * deferred to build time, fields whose values cannot change once set
+     * need no second check.
+     *
+     * @return A list of fields
+     */
+    private List<FieldDescriptor> descriptorsToRevalidate() {
+        List<FieldDescriptor> result = descriptorsWithConstraints();
+        if (!desc.isTryBuild()) {
+            result.removeIf(FieldDescriptor::isStableOnceValidated);
+        }
+        return result;
+    }
+
+    private boolean hasChecks() {
+        return !descriptorsToRevalidate().isEmpty() || !desc.requiredFields().isEmpty();
+    }
+
     public interface BuildMethodGenerator {
 
         void generate();
@@ -74,11 +149,67 @@ public class BuildMethodFactory<C> {
         return fds;
     }
 
+    /**
+     * Estimate the bytecode size of the checks build() runs on a field's
+     * constraints.
+     *
+     * @param fd A field
+     * @return A size in bytes
+     */
+    static int estimatedCheckSize(FieldDescriptor fd) {
+        // Loading the field and the guard around its checks
+        int result = 8;
+        for (ConstraintGenerator cg : fd.constraints) {
+            result += cg.weight() >= 500 ? HEAVY_CONSTRAINT_BYTES : CONSTRAINT_BYTES;
+        }
+        return result;
+    }
+
+    /**
+     * Split fields into runs whose checks are each estimated to fit within
+     * the inlining budget - a single run if they all fit together.
+     *
+     * @param fds Some fields
+     * @return A list of runs of fields, in the original order
+     */
+    static List<List<FieldDescriptor>> splitForInlining(List<FieldDescriptor> fds) {
+        List<List<FieldDescriptor>> result = new ArrayList<>();
+        List<FieldDescriptor> current = new ArrayList<>();
+        int size = 0;
+        for (FieldDescriptor fd : fds) {
+            int est = estimatedCheckSize(fd);
+            if (!current.isEmpty() && size + est > INLINE_BUDGET) {
+                result.add(current);
+                current = new ArrayList<>();
+                size = 0;
+            }
+            current.add(fd);
+            size += est;
+        }
+        if (!current.isEmpty()) {
+            result.add(current);
+        }
+        return result;
+    }
+
     class FlatBuilderMethodGenerator implements BuildMethodGenerator {
 
+        private String addProblemMethod;
+        private String problemsMethod;
+        private String constructMethod;
+        private String throwProblemsMethod;
+
         @Override
         public void generate() {
-            bldr.method("build", buildMethod -> {
+            generateBuildMethod(false);
+            if (desc.isTryBuild()) {
+                generateResultClass();
+                generateBuildMethod(true);
+            }
+        }
+
+        private void generateBuildMethod(boolean tryBuild) {
+            bldr.method(tryBuild ? "tryBuild" : "build", buildMethod -> {
                 if (!desc.styles.contains(BuilderStyles.PACKAGE_PRIVATE)) {
                     buildMethod.withModifier(Modifier.PUBLIC);
                 }
@@ -93,102 +224,401 @@ public class BuildMethodFactory<C> {
                 }
 
                 String generics = desc.fullTargetGenerics();
-                buildMethod.returning(desc.targetTypeName + generics);
+                if (tryBuild) {
+                    buildMethod.docComment("Build a " + desc.targetTypeName
+                            + " if every parameter is set and valid, without throwing "
+                            + "if not.\n@return A result holding either the built object, "
+                            + "or the problems which prevented building it");
+                    buildMethod.returning(RESULT_TYPE + "<" + desc.targetTypeName + generics + ">");
+                } else {
+                    buildMethod.returning(desc.targetTypeName + generics);
+                }
                 buildMethod.annotatedWith("SuppressWarnings")
                         .addArgument("value", "null").closeAnnotation();
 
                 buildMethod.body(bb -> {
-
-                    if (desc.instanceType != null) {
+                    String nullTarget = "Target instance of "
+                            + (desc.instanceType == null ? "" : desc.instanceType.asType().toString())
+                            + " may not be null";
+                    if (desc.instanceType != null && tryBuild) {
+                        bb.ifNull(against)
+                                .returning("new " + RESULT_TYPE + "<>(null, java.util.Collections.singletonList("
+                                        + '"' + nullTarget + '"' + "))")
+                                .endIf();
+                    } else if (desc.instanceType != null) {
                         bb.ifNull(against)
                                 .andThrow(nb -> {
-                                    nb.withStringConcatentationArgument("Target instance of ")
-                                            .append(desc.instanceType.asType().toString())
-                                            .append(" may not be null")
+                                    nb.withStringConcatentationArgument(nullTarget)
                                             .endConcatenation()
                                             .ofType("IllegalArgumentException");
                                 }).endIf();
                     }
+                    if (!desc.isTryBuild()) {
+                        applyConstraints(bb);
+                        generateConstruction(bb, against, generics);
+                        return;
+                    }
+                    // Both build methods share the checks, and construction
+                    // once they have passed
+                    String check = problemsMethod();
+                    if (check != null) {
+                        String problems = bldr.unusedFieldName("problems");
+                        bb.statement("java.util.List<String> " + problems + " = " + check + "()");
+                        if (tryBuild) {
+                            bb.ifNotNull(problems)
+                                    .returning("new " + RESULT_TYPE + "<>(null, " + problems + ")")
+                                    .endIf();
+                        } else {
+                            bb.ifNotNull(problems)
+                                    .statement(throwProblemsMethod() + "(" + problems + ")")
+                                    .endIf();
+                        }
+                    }
+                    String invokeConstruct = constructMethod() + "("
+                            + (desc.instanceType == null ? "" : against) + ")";
+                    if (tryBuild) {
+                        bb.returning("new " + RESULT_TYPE + "<>(" + invokeConstruct + ", null)");
+                    } else {
+                        bb.returning(invokeConstruct);
+                    }
+                });
+            });
+        }
 
-                    applyConstraints(bb);
+        private void generateConstruction(ClassBuilder.BlockBuilder<?> bb, String against, String generics) {
+            checkers.onValuesShared(bb);
+            if (desc.instanceType != null) {
+                bb.returningInvocationOf(desc.origin.getSimpleName().toString(), ib -> {
+                    for (FieldDescriptor fd : desc.paramForVar.values()) {
+                        LocalFieldGenerator loc = fields.apply(fd);
+                        fd.applyParam(loc.localFieldName(), checkers.generatorFor(fd), ib, bldr);
+                    }
+                    ib.on(against);
+                });
+            } else if (releaseMethod != null) {
+                String result = bldr.unusedFieldName("result");
+                bb.declare(result).initializedWithNew(nb -> {
+                    for (FieldDescriptor fd : desc.paramForVar.values()) {
+                        LocalFieldGenerator loc = fields.apply(fd);
+                        fd.applyParam(loc.localFieldName(), checkers.generatorFor(fd), nb, bldr);
+                    }
+                    nb.ofType(desc.targetTypeName);
+                }).as(desc.targetTypeName);
+                bb.invoke(releaseMethod).onThis();
+                bb.returning(result);
+            } else {
+                bb.returningNew(nb -> {
+                    for (FieldDescriptor fd : desc.paramForVar.values()) {
+                        LocalFieldGenerator loc = fields.apply(fd);
+                        fd.applyParam(loc.localFieldName(), checkers.generatorFor(fd), nb, bldr);
+                    }
+                    nb.ofType(desc.targetTypeName + (generics.isEmpty() ? "" : "<>"));
+                });
+            }
+        }
 
+        private String constructMethod() {
+            if (constructMethod == null) {
+                constructMethod = bldr.unusedMethodName("__construct__");
+                bldr.method(constructMethod, mb -> {
+                    mb.withModifier(Modifier.PRIVATE)
+                            .docComment("Create the built object from values which "
+                                    + "have already been checked.");
+                    if (!desc.thrownTypes().isEmpty()) {
+                        for (TypeMirror tm : desc.thrownTypes()) {
+                            mb.throwing(tm.toString());
+                        }
+                    }
+                    String against = bldr.unusedFieldName("against");
                     if (desc.instanceType != null) {
-                        bb.returningInvocationOf(desc.origin.getSimpleName().toString(), ib -> {
-                            for (FieldDescriptor fd : desc.paramForVar.values()) {
-                                LocalFieldGenerator loc = fields.apply(fd);
-                                fd.applyParam(loc.localFieldName(), checkers.generatorFor(fd), ib, bldr);
-                            }
-                            ib.on(against);
-                        });
-                    } else {
-                        bb.returningNew(nb -> {
-                            for (FieldDescriptor fd : desc.paramForVar.values()) {
-                                LocalFieldGenerator loc = fields.apply(fd);
-                                fd.applyParam(loc.localFieldName(), checkers.generatorFor(fd), nb, bldr);
-                            }
-                            nb.ofType(desc.targetTypeName + (generics.isEmpty() ? "" : "<>"));
-                        });
+                        mb.addArgument(desc.instanceType.asType().toString(), against);
                     }
+                    String generics = desc.fullTargetGenerics();
+                    mb.returning(desc.targetTypeName + generics);
+                    mb.body(bb -> generateConstruction(bb, against, generics));
+                });
+            }
+            return constructMethod;
+        }
+
+        /**
+         * For TRY_BUILD builders, generate the method both build methods use
+         * to run every check, which returns the problems found, or null.
+         *
+         * @return A method name, or null if there is nothing to check
+         */
+        private String problemsMethod() {
+            if (problemsMethod == null && hasChecks()) {
+                problemsMethod = bldr.unusedMethodName("__problems__");
+                bldr.method(problemsMethod, mb -> {
+                    mb.withModifier(Modifier.PRIVATE)
+                            .docComment("Check that all required parameters are set "
+                                    + "and all constraints are met."
+                                    + "\n@return A list of problems, or null if there "
+                                    + "are none")
+                            .returning("java.util.List<String>")
+                            .body(bb -> {
+                                String probs = generateChecks(bb);
+                                bb.statement("java.util.List<String> result = this." + probs);
+                                bb.statement("this." + probs + " = null");
+                                bb.returning("result");
+                            });
                 });
+            }
+            return problemsMethod;
+        }
+
+        private void generateResultClass() {
+            ClassBuilder<?> result = bldr.innerClass(RESULT_TYPE)
+                    .withModifier(Modifier.STATIC, Modifier.FINAL)
+                    .withTypeParameters("_T")
+                    .docComment("The result of <code>tryBuild()</code> - either a built object, "
+                            + "or the problems which prevented building one.")
+                    .autoToString();
+            if (!desc.styles.contains(BuilderStyles.PACKAGE_PRIVATE)) {
+                result.withModifier(Modifier.PUBLIC);
+            }
+            result.field("value").withModifier(Modifier.PRIVATE, Modifier.FINAL).ofType("_T");
+            result.field("problems").withModifier(Modifier.PRIVATE, Modifier.FINAL)
+                    .ofType("java.util.List<String>");
+            result.constructor(con -> {
+                con.setModifier(Modifier.PRIVATE);
+                con.addArgument("_T", "value")
+                        .addArgument("java.util.List<String>", "problems")
+                        .body(bb -> {
+                            bb.statement("this.value = value");
+                            bb.statement("this.problems = problems");
+                        });
             });
+            result.method("isValid", mb -> {
+                mb.withModifier(Modifier.PUBLIC)
+                        .docComment("Determine if the object was built."
+                                + "\n@return true if there were no problems")
+                        .returning("boolean")
+                        .body(bb -> bb.returning("this.problems == null"));
+            });
+            result.method("value", mb -> {
+                mb.withModifier(Modifier.PUBLIC)
+                        .docComment("Get the built object."
+                                + "\n@return The object, or null if it could not be built")
+                        .returning("_T")
+                        .body(bb -> bb.returning("this.value"));
+            });
+            result.method("problems", mb -> {
+                mb.withModifier(Modifier.PUBLIC)
+                        .docComment("Get the problems which prevented building the object."
+                                + "\n@return An unmodifiable list, empty if the object was built")
+                        .returning("java.util.List<String>")
+                        .body(bb -> bb.returning("this.problems == null "
+                        + "? java.util.Collections.emptyList() "
+                        + ": java.util.Collections.unmodifiableList(this.problems)"));
+            });
+            result.build();
         }
 
         void applyConstraints(ClassBuilder.BlockBuilder<?> bb) {
-            List<FieldDescriptor> descriptorsWithConstraints = descriptorsWithConstraints();
+            if (hasChecks()) {
+                String probs = generateChecks(bb);
+                // Building the message is cold, so keep it out of build()
+                bb.iff().booleanExpression("this." + probs + " != null")
+                        .statement(throwProblemsMethod() + "(this." + probs + ")")
+                        .endIf();
+            }
+        }
+
+        private String throwProblemsMethod() {
+            if (throwProblemsMethod == null) {
+                throwProblemsMethod = bldr.unusedMethodName("__throwProblems__");
+                String probs = problemsField();
+                bldr.method(throwProblemsMethod, mb -> {
+                    mb.withModifier(Modifier.PRIVATE)
+                            .docComment("Throw an exception listing the problems found "
+                                    + "by build()."
+                                    + "\n@param problems The problems")
+                            .addArgument("java.util.List<String>", "problems")
+                            .body(bb -> {
+                                generateThrow(bb, "problems", "this." + probs + " = null");
+                            });
+                });
+            }
+            return throwProblemsMethod;
+        }
+
+        /**
+         * Generate checks that all required fields are set and all constraints
+         * are met, which add any problems to a field.
+         *
+         * @param bb A block builder
+         * @return The name of the field problems are added to
+         */
+        private String generateChecks(ClassBuilder.BlockBuilder<?> bb) {
+            List<FieldDescriptor> descriptorsWithConstraints = descriptorsToRevalidate();
             Set<FieldDescriptor> requiredDescriptors = desc.requiredFields();
+            boolean failFast = desc.isFailFast();
+            // Problems are accumulated into a field which is only allocated
+            // when something actually fails, so a successful build() does
+            // not allocate a list it will never use
+            String probs = problemsField();
+            // A check which threw partway through an earlier call may have
+            // left problems behind, which would skip or fail every check here
+            bb.statement("this." + probs + " = null");
+            String noProblems = "this." + probs + " == null";
+            String addProblem = addProblemMethod(probs, failFast ? 1
+                    : Math.max(descriptorsWithConstraints.size(), requiredDescriptors.size()));
+            checkers.generateAllChecks(bb, "this", addProblem, failFast ? noProblems : null);
 
-            int possibleProblemProducers = descriptorsWithConstraints.size()
-                    + requiredDescriptors.size();
-
-            if (possibleProblemProducers > 0) {
-                String probs = desc.uniquify("problems");
-                bb.declare(probs)
-                        .initializedWithNew(nb -> {
-                            nb.withArgument(Math.max(descriptorsWithConstraints.size(), requiredDescriptors.size()))
-                                    .ofType("java.util.ArrayList<>");
-                        })
-                        .as("java.util.List<String>");
-                checkers.generateAllChecks(bb, probs, "add");
-
-                if (!descriptorsWithConstraints.isEmpty()) {
-                    bb.lineComment("If there are some nulls, we will fail anyway - do not");
-                    bb.lineComment("attempt to run constraints.");
-                    ClassBuilder.IfBuilder<?> iff = bb.iff().invoke("isEmpty").on(probs).isTrue().endCondition();
-                    for (FieldDescriptor fd : descriptorsWithConstraints) {
-                        applyConstraintSet(bldr, desc, fd, iff, probs, fields.apply(fd).localFieldName());
+            if (!descriptorsWithConstraints.isEmpty()) {
+                bb.lineComment("If there are some nulls, we will fail anyway - do not");
+                bb.lineComment("attempt to run constraints.");
+                ClassBuilder.IfBuilder<?> iff = bb.iff().booleanExpression(noProblems);
+                List<List<FieldDescriptor>> runs = splitForInlining(descriptorsWithConstraints);
+                if (runs.size() == 1) {
+                    applyFieldConstraints(descriptorsWithConstraints, iff, probs, addProblem);
+                } else {
+                    // Too much for one method to be compiled and inlined well,
+                    // so each run of checks gets a method of its own
+                    for (int i = 0; i < runs.size(); i++) {
+                        String method = constraintsMethod(i, runs.get(i), probs, addProblem);
+                        if (failFast && i > 0) {
+                            iff.iff().booleanExpression(noProblems)
+                                    .statement(method + "()")
+                                    .endIf();
+                        } else {
+                            iff.statement(method + "()");
+                        }
                     }
-                    iff.endIf();
                 }
+                iff.endIf();
+            }
+            return probs;
+        }
+
+        private String constraintsMethod(int index, List<FieldDescriptor> run, String probs,
+                String addProblem) {
+            String name = bldr.unusedMethodName("__checkConstraints" + index + "__");
+            bldr.method(name, mb -> {
+                mb.withModifier(Modifier.PRIVATE)
+                        .docComment("Check the constraints of " + run.size()
+                                + " parameters, adding any problems found.")
+                        .body(bb -> applyFieldConstraints(run, bb, probs, addProblem));
+            });
+            return name;
+        }
+
+        private <T, B extends ClassBuilder.BlockBuilderBase<T, B, X>, X> void applyFieldConstraints(
+                List<FieldDescriptor> fds, B iff, String probs, String addProblem) {
+            String noProblems = "this." + probs + " == null";
+            boolean failFast = desc.isFailFast();
+            for (int i = 0; i < fds.size(); i++) {
+                FieldDescriptor fd = fds.get(i);
+                if (failFast && i > 0) {
+                    ClassBuilder.IfBuilder<B> unfailed = iff.iff().booleanExpression(noProblems);
+                    applyFieldConstraints(fd, unfailed, probs, addProblem);
+                    unfailed.endIf();
+                } else {
+                    applyFieldConstraints(fd, iff, probs, addProblem);
+                }
+            }
+        }
 
-                bb.iff().invoke("isEmpty").on(probs).isFalse().endCondition(ib -> {
-                    String sb = bldr.unusedFieldName("message");
-                    ib.declare(sb).initializedWithNew(nb -> {
-                        nb.withArgument(probs + ".size() * 40")
-                                .ofType("StringBuilder");
-                    }).as("StringBuilder");
-                    String loopVar = bldr.unusedFieldName("oneProblem");
-                    ib.simpleLoop("String", loopVar, loop -> {
-                        loop.over(probs, loopBody -> {
-                            loopBody.iff().booleanExpression(sb + ".length() > 0")
-                                    .invoke("append").withArgument('\n')
-                                    .on(sb).endIf();
-                            loopBody.invoke("append").withArgument(loopVar).on(sb);
-                        });
-                    });
-                    ib.andThrow(nb -> {
-                        nb.withArgumentFromInvoking("toString").on(sb)
-                                .ofType("IllegalStateException");
-                    }).endIf();
+        private <T, B extends ClassBuilder.BlockBuilderBase<T, B, X>, X> void applyFieldConstraints(
+                FieldDescriptor fd, B iff, String probs, String addProblem) {
+            String noProblems = "this." + probs + " == null";
+            boolean failFast = desc.isFailFast();
+            if (checkers.isValidationTracked(fd)) {
+                // The setter validated a private copy; only check
+                // it if a previous build() has since shared it
+                ClassBuilder.IfBuilder<B> ifStale = iff.iff()
+                        .booleanExpression("!(" + checkers.validatedTest(fd) + ")");
+                applyConstraintSet(bldr, desc, fd, ifStale, "this", addProblem,
+                        noProblems, fields.apply(fd).localFieldName(), failFast);
+                ifStale.endIf();
+            } else if (fd.isUnboxedOptional()) {
+                // An unset primitive holds zero, not null, so test
+                // the mask rather than letting constraints see it
+                ClassBuilder.IfBuilder<B> ifSet = iff.iff()
+                        .booleanExpression(checkers.optionalSetTest(fd));
+                applyConstraintSet(bldr, desc, fd, ifSet, "this", addProblem,
+                        noProblems, fields.apply(fd).localFieldName(), failFast);
+                ifSet.endIf();
+            } else {
+                applyConstraintSet(bldr, desc, fd, iff, "this", addProblem,
+                        noProblems, fields.apply(fd).localFieldName(), failFast);
+            }
+        }
+
+        /**
+         * Generate code which throws an IllegalStateException listing the
+         * problems in a list which is known not to be null.
+         *
+         * @param ib A block builder
+         * @param probs An expression for the list
+         * @param clear A statement to run before throwing, or null
+         */
+        private <T, B extends ClassBuilder.BlockBuilderBase<T, B, X>, X> void generateThrow(
+                B ib, String probs, String clear) {
+            String sb = bldr.unusedFieldName("message");
+            ib.declare(sb).initializedWithNew(nb -> {
+                nb.withArgument(probs + ".size() * 40")
+                        .ofType("StringBuilder");
+            }).as("StringBuilder");
+            String loopVar = bldr.unusedFieldName("oneProblem");
+            ib.simpleLoop("String", loopVar, loop -> {
+                loop.over(probs, loopBody -> {
+                    loopBody.iff().booleanExpression(sb + ".length() > 0")
+                            .invoke("append").withArgument('\n')
+                            .on(sb).endIf();
+                    loopBody.invoke("append").withArgument(loopVar).on(sb);
                 });
+            });
+            if (clear != null) {
+                ib.lineComment("Clear the problems so the builder can be fixed and reused");
+                ib.statement(clear);
             }
+            ib.andThrow(nb -> {
+                nb.withArgumentFromInvoking("toString").on(sb)
+                        .ofType("IllegalStateException");
+            });
         }
 
+        private String addProblemMethod(String probs, int size) {
+            if (addProblemMethod == null) {
+                addProblemMethod = bldr.unusedMethodName("__problem__");
+                bldr.method(addProblemMethod)
+                        .withModifier(Modifier.PRIVATE)
+                        .addArgument("String", "problem")
+                        .body(bb -> {
+                            bb.ifNull("this." + probs)
+                                    .statement("this." + probs
+                                            + " = new java.util.ArrayList<>(" + size + ")")
+                                    .endIf();
+                            bb.invoke("add").withArgument("problem").on("this." + probs);
+                        });
+            }
+            return addProblemMethod;
+        }
     }
 
     static <C, T, B extends ClassBuilder.BlockBuilderBase<T, B, X>, X>
-            void applyConstraintSet(ClassBuilder<C> bldr, BuilderDescriptor desc, FieldDescriptor fd, B iff, String problemsList, String localFieldName) {
+            void applyConstraintSet(ClassBuilder<C> bldr, BuilderDescriptor desc, FieldDescriptor fd, B iff,
+                    String problemsHolder, String addMethod, String noProblemsTest, String localFieldName) {
+        applyConstraintSet(bldr, desc, fd, iff, problemsHolder, addMethod, noProblemsTest,
+                localFieldName, false);
+    }
+
+    /**
+     * Generate the checks for all of a field's constraints.
+     *
+     * @param failFast If true, each constraint after the first only runs if
+     * no problem has been found yet
+     */
+    static <C, T, B extends ClassBuilder.BlockBuilderBase<T, B, X>, X>
+            void applyConstraintSet(ClassBuilder<C> bldr, BuilderDescriptor desc, FieldDescriptor fd, B iff,
+                    String problemsHolder, String addMethod, String noProblemsTest, String localFieldName,
+                    boolean failFast) {
         List<ConstraintGenerator> cgs = fd.constraintsSorted();
         boolean haveHeavy = false;
+        boolean first = true;
         for (ConstraintGenerator cg : cgs) {
             if (cg.weight() >= 500) {
                 haveHeavy = true;
@@ -197,12 +627,20 @@ public class BuildMethodFactory<C> {
             // XXX move this
             cg.decorateClass(bldr.topLevel());
             iff.lineComment("Weight " + cg.weight() + " " + cg.getClass().getSimpleName());
-            cg.generate(localFieldName, problemsList, "add", desc.utils(), iff, fd.fieldName);
+            if (failFast && !first) {
+                ClassBuilder.IfBuilder<?> unfailed = iff.iff().booleanExpression(noProblemsTest);
+                cg.generate(localFieldName, problemsHolder, addMethod, desc.utils(), unfailed, fd.fieldName);
+                unfailed.endIf();
+            } else {
+                cg.generate(localFieldName, problemsHolder, addMethod, desc.utils(), iff, fd.fieldName);
+            }
+            first = false;
         }
         if (haveHeavy) {
             iff.lineComment("Very heavyweight constraints that loop over collections or arrays");
             iff.lineComment("run last, and only if no other constraint has already failed.");
-            ClassBuilder.IfBuilder<?> if2 = iff.iff().invokeAsBoolean("isEmpty").on(problemsList);
+            ClassBuilder.IfBuilder<?> if2 = iff.iff().booleanExpression(noProblemsTest);
+            boolean firstHeavy = true;
             for (ConstraintGenerator cg : cgs) {
                 if (cg.weight() < 500) {
                     continue;
@@ -210,7 +648,14 @@ public class BuildMethodFactory<C> {
                 // XXX move this
                 cg.decorateClass(bldr.topLevel());
                 iff.lineComment("Weight " + cg.weight() + " " + cg.getClass().getSimpleName());
-                cg.generate(localFieldName, problemsList, "add", desc.utils(), if2, fd.fieldName);
+                if (failFast && !firstHeavy) {
+                    ClassBuilder.IfBuilder<?> unfailed = if2.iff().booleanExpression(noProblemsTest);
+                    cg.generate(localFieldName, problemsHolder, addMethod, desc.utils(), unfailed, fd.fieldName);
+                    unfailed.endIf();
+                } else {
+                    cg.generate(localFieldName, problemsHolder, addMethod, desc.utils(), if2, fd.fieldName);
+                }
+                firstHeavy = false;
             }
             if2.endIf();
         }
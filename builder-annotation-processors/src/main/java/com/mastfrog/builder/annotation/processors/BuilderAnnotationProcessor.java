@@ -37,6 +37,7 @@ import javax.annotation.processing.ProcessingEnvironment;
 import javax.annotation.processing.Processor;
 import javax.annotation.processing.RoundEnvironment;
 import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
@@ -51,6 +52,7 @@ import javax.lang.model.type.TypeMirror;
  * @author Tim Boudreau
  */
 @SupportedAnnotationTypes(BuilderAnnotationProcessor.ANNO)
+@SupportedOptions(BuilderAnnotationProcessor.SERIAL_GENERATION)
 @ServiceProvider(Processor.class)
 public class BuilderAnnotationProcessor extends AbstractProcessor {
 
@@ -59,8 +61,17 @@ public class BuilderAnnotationProcessor extends AbstractProcessor {
     private AnnotationUtils utils;
     private BuilderDescriptors descs;
     private ConstraintHandlers handlers;
-    static final String ANNO = "com.mastfrog.builder.annotations.GenerateBuilder";
+    public static final String ANNO = "com.mastfrog.builder.annotations.GenerateBuilder";
     public static final String OPTIONALLY = "com.mastfrog.builder.annotations.Optionally";
+    public static final String COMPILE_TIME_CHECKED = "com.mastfrog.builder.annotations.CompileTimeChecked";
+    public static final String SET_TOGETHER = "com.mastfrog.builder.annotations.SetTogether";
+    static final int DEFAULT_CLASS_BUDGET = 64;
+    /**
+     * Processor option (<code>-Abuilder.serial.generation</code>) which
+     * renders generated sources on the compiler thread rather than in
+     * parallel; the output is the same either way.
+     */
+    public static final String SERIAL_GENERATION = "builder.serial.generation";
 
     static {
         AnnotationUtils.forceLogging();
@@ -113,6 +124,11 @@ public class BuilderAnnotationProcessor extends AbstractProcessor {
                     + "on your classpath", el, mir);
             return;
         }
+        int classBudget = utils.annotationValue(mir, "classBudget", Integer.class, DEFAULT_CLASS_BUDGET);
+        if (classBudget < 1) {
+            utils.fail("Class budget must be at least 1, but is " + classBudget, el, mir);
+            return;
+        }
         if (codeGenerationVersion < MIN_CODE_GENERATION_VERSION) {
             utils.fail("Code generation version " + codeGenerationVersion + " is not supported "
                     + "by this version of BuilderAnnotationProcessor.  Perhaps you need an "
@@ -128,7 +144,7 @@ public class BuilderAnnotationProcessor extends AbstractProcessor {
                 return;
             }
         }
-        descs.add(el, styles, builderNameFromAnnotation, codeGenerationVersion, desc -> {
+        descs.add(el, styles, builderNameFromAnnotation, codeGenerationVersion, classBudget, desc -> {
             if (el.getKind() == ElementKind.METHOD) {
                 desc.onInstanceOf(AnnotationUtils.enclosingType(el));
             }
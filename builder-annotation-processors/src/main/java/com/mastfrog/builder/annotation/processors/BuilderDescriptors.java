@@ -26,18 +26,24 @@ package com.mastfrog.builder.annotation.processors;
 import com.mastfrog.annotation.AnnotationUtils;
 import static com.mastfrog.annotation.AnnotationUtils.capitalize;
 import static com.mastfrog.annotation.AnnotationUtils.simpleName;
+import static com.mastfrog.builder.annotation.processors.BuilderAnnotationProcessor.COMPILE_TIME_CHECKED;
 import static com.mastfrog.builder.annotation.processors.BuilderAnnotationProcessor.OPTIONALLY;
+import static com.mastfrog.builder.annotation.processors.BuilderAnnotationProcessor.SET_TOGETHER;
 import static com.mastfrog.builder.annotation.processors.Version.*;
 import com.mastfrog.builder.annotation.processors.spi.ConstraintGenerator;
 import com.mastfrog.builder.annotation.processors.spi.IsSetTestGenerator;
 import com.mastfrog.java.vogon.ArgumentConsumer;
 import com.mastfrog.java.vogon.ClassBuilder;
 import java.io.IOException;
-import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -47,6 +53,12 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.function.Supplier;
 import javax.annotation.processing.Filer;
 import javax.annotation.processing.FilerException;
@@ -75,15 +87,58 @@ final class BuilderDescriptors {
         this.utils = utils;
     }
 
+    private static void write(Filer filer, String fqn, String source,
+            BuilderDescriptor desc) throws IOException {
+        JavaFileObject src = filer.createSourceFile(fqn, desc.elements());
+        try (Writer out = new OutputStreamWriter(src.openOutputStream(), UTF_8)) {
+            out.write(source);
+        }
+    }
+
+    /**
+     * Build a class model on a short-lived thread of its own, while the
+     * calling thread waits. ClassBuilder tracks the builder under
+     * construction in a thread-local which it does not always restore, and
+     * consults it for debug comments; on a shared thread, each model would
+     * depend on whichever was built before it, and the last one would stay
+     * reachable for the life of the compiler. Since the caller blocks, the
+     * javax.lang.model objects are still never used concurrently.
+     */
+    private static ClassBuilder<String> buildModel(String name,
+            Callable<ClassBuilder<String>> builder) throws IOException {
+        FutureTask<ClassBuilder<String>> task = new FutureTask<>(builder);
+        Thread t = new Thread(task, "Generate " + name);
+        t.setDaemon(true);
+        t.start();
+        return await(task);
+    }
+
+    private static <T> T await(Future<T> result) throws IOException {
+        try {
+            return result.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException(ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
     public static <T> ClassBuilder<T> initDebug(ClassBuilder<T> c) {
         return c.generateDebugLogCode();
     }
 
     public void add(Element e, Set<BuilderStyles> styles, String builderNameFromAnnotation,
-            int codeGenerationVersion,
+            int codeGenerationVersion, int classBudget,
             Consumer<BuilderDescriptor> c) {
         c.accept(descs.computeIfAbsent(e, e1 -> new BuilderDescriptor(e, styles,
-                builderNameFromAnnotation, codeGenerationVersion)));
+                builderNameFromAnnotation, codeGenerationVersion, classBudget)));
     }
 
     public boolean isEmpty() {
@@ -112,30 +167,81 @@ final class BuilderDescriptors {
         descs.clear();
     }
 
+    /**
+     * Generate sources for all descriptors, in three stages: build the class
+     * models serially, one at a time, since javax.lang.model is not
+     * thread-safe; render them to source text in parallel, which touches
+     * nothing but the models; and write them through the Filer serially, in
+     * order of class name. Rendering runs only a few sources ahead of
+     * writing, and each source is encoded to the output in chunks, so only a
+     * handful of rendered sources are in memory at any time.
+     * <p>
+     * Each model is built on a fresh thread (see <code>buildModel()</code>),
+     * so its contents do not depend on the order descriptors are visited in,
+     * and rendering serially or in parallel produces identical output.
+     * </p>
+     *
+     * @throws IOException If writing fails
+     */
     public void generate() throws IOException {
-        String oldName = Thread.currentThread().getName();
         Set<Element> toRemove = new HashSet<>();
+        ExecutorService renderers = null;
         try {
             Filer filer = utils.processingEnv().getFiler();
-            for (Map.Entry<Element, BuilderDescriptor> e : descs.entrySet()) {
-                Thread.currentThread().setName("Generate " + e.getValue().builderName);
-                ClassBuilder<String> cb = e.getValue().generate();
-//            ClassBuilder<String> cb = new Gen2(e.getValue(), e.getValue().styles).generate();
+            List<BuilderDescriptor> generating = new ArrayList<>(descs.values());
+            List<ClassBuilder<String>> builders = new ArrayList<>(generating.size());
+            String[] fqns = new String[generating.size()];
+            for (BuilderDescriptor desc : generating) {
+                ClassBuilder<String> cb = buildModel(desc.builderName, desc::generate);
+                fqns[builders.size()] = cb.fqn();
+                builders.add(cb);
+            }
+            Integer[] order = new Integer[builders.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> fqns[a].compareTo(fqns[b]));
+            boolean serial = order.length < 2 || utils.processingEnv().getOptions()
+                    .containsKey(BuilderAnnotationProcessor.SERIAL_GENERATION);
+            int window = serial ? 0 : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+            renderers = Executors.newFixedThreadPool(Math.max(1, window), r -> {
+                Thread t = new Thread(r, "Render builder sources");
+                t.setDaemon(true);
+                return t;
+            });
+            Deque<Future<String>> rendering = new ArrayDeque<>(window + 1);
+            int submitted = 0;
+            for (int k = 0; k < order.length; k++) {
+                int i = order[k];
+                while (submitted < order.length && submitted <= k + window) {
+                    Callable<String> render = builders.get(order[submitted++])::toString;
+                    rendering.add(renderers.submit(render));
+                }
+                String source = await(rendering.poll());
+                // Let the model be collected while the rest are written
+                builders.set(i, null);
+                BuilderDescriptor desc = generating.get(i);
                 try {
-                    JavaFileObject src = filer.createSourceFile(cb.fqn(), e.getValue().elements());
-                    try (OutputStream out = src.openOutputStream()) {
-                        out.write(cb.toString().getBytes(UTF_8));
+                    write(filer, fqns[i], source, desc);
+                    // Intermediate builders in their own files are generated
+                    // one at a time, so only one is in memory
+                    for (Supplier<ClassBuilder<String>> separate : desc.separateSources()) {
+                        ClassBuilder<String> cb = buildModel(desc.builderName, separate::get);
+                        write(filer, cb.fqn(), cb.toString(), desc);
                     }
-                    toRemove.add(e.getKey());
+                    toRemove.add(desc.origin);
                 } catch (FilerException ex) {
                     ex.printStackTrace(System.err);
                 }
             }
         } finally {
+            if (renderers != null) {
+                renderers.shutdownNow();
+            }
             toRemove.forEach(descs::remove);
-            Thread.currentThread().setName(oldName);
         }
     }
+
     static final String[] PRIMITIVE_AND_BOXED_TYPES = {
         Byte.TYPE.getName(),
         Byte.class.getName(),
@@ -156,6 +262,93 @@ final class BuilderDescriptors {
         Void.TYPE.getName(),
         Void.class.getName(),};
 
+    /**
+     * Facts about a field's type which generators ask for repeatedly, and
+     * which are expensive enough to derive (several involve assignability
+     * checks) that they are computed once per field and cached.
+     */
+    static final class TypeFacts {
+
+        final String typeName;
+        final boolean primitive;
+        final boolean array;
+        final String boxedNumberTypeName;
+        final String ownableCollectionType;
+        final TypeElement targetTypeElement;
+        final boolean markedCompileTimeChecked;
+
+        private TypeFacts(AnnotationUtils utils, VariableElement var) {
+            TypeMirror type = var.asType();
+            typeName = type.toString();
+            primitive = isPrimitive(utils, type);
+            array = type.getKind() == TypeKind.ARRAY && type instanceof ArrayType;
+            boxedNumberTypeName = boxedNumberTypeName(type);
+            TypeMirror erasure = utils.erasureOf(type);
+            String erased = erasure.toString();
+            ownableCollectionType = type.getKind() == TypeKind.DECLARED
+                    ? ownableCollectionType(erased) : null;
+            targetTypeElement = utils.processingEnv().getElementUtils()
+                    .getTypeElement(erased);
+            markedCompileTimeChecked
+                    = utils.findAnnotationMirror(var, COMPILE_TIME_CHECKED) != null;
+        }
+
+        private static boolean isPrimitive(AnnotationUtils utils, TypeMirror type) {
+            if (type.getKind().isPrimitive()) {
+                return true;
+            }
+            for (String tp : PRIMITIVE_AND_BOXED_TYPES) {
+                if (utils.isAssignable(type, tp)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static String boxedNumberTypeName(TypeMirror type) {
+            switch (type.getKind()) {
+                case BYTE:
+                    return "Byte";
+                case SHORT:
+                    return "Short";
+                case INT:
+                    return "Integer";
+                case LONG:
+                    return "Long";
+                case FLOAT:
+                    return "Float";
+                case DOUBLE:
+                    return "Double";
+                case DECLARED:
+                    switch (type.toString()) {
+                        case "java.lang.Byte":
+                        case "java.lang.Short":
+                        case "java.lang.Integer":
+                        case "java.lang.Long":
+                        case "java.lang.Float":
+                        case "java.lang.Double":
+                            return type.toString().substring("java.lang.".length());
+                        default:
+                            return null;
+                    }
+                default:
+                    return null;
+            }
+        }
+
+        private static String ownableCollectionType(String erased) {
+            switch (erased) {
+                case "java.util.Collection":
+                case "java.util.List":
+                case "java.util.Set":
+                case "java.util.Map":
+                    return erased;
+                default:
+                    return null;
+            }
+        }
+    }
+
     static <B extends ClassBuilder<C>, C> B addGeneratedAnnotation(B cb) {
         cb.importing(Generated.class);
 
@@ -186,14 +379,20 @@ final class BuilderDescriptors {
         final String targetTypeName;
         final Set<BuilderStyles> styles;
         final int codeGenerationVersion;
+        final int classBudget;
         final GenericsAnalyzer generics;
+        private Set<FieldDescriptor> runtimeChecked;
+        private final Map<Long, List<String>> genericsForMask = new HashMap<>();
+        private long carriedMask = -1;
+        private List<Supplier<ClassBuilder<String>>> separateSources = Collections.emptyList();
 
         BuilderDescriptor(Element e,
                 Set<BuilderStyles> styles, String builderNameFromAnnotation,
-                int codeGenerationVersion) {
+                int codeGenerationVersion, int classBudget) {
             this.origin = e;
             this.styles = styles;
             this.codeGenerationVersion = codeGenerationVersion;
+            this.classBudget = classBudget;
             String nm, bn;
             switch (e.getKind()) {
                 case METHOD:
@@ -264,8 +463,48 @@ final class BuilderDescriptors {
             return ((ExecutableElement) origin).getThrownTypes();
         }
 
-        public List<String> genericsRequiredFor(Collection<FieldDescriptor> flds) {
-            return generics.genericNamesRequiredFor(flds);
+        public List<String> genericsRequiredFor(Collection<? extends FieldDescriptor> flds) {
+            if (paramForVar.size() > Long.SIZE) {
+                return generics.genericNamesRequiredFor(flds);
+            }
+            return genericsRequiredFor(maskOf(flds));
+        }
+
+        /**
+         * Get the generics required by the set of fields whose bits are set
+         * in a mask, computing them only once per distinct set.
+         *
+         * @param mask A bitmask of field indices
+         * @return A list of generic type names, in declaration order
+         */
+        private List<String> genericsRequiredFor(long mask) {
+            List<String> result = genericsForMask.get(mask);
+            if (result == null) {
+                List<FieldDescriptor> flds = new ArrayList<>(Long.bitCount(mask));
+                for (FieldDescriptor fd : paramForVar.values()) {
+                    if ((mask & fd.bit()) != 0) {
+                        flds.add(fd);
+                    }
+                }
+                result = Collections.unmodifiableList(generics.genericNamesRequiredFor(flds));
+                genericsForMask.put(mask, result);
+            }
+            return result;
+        }
+
+        /**
+         * Get a bitmask with the bit of each of the passed fields set; only
+         * meaningful for descriptors with at most 64 fields.
+         *
+         * @param flds Some fields
+         * @return A mask
+         */
+        long maskOf(Collection<? extends FieldDescriptor> flds) {
+            long result = 0;
+            for (FieldDescriptor fd : flds) {
+                result |= fd.bit();
+            }
+            return result;
         }
 
         AnnotationUtils utils() {
@@ -281,7 +520,15 @@ final class BuilderDescriptors {
         }
 
         public List<String> genericSignatureForBuilderWith(Collection<? extends FieldDescriptor> c, GenericSignatureKind kind) {
-            List<String> result = generics.genericNamesRequiredFor(Utils.combine(c, optionalFields()));
+            List<String> result;
+            if (paramForVar.size() > Long.SIZE) {
+                result = generics.genericNamesRequiredFor(Utils.combine(c, carriedFields()));
+            } else {
+                if (carriedMask == -1) {
+                    carriedMask = maskOf(carriedFields());
+                }
+                result = genericsRequiredFor(maskOf(c) | carriedMask);
+            }
             switch (kind) {
                 case EXPLICIT_BOUNDS:
                     return fullSignatures(result);
@@ -366,10 +613,123 @@ final class BuilderDescriptors {
             return result;
         }
 
+        boolean isFlat() {
+            return styles.contains(BuilderStyles.FLAT) || requiredFields().isEmpty()
+                    || (dimensionsOf(requiredFields()).size() > maxCartesianDimensions()
+                    && !isStaged() && !isHybrid());
+        }
+
+        private int maxCartesianDimensions() {
+            return styles.contains(BuilderStyles.SEPARATE_FILES) ? 12 : 10;
+        }
+
+        /**
+         * Determine if intermediate cartesian builders are generated in their
+         * own source files.
+         *
+         * @return true if the SEPARATE_FILES style is present and the builder
+         * is cartesian
+         */
+        boolean isSeparateFiles() {
+            if (!styles.contains(BuilderStyles.SEPARATE_FILES) || isFlat() || isStaged()) {
+                return false;
+            }
+            return isHybrid() || !styles.contains(BuilderStyles.SINGLE_INSTANCE)
+                    || !Gen2SingleInstance.canGenerate(this);
+        }
+
+        /**
+         * Get the sources of intermediate builders to write in separate files
+         * after the source returned by the last call to generate(); each is
+         * generated only when requested.
+         *
+         * @return A list of suppliers, empty unless SEPARATE_FILES applies
+         */
+        List<Supplier<ClassBuilder<String>>> separateSources() {
+            return separateSources;
+        }
+
+        /**
+         * Determine if the generated cartesian builders only enforce as many
+         * required parameters as fit within the class budget, checking the
+         * rest when building.
+         *
+         * @return true if the HYBRID style is present and usable
+         */
+        boolean isHybrid() {
+            return styles.contains(BuilderStyles.HYBRID)
+                    && !styles.contains(BuilderStyles.FLAT)
+                    && !isStaged()
+                    && !requiredFields().isEmpty();
+        }
+
+        /**
+         * Determine if the generated builder requires required parameters to
+         * be set in declaration order, one stage at a time.
+         *
+         * @return true if the STAGED style is present and usable
+         */
+        boolean isStaged() {
+            return styles.contains(BuilderStyles.STAGED)
+                    && !styles.contains(BuilderStyles.FLAT)
+                    && Gen2SingleInstance.canGenerate(this);
+        }
+
+        /**
+         * Determine if the generated builder will have a static
+         * <code>pooled()</code> method.
+         *
+         * @return true if the POOLED style is present and usable
+         */
+        boolean isPooled() {
+            return styles.contains(BuilderStyles.POOLED) && isFlat()
+                    && instanceType == null
+                    && genericsRequiredFor(fields()).isEmpty();
+        }
+
+        /**
+         * Determine if the generated builder defers all checks to build time,
+         * and has a <code>tryBuild()</code> method which reports problems
+         * without throwing.
+         *
+         * @return true if the TRY_BUILD style is present and usable
+         */
+        boolean isTryBuild() {
+            if (!styles.contains(BuilderStyles.TRY_BUILD) || !isFlat()) {
+                return false;
+            }
+            return origin.getKind() != ElementKind.METHOD
+                    || !((ExecutableElement) origin).getReturnType().getKind().isPrimitive();
+        }
+
+        /**
+         * Determine if the generated build methods stop checking parameters at
+         * the first problem found.
+         *
+         * @return true if the FAIL_FAST style is present and usable
+         */
+        boolean isFailFast() {
+            return styles.contains(BuilderStyles.FAIL_FAST) && isFlat();
+        }
+
         ClassBuilder<String> generate() throws IOException {
             boolean flat = styles.contains(BuilderStyles.FLAT);
-            int reqCount = requiredFields().size();
-            if (!flat && reqCount > 10) {
+            int reqCount = dimensionsOf(requiredFields()).size();
+            if (styles.contains(BuilderStyles.STAGED) && !styles.contains(BuilderStyles.FLAT)
+                    && !isStaged() && reqCount > 0) {
+                utils().warn(builderName + " cannot use STAGED - its "
+                        + "builder methods require generic type parameters", origin);
+            }
+            if (isHybrid() && styles.contains(BuilderStyles.SINGLE_INSTANCE)) {
+                utils().warn(builderName + " uses both HYBRID and SINGLE_INSTANCE "
+                        + "- generating hybrid cartesian builders", origin);
+            }
+            if (styles.contains(BuilderStyles.SEPARATE_FILES) && !isSeparateFiles()) {
+                utils().warn(builderName + " cannot use SEPARATE_FILES - only "
+                        + "cartesian builders have intermediate builders to "
+                        + "generate separately", origin);
+            }
+            if (!flat && reqCount > maxCartesianDimensions() && !isStaged() && !isHybrid()) {
                 utils().warn(builderName + " cannot use cartesian mode - it "
                         + "would require " + ((long) Math.pow(2, reqCount))
                         + " nested classes, which will likely run past javac's "
@@ -378,13 +738,71 @@ final class BuilderDescriptors {
             } else if (reqCount == 0) {
                 flat = true;
             }
+            if (unboxedOptionalFields().size() > Long.SIZE) {
+                utils().fail(builderName + " has " + unboxedOptionalFields().size()
+                        + " optional primitive parameters, but UNBOXED_OPTIONALS "
+                        + "can track at most " + Long.SIZE, origin);
+            }
+            if (styles.contains(BuilderStyles.POOLED) && !isPooled()) {
+                utils().warn(builderName + " cannot use POOLED - only flat "
+                        + "builders for constructors or static methods without "
+                        + "generic type parameters can be pooled", origin);
+            }
+            if (styles.contains(BuilderStyles.TRY_BUILD) && !isTryBuild()) {
+                utils().warn(builderName + " cannot use TRY_BUILD - only flat "
+                        + "builders for constructors or methods which do not "
+                        + "return a primitive can have a tryBuild() method", origin);
+            }
+            if (styles.contains(BuilderStyles.FAIL_FAST) && !isFailFast()) {
+                utils().warn(builderName + " cannot use FAIL_FAST - the setters "
+                        + "of cartesian builders already fail on the first "
+                        + "problem", origin);
+            }
             if (flat) {
-                return addGeneratedAnnotation(new Gen2(this, styles).generate()).sortMembers();
+                return finish(new Gen2(this, styles).generate());
+            } else if (isStaged()) {
+                return finish(new Gen2SingleInstance(this, true).generate());
+            } else if (isHybrid()) {
+                return generateCartesian();
+            } else if (styles.contains(BuilderStyles.SINGLE_INSTANCE)) {
+                if (Gen2SingleInstance.canGenerate(this)) {
+                    return finish(new Gen2SingleInstance(this).generate());
+                }
+                if (requiredFields().isEmpty()) {
+                    utils().warn(builderName + " cannot use SINGLE_INSTANCE - it "
+                            + "has no required parameters to chain setters for; "
+                            + "falling back to cartesian builders", origin);
+                } else {
+                    utils().warn(builderName + " cannot use SINGLE_INSTANCE - its "
+                            + "builder methods require generic type parameters; "
+                            + "falling back to cartesian builders", origin);
+                }
+                return generateCartesian();
             } else {
-                return addGeneratedAnnotation(new Gen2Cartesian(this).generate()).sortMembers();
+                return generateCartesian();
             }
         }
 
+        private ClassBuilder<String> generateCartesian() {
+            Gen2Cartesian gen = new Gen2Cartesian(this);
+            ClassBuilder<String> result = finish(gen.generate());
+            List<Supplier<ClassBuilder<String>>> sources = new ArrayList<>();
+            for (Supplier<ClassBuilder<String>> src : gen.separateSources()) {
+                sources.add(() -> addGeneratedAnnotation(src.get()).sortMembers());
+            }
+            separateSources = sources;
+            return result;
+        }
+
+        private ClassBuilder<String> finish(ClassBuilder<String> cb) {
+            List<Defaulter> defaulters = new ArrayList<>();
+            for (FieldDescriptor fd : fields()) {
+                fd.defaulter.ifPresent(defaulters::add);
+            }
+            Defaulter.generateHolder(cb, defaulters);
+            return addGeneratedAnnotation(cb).sortMembers();
+        }
+
         Set<FieldDescriptor> requiredFields() {
             Set<FieldDescriptor> result = new LinkedHashSet<>();
             for (FieldDescriptor fv : paramForVar.values()) {
@@ -395,6 +813,128 @@ final class BuilderDescriptors {
             return result;
         }
 
+        /**
+         * Partition some fields into the groups set together by cartesian
+         * builders - those sharing a <code>&#064;SetTogether</code> name, or
+         * otherwise one per field. Groups and the fields within them are in
+         * declaration order.
+         *
+         * @param fields Some fields
+         * @return A list of non-empty lists of fields
+         */
+        List<List<FieldDescriptor>> dimensionsOf(Collection<? extends FieldDescriptor> fields) {
+            Map<Object, List<FieldDescriptor>> result = new LinkedHashMap<>();
+            for (FieldDescriptor fd : paramForVar.values()) {
+                if (fields.contains(fd)) {
+                    Object key = fd.setTogether == null ? fd : fd.setTogether;
+                    result.computeIfAbsent(key, k -> new ArrayList<>(2)).add(fd);
+                }
+            }
+            return new ArrayList<>(result.values());
+        }
+
+        /**
+         * Get the required fields whose presence is checked when building
+         * rather than enforced by the type system. For the HYBRID style, the
+         * number of required fields enforced at compile time is the largest
+         * <i>n</i> for which the 2<sup>n</sup>-1 builder classes needed fit
+         * within the class budget; fields annotated with
+         * <code>&#064;CompileTimeChecked</code> are enforced first, then
+         * fields in declaration order.
+         *
+         * @return A set of fields, empty unless the HYBRID style is in use
+         */
+        Set<FieldDescriptor> runtimeCheckedFields() {
+            if (runtimeChecked != null) {
+                return runtimeChecked;
+            }
+            if (!isHybrid()) {
+                return runtimeChecked = Collections.emptySet();
+            }
+            Set<FieldDescriptor> required = requiredFields();
+            List<List<FieldDescriptor>> dimensions = dimensionsOf(required);
+            int enforceable = 1;
+            while (enforceable < dimensions.size()
+                    && (1L << (enforceable + 1)) - 1 <= classBudget) {
+                enforceable++;
+            }
+            Set<FieldDescriptor> enforced = new LinkedHashSet<>();
+            int enforcedDimensions = 0;
+            for (List<FieldDescriptor> dim : dimensions) {
+                for (FieldDescriptor fd : dim) {
+                    if (fd.isMarkedCompileTimeChecked()) {
+                        if (enforcedDimensions < enforceable) {
+                            enforced.addAll(dim);
+                            enforcedDimensions++;
+                        } else {
+                            utils().warn(builderName + " has more parameters marked "
+                                    + "@CompileTimeChecked than its class budget of "
+                                    + classBudget + " allows for - "
+                                    + fd.fieldName + " will be checked when "
+                                    + "building", fd.var);
+                        }
+                        break;
+                    }
+                }
+            }
+            for (List<FieldDescriptor> dim : dimensions) {
+                if (enforcedDimensions >= enforceable) {
+                    break;
+                }
+                if (!enforced.contains(dim.get(0))) {
+                    enforced.addAll(dim);
+                    enforcedDimensions++;
+                }
+            }
+            Set<FieldDescriptor> result = new LinkedHashSet<>(required);
+            result.removeAll(enforced);
+            return runtimeChecked = result;
+        }
+
+        /**
+         * Get the required fields whose presence is enforced by the type
+         * system - all of them, unless the HYBRID style is in use.
+         *
+         * @return A set of fields
+         */
+        Set<FieldDescriptor> compileTimeRequiredFields() {
+            Set<FieldDescriptor> result = requiredFields();
+            result.removeAll(runtimeCheckedFields());
+            return result;
+        }
+
+        /**
+         * Get the fields which can be set on every builder in a chain of
+         * cartesian builders, and are passed from each to the next - the
+         * optional fields, plus any which are checked when building.
+         *
+         * @return A set of fields
+         */
+        Set<FieldDescriptor> carriedFields() {
+            Set<FieldDescriptor> result = optionalFields();
+            result.addAll(runtimeCheckedFields());
+            return result;
+        }
+
+        /**
+         * Get the optional fields which are stored as primitives with a bit in
+         * a mask to indicate whether they are set, in the order of their bits.
+         *
+         * @return A list, empty unless the UNBOXED_OPTIONALS style is present
+         */
+        List<FieldDescriptor> unboxedOptionalFields() {
+            if (!styles.contains(BuilderStyles.UNBOXED_OPTIONALS)) {
+                return Collections.emptyList();
+            }
+            List<FieldDescriptor> result = new ArrayList<>();
+            for (FieldDescriptor fv : paramForVar.values()) {
+                if (fv.optional && fv.var.asType().getKind().isPrimitive()) {
+                    result.add(fv);
+                }
+            }
+            return result;
+        }
+
         Set<FieldDescriptor> optionalFields() {
             Set<FieldDescriptor> result = new LinkedHashSet<>();
             for (FieldDescriptor fv : paramForVar.values()) {
@@ -411,14 +951,21 @@ final class BuilderDescriptors {
             final VariableElement var;
             final boolean optional;
             String fieldName;
-            private int primitiveIndex = -1;
+            private TypeFacts facts;
+            private int unboxedOptionalIndex = -1;
+            private int unboxedOptionalIndexComputedFor = -1;
             final boolean nullValuesPermitted;
+            final int index;
 
             final Optional<Defaulter> defaulter;
+            final OwnershipPolicy explicitOwnership;
+            final String setTogether;
 
             public FieldDescriptor(VariableElement var, boolean optional,
                     String fieldName, Set<ConstraintGenerator> constraints) {
                 this.var = var;
+                this.index = paramForVar.size();
+                this.explicitOwnership = OwnershipPolicy.explicitPolicy(utils, var);
                 this.optional = optional;
                 this.fieldName = fieldName;
                 this.constraints = constraints;
@@ -435,6 +982,24 @@ final class BuilderDescriptors {
                     nullValuesPermitted = false;
                 }
                 defaulter = Optional.ofNullable(def);
+                AnnotationMirror group = utils.findAnnotationMirror(var, SET_TOGETHER);
+                if (group != null && optional) {
+                    utils.warn("Optional parameters cannot be in a @SetTogether "
+                            + "group - " + fieldName + " will be set on its own", var);
+                    group = null;
+                }
+                setTogether = group == null ? null
+                        : utils.annotationValue(group, "value", String.class, null);
+            }
+
+            /**
+             * Get the bit for this field in masks of sets of fields, which is
+             * its position in the parameter list.
+             *
+             * @return A bit, or zero for the 65th and subsequent fields
+             */
+            long bit() {
+                return index < Long.SIZE ? 1L << index : 0;
             }
 
             public TypeMirror targetType() {
@@ -442,10 +1007,14 @@ final class BuilderDescriptors {
             }
 
             public TypeElement targetTypeElement() {
-                TypeMirror mir = utils.erasureOf(targetType());
-                TypeElement el = utils.processingEnv().getElementUtils()
-                        .getTypeElement(mir.toString());
-                return el;
+                return facts().targetTypeElement;
+            }
+
+            private TypeFacts facts() {
+                if (facts == null) {
+                    facts = new TypeFacts(utils, var);
+                }
+                return facts;
             }
 
             public List<ConstraintGenerator> constraintsSorted() {
@@ -476,8 +1045,66 @@ final class BuilderDescriptors {
                 return var.asType().getClass().getName().startsWith("Primitive");
             }
 
+            /**
+             * Get the ownership policy for this field - the explicit one if
+             * annotated, otherwise COPY for arrays and TRUST for everything
+             * else.
+             *
+             * @return A policy
+             */
+            OwnershipPolicy ownership() {
+                if (explicitOwnership != null) {
+                    return explicitOwnership;
+                }
+                return canBeVarargs() ? OwnershipPolicy.COPY : OwnershipPolicy.TRUST;
+            }
+
+            /**
+             * Determine if a value which passed validation when it was set is
+             * certain to still be valid when it is built - it is primitive,
+             * of a type known to be immutable, or a collection which was
+             * frozen when it was set.
+             *
+             * @return true if validating in the setter is sufficient
+             */
+            boolean isStableOnceValidated() {
+                if (isPrimitive()) {
+                    return true;
+                }
+                if (ownableCollectionType() != null) {
+                    return ownership() == OwnershipPolicy.FREEZE;
+                }
+                if (var.asType().getKind() != TypeKind.DECLARED) {
+                    return false;
+                }
+                TypeElement te = targetTypeElement();
+                return te != null && Defaulter.isImmutable(te);
+            }
+
+            /**
+             * Determine if the setter stores a private copy of the value, which
+             * no other code can alter until build() passes it to the object
+             * being built.
+             *
+             * @return true if the value is copied
+             */
+            boolean isCopiedOnSet() {
+                return ownership() == OwnershipPolicy.COPY
+                        && (canBeVarargs() || ownableCollectionType() != null);
+            }
+
+            /**
+             * If this field's type is one of the collection interfaces which
+             * can be copied or frozen, get its erased type name.
+             *
+             * @return A type name or null
+             */
+            String ownableCollectionType() {
+                return facts().ownableCollectionType;
+            }
+
             boolean canBeVarargs() {
-                return this.var.asType().getKind() == TypeKind.ARRAY && this.var.asType() instanceof ArrayType;
+                return facts().array;
             }
 
             String parameterTypeName() {
@@ -489,33 +1116,27 @@ final class BuilderDescriptors {
             }
 
             boolean isByte() {
-                TypeMirror tm = var.asType();
-                return var.asType().getKind() == TypeKind.BYTE || "java.lang.Byte".equals(tm.toString());
+                return "Byte".equals(facts().boxedNumberTypeName);
             }
 
             boolean isShort() {
-                TypeMirror tm = var.asType();
-                return var.asType().getKind() == TypeKind.SHORT || "java.lang.Short".equals(tm.toString());
+                return "Short".equals(facts().boxedNumberTypeName);
             }
 
             boolean isFloat() {
-                TypeMirror tm = var.asType();
-                return var.asType().getKind() == TypeKind.FLOAT || "java.lang.Float".equals(tm.toString());
+                return "Float".equals(facts().boxedNumberTypeName);
             }
 
             boolean isDouble() {
-                TypeMirror tm = var.asType();
-                return var.asType().getKind() == TypeKind.DOUBLE || "java.lang.Double".equals(tm.toString());
+                return "Double".equals(facts().boxedNumberTypeName);
             }
 
             boolean isInt() {
-                TypeMirror tm = var.asType();
-                return var.asType().getKind() == TypeKind.INT || "java.lang.Integer".equals(tm.toString());
+                return "Integer".equals(facts().boxedNumberTypeName);
             }
 
             boolean isLong() {
-                TypeMirror tm = var.asType();
-                return var.asType().getKind() == TypeKind.LONG || "java.lang.Long".equals(tm.toString());
+                return "Long".equals(facts().boxedNumberTypeName);
             }
 
             String minValue() {
@@ -543,23 +1164,7 @@ final class BuilderDescriptors {
             }
 
             String boxedNumberTypeName() {
-                String head;
-                if (isByte()) {
-                    head = "Byte";
-                } else if (isShort()) {
-                    head = "Short";
-                } else if (isInt()) {
-                    head = "Integer";
-                } else if (isLong()) {
-                    head = "Long";
-                } else if (isFloat()) {
-                    head = "Float";
-                } else if (isDouble()) {
-                    head = "Double";
-                } else {
-                    return null;
-                }
-                return head;
+                return facts().boxedNumberTypeName;
             }
 
             boolean isNumericTypeRequiringCast() {
@@ -576,24 +1181,78 @@ final class BuilderDescriptors {
                 return null;
             }
 
+            /**
+             * Get the index of this field's bit in the mask of set optional
+             * primitives, if it is stored unboxed.
+             *
+             * @return An index, or -1 if this field is not stored unboxed
+             */
+            int unboxedOptionalIndex() {
+                if (!optional) {
+                    return -1;
+                }
+                // Recompute only if fields have been added since last time
+                if (unboxedOptionalIndexComputedFor != paramForVar.size()) {
+                    unboxedOptionalIndex = unboxedOptionalFields().indexOf(this);
+                    unboxedOptionalIndexComputedFor = paramForVar.size();
+                }
+                return unboxedOptionalIndex;
+            }
+
+            boolean isUnboxedOptional() {
+                return unboxedOptionalIndex() >= 0;
+            }
+
+            /**
+             * Determine if this is a required field whose presence is checked
+             * when building rather than enforced by the type system.
+             *
+             * @return true if this field is runtime-checked
+             */
+            boolean isRuntimeChecked() {
+                return !optional && runtimeCheckedFields().contains(this);
+            }
+
+            boolean isMarkedCompileTimeChecked() {
+                return facts().markedCompileTimeChecked;
+            }
+
+            /**
+             * Get the type of the builder field which stores this field's
+             * value - the boxed type for runtime-checked primitives, so that
+             * null can mean unset.
+             *
+             * @return A type name
+             */
+            String storageTypeName() {
+                if (isPrimitive() && isRuntimeChecked()) {
+                    return boxedTypeName(facts().typeName);
+                }
+                return typeName();
+            }
+
             String typeName() {
-                String tp = var.asType().toString();
-                if (isPrimitive() && optional) {
-                    switch (tp) {
-                        case "char":
-                            return "Character";
-                        case "int":
-                            return "Integer";
-                        default:
-                            if (tp.startsWith("java.lang.")) {
-                                tp = tp.substring("java.lang.".length());
-                            }
-                            return capitalize(tp);
-                    }
+                String tp = facts().typeName;
+                if (isPrimitive() && optional && !isUnboxedOptional()) {
+                    return boxedTypeName(tp);
                 }
                 return tp;
             }
 
+            private String boxedTypeName(String tp) {
+                switch (tp) {
+                    case "char":
+                        return "Character";
+                    case "int":
+                        return "Integer";
+                    default:
+                        if (tp.startsWith("java.lang.")) {
+                            tp = tp.substring("java.lang.".length());
+                        }
+                        return capitalize(tp);
+                }
+            }
+
             String setterJavadoc() {
                 StringBuilder sb = new StringBuilder("Sets the ")
                         .append(optional ? "<i>optional</i> " : "<b>required</b> ")
@@ -623,13 +1282,7 @@ final class BuilderDescriptors {
             }
 
             boolean isPrimitive() {
-                TypeMirror type = var.asType();
-                for (String tp : PRIMITIVE_AND_BOXED_TYPES) {
-                    if (utils.isAssignable(type, tp)) {
-                        return true;
-                    }
-                }
-                return false;
+                return facts().primitive;
             }
 
             @Override
@@ -50,6 +50,49 @@ enum BuilderStyles {
      * If set, generated builders should be package private.
      */
     PACKAGE_PRIVATE,
+    /**
+     * If set, intermediate cartesian builders are interfaces implemented by
+     * one mutable builder, rather than classes which copy all fields on each
+     * call.
+     */
+    SINGLE_INSTANCE,
+    /**
+     * If set, required parameters are set in declaration order through one
+     * interface per parameter, implemented by a single mutable builder.
+     */
+    STAGED,
+    /**
+     * If set, only as many required parameters as fit the class budget are
+     * enforced by cartesian builders; the rest are checked when building.
+     */
+    HYBRID,
+    /**
+     * If set, intermediate cartesian builders are generated as top-level
+     * classes, each in its own source file.
+     */
+    SEPARATE_FILES,
+    /**
+     * If set, flat builders get a static <code>pooled()</code> method which
+     * reuses a thread-local builder instance, returned to the pool on a
+     * successful build.
+     */
+    POOLED,
+    /**
+     * If set, optional primitive parameters are stored in primitive fields,
+     * with a bit in a mask recording whether each has been set, rather than
+     * boxed.
+     */
+    UNBOXED_OPTIONALS,
+    /**
+     * If set, flat builder setters store values without checking them, and a
+     * <code>tryBuild()</code> method reports problems in a result object
+     * rather than by throwing.
+     */
+    TRY_BUILD,
+    /**
+     * If set, flat builders stop checking parameters at the first problem.
+     */
+    FAIL_FAST,
     /**
      * If set, debug comments showing the source line that generated some code
      * will be generated.
@@ -27,6 +27,7 @@ import com.mastfrog.annotation.AnnotationUtils;
 import com.mastfrog.builder.annotation.processors.builtinconstraints.BigMinMaxHandler;
 import com.mastfrog.builder.annotation.processors.builtinconstraints.ByteMinMaxHandler;
 import com.mastfrog.builder.annotation.processors.builtinconstraints.CollectionAndArraySizeHandler;
+import com.mastfrog.builder.annotation.processors.builtinconstraints.ConstrainedByHandler;
 import com.mastfrog.builder.annotation.processors.builtinconstraints.DoubleMinMaxHandler;
 import com.mastfrog.builder.annotation.processors.builtinconstraints.FloatMinMaxHandler;
 import com.mastfrog.builder.annotation.processors.builtinconstraints.IntMinMaxHandler;
@@ -35,12 +36,19 @@ import com.mastfrog.builder.annotation.processors.builtinconstraints.ShortMinMax
 import com.mastfrog.builder.annotation.processors.builtinconstraints.StringPatternHandler;
 import com.mastfrog.builder.annotation.processors.spi.ConstraintGenerator;
 import com.mastfrog.builder.annotation.processors.spi.ConstraintHandler;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.ServiceLoader;
 import java.util.Set;
 import java.util.function.Consumer;
+import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
 
 /**
@@ -50,6 +58,8 @@ import javax.lang.model.element.VariableElement;
 final class ConstraintHandlers implements ConstraintHandler {
 
     private static Set<ConstraintHandler> all;
+    private static Map<String, List<ConstraintHandler>> byAnnotationType;
+    private static List<ConstraintHandler> unindexed;
 
     private static synchronized Set<ConstraintHandler> all() {
         if (all == null) {
@@ -67,9 +77,41 @@ final class ConstraintHandlers implements ConstraintHandler {
             all.add(new StringPatternHandler());
             all.add(new CollectionAndArraySizeHandler());
             all.add(new BigMinMaxHandler());
+            all.add(new ConstrainedByHandler());
+            index(all);
         }
         return all;
     }
+
+    private static void index(Set<ConstraintHandler> handlers) {
+        Map<String, List<ConstraintHandler>> map = new HashMap<>();
+        List<ConstraintHandler> rest = new ArrayList<>();
+        for (ConstraintHandler h : handlers) {
+            Set<String> types = h.handledAnnotationTypes();
+            if (types == null || types.isEmpty()) {
+                // Handlers which do not declare their annotations are
+                // consulted for every parameter
+                rest.add(h);
+                continue;
+            }
+            for (String type : types) {
+                map.computeIfAbsent(type, t -> new ArrayList<>(2)).add(h);
+            }
+        }
+        byAnnotationType = map;
+        unindexed = rest;
+    }
+
+    private static synchronized Map<String, List<ConstraintHandler>> byAnnotationType() {
+        all();
+        return byAnnotationType;
+    }
+
+    private static synchronized List<ConstraintHandler> unindexed() {
+        all();
+        return unindexed;
+    }
+
     private final AnnotationUtils utils;
 
     public ConstraintHandlers(AnnotationUtils utils) {
@@ -86,7 +128,36 @@ final class ConstraintHandlers implements ConstraintHandler {
     @Override
     public void collect(AnnotationUtils utils, Element targetElement,
             VariableElement parameterElement, Consumer<ConstraintGenerator> genConsumer) {
-        for (ConstraintHandler h : all()) {
+        Map<String, List<ConstraintHandler>> index = byAnnotationType();
+        List<ConstraintHandler> rest = unindexed();
+        List<? extends AnnotationMirror> mirrors = parameterElement.getAnnotationMirrors();
+        if (mirrors.isEmpty() && rest.isEmpty()) {
+            return;
+        }
+        // Walk the parameter's annotations once, and only call the handlers
+        // that claim one of them, rather than having every handler search
+        // the parameter for its annotations
+        Set<ConstraintHandler> toRun = null;
+        for (AnnotationMirror mir : mirrors) {
+            Element annoType = mir.getAnnotationType().asElement();
+            if (!(annoType instanceof TypeElement)) {
+                continue;
+            }
+            List<ConstraintHandler> handlers = index.get(
+                    ((TypeElement) annoType).getQualifiedName().toString());
+            if (handlers != null) {
+                if (toRun == null) {
+                    toRun = new LinkedHashSet<>(4);
+                }
+                toRun.addAll(handlers);
+            }
+        }
+        if (toRun != null) {
+            for (ConstraintHandler h : toRun) {
+                h.collect(utils, targetElement, parameterElement, genConsumer);
+            }
+        }
+        for (ConstraintHandler h : rest) {
             h.collect(utils, targetElement, parameterElement, genConsumer);
         }
     }
@@ -31,7 +31,10 @@ import com.mastfrog.java.vogon.ClassBuilder.ValueExpressionBuilder;
 import com.mastfrog.util.strings.Escaper;
 import com.mastfrog.util.strings.Strings;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
@@ -40,6 +43,7 @@ import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 
@@ -51,19 +55,158 @@ import javax.lang.model.type.TypeMirror;
  */
 public abstract class Defaulter {
 
+    /**
+     * Name of the nested class generated to hold defaults that are computed
+     * once and shared; being a separate class, it is not initialized until a
+     * build actually needs a default.
+     */
+    static final String HOLDER = "__Defaults__";
+    private static final Set<String> IMMUTABLE_TYPES = new HashSet<>(Arrays.asList(
+            "java.lang.String", "java.lang.Boolean", "java.lang.Byte",
+            "java.lang.Short", "java.lang.Character", "java.lang.Integer",
+            "java.lang.Long", "java.lang.Float", "java.lang.Double",
+            "java.math.BigDecimal", "java.math.BigInteger", "java.util.UUID",
+            "java.util.Currency", "java.util.regex.Pattern", "java.net.URI",
+            "java.io.File", "java.nio.charset.Charset"));
+    private String constantName;
+    private String holderOwner;
+
     abstract String defaultExpression();
 
     public boolean isNoOp() {
         return false;
     }
 
-    public <X> X generate(String localName, IsSetTestGenerator test,
+    /**
+     * If the default value is immutable and costs something to create, the
+     * type of a constant to hoist it into.
+     *
+     * @return A type name, or null if the default should be computed inline
+     */
+    String constantType() {
+        return null;
+    }
+
+    /**
+     * The initializer for the hoisted constant, which must produce the same
+     * value as the inline code.
+     *
+     * @return An expression
+     */
+    String constantExpression() {
+        return defaultExpression();
+    }
+
+    public final <X> X generate(String localName, IsSetTestGenerator test,
+            ValueExpressionBuilder<X> veb, ClassBuilder<?> target) {
+        if (constantName != null) {
+            return test.isSetTest(veb.ternary()).expression(localName)
+                    .expression(holderReference() + "." + constantName);
+        }
+        return generateInline(localName, test, veb, target);
+    }
+
+    /**
+     * Refer to the holder class by way of the builder which contains it, for
+     * use from intermediate builders generated in their own source files.
+     *
+     * @param owner The simple name of the builder class
+     */
+    void heldBy(String owner) {
+        holderOwner = owner;
+    }
+
+    private String holderReference() {
+        return holderOwner == null ? HOLDER : holderOwner + "." + HOLDER;
+    }
+
+    <X> X generateInline(String localName, IsSetTestGenerator test,
             ValueExpressionBuilder<X> veb, ClassBuilder<?> target) {
         return test.isSetTest(veb.ternary()).expression(localName).expression(defaultExpression());
     }
 
+    /**
+     * Add the holder class for any defaults which are hoisted into constants.
+     *
+     * @param top The top level class
+     * @param defaulters The defaulters for all fields of a builder
+     */
+    static void generateHolder(ClassBuilder<?> top, Iterable<Defaulter> defaulters) {
+        ClassBuilder<?> holder = null;
+        for (Defaulter def : defaulters) {
+            if (def.constantName == null) {
+                continue;
+            }
+            if (holder == null) {
+                // Intermediate builders in other source files need access
+                holder = def.holderOwner == null
+                        ? top.innerClass(HOLDER).withModifier(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        : top.innerClass(HOLDER).withModifier(Modifier.STATIC, Modifier.FINAL);
+                holder.docComment("Immutable default values, created once on first use.");
+            }
+            holder.field(def.constantName, fb -> {
+                fb.withModifier(Modifier.STATIC, Modifier.FINAL)
+                        .initializedTo(def.constantExpression())
+                        .ofType(def.constantType());
+            });
+        }
+        if (holder != null) {
+            holder.build();
+        }
+    }
+
+    /**
+     * Determine if instances of a type can be shared between built objects -
+     * either a well known immutable JDK type, or a final class whose instance
+     * fields are all final, and primitives or of such types.
+     */
+    static boolean isImmutable(TypeElement te) {
+        return isImmutable(te, 0);
+    }
+
+    private static boolean isImmutable(TypeElement te, int depth) {
+        if (te == null || !te.getTypeParameters().isEmpty()) {
+            return false;
+        }
+        String name = te.getQualifiedName().toString();
+        if (IMMUTABLE_TYPES.contains(name) || name.startsWith("java.time.")) {
+            return true;
+        }
+        if (depth > 2 || te.getKind() != ElementKind.CLASS
+                || !te.getModifiers().contains(Modifier.FINAL)
+                || !"java.lang.Object".equals(te.getSuperclass().toString())) {
+            return false;
+        }
+        for (Element e : te.getEnclosedElements()) {
+            if (e.getKind() != ElementKind.FIELD || e.getModifiers().contains(Modifier.STATIC)) {
+                continue;
+            }
+            if (!e.getModifiers().contains(Modifier.FINAL)) {
+                return false;
+            }
+            TypeMirror fieldType = e.asType();
+            if (fieldType.getKind().isPrimitive()) {
+                continue;
+            }
+            if (fieldType.getKind() != TypeKind.DECLARED
+                    || !isImmutable((TypeElement) ((DeclaredType) fieldType).asElement(), depth + 1)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public static Defaulter forAnno(Element el, TypeMirror type, AnnotationMirror nullableAnno,
             AnnotationUtils utils) {
+        Defaulter result = createDefaulter(el, type, nullableAnno, utils);
+        if (result.constantType() != null) {
+            result.constantName = el.getSimpleName().toString();
+        }
+        return result;
+    }
+
+    private static Defaulter createDefaulter(Element el, TypeMirror type, AnnotationMirror nullableAnno,
+            AnnotationUtils utils) {
         String stringDefault = utils.annotationValue(nullableAnno, "stringDefault", String.class);
         Double numericDefault = utils.annotationValue(nullableAnno, "numericDefault", Double.class);
         Boolean boolDefault = utils.annotationValue(nullableAnno, "booleanDefault", Boolean.class);
@@ -130,7 +273,8 @@ public abstract class Defaulter {
                                 ExecutableElement numConstruct
                                         = findNumericConstructor(te, utils);
                                 if (numConstruct != null) {
-                                    return new NumberConstructorDefaulter(te, convertNumberFor(numConstruct, numericDefault));
+                                    return new NumberConstructorDefaulter(te, convertNumberFor(numConstruct, numericDefault),
+                                            isImmutable(te));
                                 }
 
                                 utils.fail("Cannot use a numeric default " + numericDefault
@@ -179,12 +323,13 @@ public abstract class Defaulter {
                 TypeElement te = utils.processingEnv().getElementUtils().getTypeElement(rawType.toString());
                 ExecutableElement stringConstructor = findStringConstructor(te, utils);
                 if (stringConstructor != null) {
-                    return new StringConstructorDefaulter(te, stringDefault);
+                    return new StringConstructorDefaulter(te, stringDefault, isImmutable(te));
                 }
                 ExecutableElement factoryMethod = findStringFactoryMethod(te, utils);
                 if (factoryMethod != null) {
                     return new StringFactoryMethodDefaulter(te,
-                            factoryMethod.getSimpleName().toString(), stringDefault);
+                            factoryMethod.getSimpleName().toString(), stringDefault,
+                            isImmutable(te));
                 }
 
                 utils.fail("Cannot use a string default to create a parameter of type " + type);
@@ -300,7 +445,8 @@ public abstract class Defaulter {
         for (Element e : te.getEnclosedElements()) {
             if (e.getKind() == ElementKind.METHOD) {
                 ExecutableElement ex = (ExecutableElement) e;
-                if (ex.getModifiers().contains(Modifier.STATIC) && te.asType().equals(ex.getReturnType())) {
+                if (ex.getModifiers().contains(Modifier.STATIC)
+                        && utils.processingEnv().getTypeUtils().isSameType(te.asType(), ex.getReturnType())) {
                     List<? extends VariableElement> params = ex.getParameters();
                     if (params.size() == 1) {
                         VariableElement ve = params.get(0);
@@ -455,7 +601,7 @@ public abstract class Defaulter {
             } else if (utils.isAssignable(rawType, "java.nio.charset.Charset")) {
                 return new Fixed("java.nio.charset.StandardCharsets.UTF_8");
             } else if (utils.isAssignable(rawType, "java.time.ZoneId")) {
-                return new Fixed("java.time.ZoneId.of(\"GMT\")");
+                return new Fixed("java.time.ZoneId.of(\"GMT\")", "java.time.ZoneId");
             } else if (utils.isAssignable(rawType, "java.time.Duration")) {
                 return new Fixed("java.time.Duration.ZERO");
             } else if (utils.isAssignable(rawType, "java.lang.StringBuilder")) {
@@ -469,23 +615,23 @@ public abstract class Defaulter {
                     utils.fail("Multi-dimensional array empty defaults not supported", el, nullableAnno);
                     return new NoOp();
                 case BOOLEAN:
-                    return new Fixed("new boolean[0]");
+                    return new Fixed("new boolean[0]", "boolean[]");
                 case INT:
-                    return new Fixed("new int[0]");
+                    return new Fixed("new int[0]", "int[]");
                 case LONG:
-                    return new Fixed("new long[0]");
+                    return new Fixed("new long[0]", "long[]");
                 case BYTE:
-                    return new Fixed("new byte[0]");
+                    return new Fixed("new byte[0]", "byte[]");
                 case CHAR:
-                    return new Fixed("new char[0]");
+                    return new Fixed("new char[0]", "char[]");
                 case DOUBLE:
-                    return new Fixed("new double[0]");
+                    return new Fixed("new double[0]", "double[]");
                 case FLOAT:
-                    return new Fixed("new float[0]");
+                    return new Fixed("new float[0]", "float[]");
                 case SHORT:
-                    return new Fixed("new short[0]");
+                    return new Fixed("new short[0]", "short[]");
                 case DECLARED:
-                    return new Fixed("new " + comp + "[0]");
+                    return new Fixed("new " + comp + "[0]", comp + "[]");
                 case TYPEVAR:
                     return new GenericArray();
                 default:
@@ -519,7 +665,7 @@ public abstract class Defaulter {
         }
 
         @Override
-        public <X> X generate(String localName, IsSetTestGenerator test, ValueExpressionBuilder<X> veb,
+        <X> X generateInline(String localName, IsSetTestGenerator test, ValueExpressionBuilder<X> veb,
                 ClassBuilder<?> target) {
             return veb.expression(localName);
         }
@@ -537,7 +683,7 @@ public abstract class Defaulter {
         }
 
         @Override
-        public <X> X generate(String localName, IsSetTestGenerator test, ValueExpressionBuilder<X> veb,
+        <X> X generateInline(String localName, IsSetTestGenerator test, ValueExpressionBuilder<X> veb,
                 ClassBuilder<?> target) {
             String mn = "__emptyGenericArray__";
             ClassBuilder<?> top = target.topLevel();
@@ -574,9 +720,28 @@ public abstract class Defaulter {
     static class Fixed extends Defaulter {
 
         private final String expr;
+        private final String constantType;
 
         public Fixed(String expr) {
+            this(expr, null);
+        }
+
+        /**
+         * Create a fixed default whose value is immutable and should be
+         * created once - empty arrays can be shared since they cannot be
+         * modified.
+         *
+         * @param expr The expression
+         * @param constantType The type of the constant it can be hoisted to
+         */
+        public Fixed(String expr, String constantType) {
             this.expr = expr;
+            this.constantType = constantType;
+        }
+
+        @Override
+        String constantType() {
+            return constantType;
         }
 
         @Override
@@ -593,7 +758,7 @@ public abstract class Defaulter {
         }
 
         @Override
-        public <X> X generate(String localName, IsSetTestGenerator test, ValueExpressionBuilder<X> veb,
+        <X> X generateInline(String localName, IsSetTestGenerator test, ValueExpressionBuilder<X> veb,
                 ClassBuilder<?> target) {
             return test.isSetTest(veb.ternary()).expression(localName).literal("");
         }
@@ -613,7 +778,7 @@ public abstract class Defaulter {
         }
 
         @Override
-        public <X> X generate(String localName, IsSetTestGenerator test, ValueExpressionBuilder<X> veb,
+        <X> X generateInline(String localName, IsSetTestGenerator test, ValueExpressionBuilder<X> veb,
                 ClassBuilder<?> target) {
             return test.isSetTest(veb.ternary()).expression(localName).literal(string);
         }
@@ -636,7 +801,7 @@ public abstract class Defaulter {
         }
 
         @Override
-        public <X> X generate(String localName, IsSetTestGenerator test, ValueExpressionBuilder<X> veb,
+        <X> X generateInline(String localName, IsSetTestGenerator test, ValueExpressionBuilder<X> veb,
                 ClassBuilder<?> target) {
             return test.isSetTest(veb.ternary()).expression(localName).literal(ch);
         }
@@ -657,7 +822,7 @@ public abstract class Defaulter {
             return type + "." + literal;
         }
 
-        public <X> X generate(String localName, IsSetTestGenerator test, ValueExpressionBuilder<X> veb,
+        <X> X generateInline(String localName, IsSetTestGenerator test, ValueExpressionBuilder<X> veb,
                 ClassBuilder<?> target) {
             return test.isSetTest(veb.ternary()).expression(localName).expression(defaultExpression());
         }
@@ -667,10 +832,17 @@ public abstract class Defaulter {
 
         private final TypeElement ofType;
         private final String string;
+        private final boolean immutable;
 
-        public StringConstructorDefaulter(TypeElement ofType, String string) {
+        public StringConstructorDefaulter(TypeElement ofType, String string, boolean immutable) {
             this.ofType = ofType;
             this.string = string;
+            this.immutable = immutable;
+        }
+
+        @Override
+        String constantType() {
+            return immutable ? ofType.getQualifiedName().toString() : null;
         }
 
         @Override
@@ -681,7 +853,7 @@ public abstract class Defaulter {
         }
 
         @Override
-        public <X> X generate(String localName, IsSetTestGenerator test, ValueExpressionBuilder<X> veb, ClassBuilder<?> target) {
+        <X> X generateInline(String localName, IsSetTestGenerator test, ValueExpressionBuilder<X> veb, ClassBuilder<?> target) {
             return test.isSetTest(veb.ternary()).expression(localName).toNewInstance().withStringLiteral(string).ofType(ofType.getQualifiedName().toString());
         }
     }
@@ -690,10 +862,28 @@ public abstract class Defaulter {
 
         private final TypeElement ofType;
         private final Number num;
+        private final boolean immutable;
 
-        public NumberConstructorDefaulter(TypeElement ofType, Number num) {
+        public NumberConstructorDefaulter(TypeElement ofType, Number num, boolean immutable) {
             this.ofType = ofType;
             this.num = num;
+            this.immutable = immutable;
+        }
+
+        @Override
+        String constantType() {
+            return immutable ? ofType.getQualifiedName().toString() : null;
+        }
+
+        @Override
+        String constantExpression() {
+            switch (ofType.asType().toString()) {
+                case "java.math.BigInteger":
+                    return "java.math.BigInteger.valueOf(" + num.longValue() + "L)";
+                case "java.math.BigDecimal":
+                    return "java.math.BigDecimal.valueOf(" + num.doubleValue() + "D)";
+            }
+            return defaultExpression();
         }
 
         private String numString() {
@@ -719,7 +909,7 @@ public abstract class Defaulter {
         }
 
         @Override
-        public <X> X generate(String localName, IsSetTestGenerator test, ValueExpressionBuilder<X> veb, ClassBuilder<?> target) {
+        <X> X generateInline(String localName, IsSetTestGenerator test, ValueExpressionBuilder<X> veb, ClassBuilder<?> target) {
             switch (ofType.asType().toString()) {
                 case "java.math.BigInteger":
                     return test.isSetTest(veb.ternary()).expression(localName)
@@ -743,11 +933,19 @@ public abstract class Defaulter {
         private final TypeElement ofType;
         private final String simpleName;
         private final String string;
+        private final boolean immutable;
 
-        public StringFactoryMethodDefaulter(TypeElement ofType, String simpleName, String string) {
+        public StringFactoryMethodDefaulter(TypeElement ofType, String simpleName,
+                String string, boolean immutable) {
             this.ofType = ofType;
             this.simpleName = simpleName;
             this.string = string;
+            this.immutable = immutable;
+        }
+
+        @Override
+        String constantType() {
+            return immutable ? ofType.getQualifiedName().toString() : null;
         }
 
         @Override
@@ -758,7 +956,7 @@ public abstract class Defaulter {
         }
 
         @Override
-        public <X> X generate(String localName, IsSetTestGenerator test, ValueExpressionBuilder<X> veb, ClassBuilder<?> target) {
+        <X> X generateInline(String localName, IsSetTestGenerator test, ValueExpressionBuilder<X> veb, ClassBuilder<?> target) {
             target.importing(ofType.getQualifiedName().toString());
             return test.isSetTest(veb.ternary()).expression(localName).invoke(simpleName)
                     .withStringLiteral(string).on(ofType.getSimpleName().toString());
@@ -811,7 +1009,7 @@ public abstract class Defaulter {
         }
 
         @Override
-        public <X> X generate(String localName, IsSetTestGenerator test, ValueExpressionBuilder<X> veb,
+        <X> X generateInline(String localName, IsSetTestGenerator test, ValueExpressionBuilder<X> veb,
                 ClassBuilder<?> target) {
             return test.isSetTest(veb.ternary()).expression(localName).literal(value);
         }
@@ -63,15 +63,30 @@ public class Gen2 {
 //        cb.generateDebugLogCode();
         LocalFieldFactory<String> lff = new LocalFieldFactory<>(desc, cb);
         UnsetCheckerFactory<String> usc = new UnsetCheckerFactory<>(cb, styles, desc, lff::generatorFor);
+        if (!desc.isTryBuild()) {
+            // Setters are the only way fields get assigned here, and reject
+            // nulls, so required objects can be tracked in the mask along
+            // with primitives; TRY_BUILD setters accept null, so build()
+            // must test those fields themselves
+            usc.trackingRequiredObjects();
+        }
         lff.generate();
 
         ValidationMethodFactory<String> vmf = ValidationMethodFactory.create(cb, desc);
         SetterMethodFactory<String> smf = new SetterMethodFactory<>(cb, desc.styles, lff::generatorFor, desc, usc::generatorFor, vmf);
+        if (desc.isTryBuild()) {
+            // Setters must not throw, so build() and tryBuild() check everything
+            vmf.deferringConstraints();
+        } else {
+            smf.trackingValidationIn(usc);
+        }
         BuildMethodFactory<String> bmf = new BuildMethodFactory<>(cb, desc, usc, lff::generatorFor);
+        ResetMethodFactory<String> rmf = new ResetMethodFactory<>(cb, desc, lff, usc);
 
         smf.generate();
+        rmf.clearing(bmf.problemsField()).generate();
 
-        bmf.flatBuildGenerator().generate();
+        bmf.releasingWith(rmf.releaseMethod()).flatBuildGenerator().generate();
 
         return cb.sortMembers();
     }
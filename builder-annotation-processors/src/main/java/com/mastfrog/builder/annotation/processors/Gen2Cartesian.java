@@ -28,9 +28,6 @@ import com.mastfrog.builder.annotation.processors.BuilderDescriptors.BuilderDesc
 import com.mastfrog.builder.annotation.processors.BuilderDescriptors.BuilderDescriptor.FieldDescriptor;
 import static com.mastfrog.builder.annotation.processors.BuilderDescriptors.initDebug;
 import static com.mastfrog.builder.annotation.processors.BuilderStyles.DEBUG;
-import static com.mastfrog.builder.annotation.processors.Utils.combine;
-import static com.mastfrog.builder.annotation.processors.Utils.including;
-import static com.mastfrog.builder.annotation.processors.Utils.omitting;
 import static com.mastfrog.builder.annotation.processors.Utils.sorted;
 import com.mastfrog.java.vogon.ClassBuilder;
 import com.mastfrog.java.vogon.ClassBuilder.InvocationBuilder;
@@ -42,11 +39,13 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import static javax.lang.model.element.Modifier.FINAL;
 import static javax.lang.model.element.Modifier.PUBLIC;
 import static javax.lang.model.element.Modifier.STATIC;
@@ -60,10 +59,56 @@ import javax.lang.model.type.TypeKind;
 public class Gen2Cartesian {
 
     private final BuilderDescriptor desc;
-    private final Map<String, OneBuilderModel> models = new HashMap<>();
+    // Models are keyed by the bitmask of the required fields already set
+    private final Map<Long, OneBuilderModel> models = new HashMap<>();
+    private final List<FieldDescriptor> required;
+    private final Map<FieldDescriptor, Long> bits = new HashMap<>();
+    private final List<List<FieldDescriptor>> dimensions;
+    private final long[] dimensionMasks;
+    private final long allRequired;
+    private final Set<FieldDescriptor> carried;
+    private final List<Supplier<ClassBuilder<String>>> separateSources = new ArrayList<>();
 
     Gen2Cartesian(BuilderDescriptor desc) {
         this.desc = desc;
+        required = new ArrayList<>(desc.compileTimeRequiredFields());
+        if (required.size() > Long.SIZE) {
+            desc.utils().fail("Cartesian builders can enforce at most "
+                    + Long.SIZE + " required parameters", desc.origin);
+        }
+        for (int i = 0; i < required.size() && i < Long.SIZE; i++) {
+            bits.put(required.get(i), 1L << i);
+        }
+        allRequired = maskOf(required);
+        dimensions = desc.dimensionsOf(required);
+        dimensionMasks = new long[dimensions.size()];
+        for (int i = 0; i < dimensionMasks.length; i++) {
+            dimensionMasks[i] = maskOf(dimensions.get(i));
+        }
+        carried = desc.carriedFields();
+    }
+
+    private long maskOf(Collection<? extends FieldDescriptor> flds) {
+        long result = 0;
+        for (FieldDescriptor fd : flds) {
+            result |= bitOf(fd);
+        }
+        return result;
+    }
+
+    private long bitOf(FieldDescriptor fd) {
+        Long result = bits.get(fd);
+        return result == null ? 0 : result;
+    }
+
+    private Set<FieldDescriptor> fieldsOf(long mask) {
+        Set<FieldDescriptor> result = new LinkedHashSet<>(Long.bitCount(mask) * 2);
+        for (FieldDescriptor fd : required) {
+            if ((mask & bitOf(fd)) != 0) {
+                result.add(fd);
+            }
+        }
+        return result;
     }
 
     ClassBuilder<String> generate() {
@@ -92,34 +137,59 @@ public class Gen2Cartesian {
             }
             return 0;
         });
+        boolean separate = desc.isSeparateFiles();
+        if (separate) {
+            for (FieldDescriptor fd : desc.fields()) {
+                fd.defaulter.ifPresent(def -> def.heldBy(desc.builderName));
+            }
+        }
         for (OneBuilderModel m : models) {
-            m.generateSkeleton(cb);
+            if (separate && !m.isRoot()) {
+                separateSources.add(m::generateSeparately);
+            } else {
+                m.generateSkeleton(cb);
+            }
         }
         return cb;
     }
 
+    /**
+     * Get the intermediate builders to generate as top-level classes in their
+     * own source files, if the SEPARATE_FILES style applies.
+     *
+     * @return A list of suppliers which generate a builder when called
+     */
+    List<Supplier<ClassBuilder<String>>> separateSources() {
+        return separateSources;
+    }
+
     private OneBuilderModel initTree() {
         OneBuilderModel root = rootBuilder();
         initOne(root, new HashSet<>());
         return root;
     }
 
-    private void initOne(OneBuilderModel mdl, Set<String> seen) {
-        if (seen.contains(mdl.name)) {
+    private void initOne(OneBuilderModel mdl, Set<Long> seen) {
+        if (!seen.add(mdl.usedMask)) {
             return;
         }
-        seen.add(mdl.name);
         for (OneBuilderModel child : mdl.children()) {
             initOne(child, seen);
         }
     }
 
     private OneBuilderModel rootBuilder() {
-        return forFields(desc.requiredFields(), Collections.emptySet());
+        return forMask(0L);
     }
 
     private String oneBuilderName(Collection<? extends FieldDescriptor> used,
             Collection<? extends FieldDescriptor> unused) {
+        return intermediateBuilderName(desc, used, unused);
+    }
+
+    static String intermediateBuilderName(BuilderDescriptor desc,
+            Collection<? extends FieldDescriptor> used,
+            Collection<? extends FieldDescriptor> unused) {
         if (used.isEmpty()) {
             return desc.builderName;
         }
@@ -137,16 +207,13 @@ public class Gen2Cartesian {
         return sb.toString();
     }
 
-    private OneBuilderModel forFields(Set<FieldDescriptor> unused, Set<FieldDescriptor> used) {
-        String name = oneBuilderName(used, unused);
-        return models.computeIfAbsent(name, nm -> {
-
-            return new OneBuilderModel(unused, used, desc.optionalFields());
-        });
+    private OneBuilderModel forMask(long usedMask) {
+        return models.computeIfAbsent(usedMask, OneBuilderModel::new);
     }
 
     private class OneBuilderModel implements Comparable<OneBuilderModel> {
 
+        private final long usedMask;
         private final Set<FieldDescriptor> unusedFields;
         private final Set<FieldDescriptor> usedFields;
         private final Set<FieldDescriptor> optionalFields;
@@ -155,17 +222,32 @@ public class Gen2Cartesian {
         private List<OneBuilderModel> children;
         private final String name;
 
-        public OneBuilderModel(Set<FieldDescriptor> unusedFields, Set<FieldDescriptor> usedFields, Set<FieldDescriptor> optionalFields) {
-            this.unusedFields = unusedFields;
-            this.usedFields = usedFields;
-            this.optionalFields = optionalFields;
+        public OneBuilderModel(long usedMask) {
+            this.usedMask = usedMask;
+            this.unusedFields = fieldsOf(allRequired & ~usedMask);
+            this.usedFields = fieldsOf(usedMask);
+            this.optionalFields = carried;
             if (unusedFields.isEmpty()) {
                 name = desc.builderName;
             } else {
                 name = oneBuilderName(usedFields, unusedFields);
             }
-            explicitGenerics = desc.genericSignatureForBuilderWith(combine(optionalFields, usedFields), GenericSignatureKind.EXPLICIT_BOUNDS);
-            implicitGenerics = desc.genericSignatureForBuilderWith(combine(optionalFields, usedFields), GenericSignatureKind.IMPLICIT_BOUNDS);
+            explicitGenerics = desc.genericSignatureForBuilderWith(usedFields, GenericSignatureKind.EXPLICIT_BOUNDS);
+            implicitGenerics = desc.genericSignatureForBuilderWith(usedFields, GenericSignatureKind.IMPLICIT_BOUNDS);
+        }
+
+        /**
+         * Get the groups of fields which can be set on this builder to reach
+         * the next, in declaration order.
+         */
+        private List<List<FieldDescriptor>> remainingDimensions() {
+            List<List<FieldDescriptor>> result = new ArrayList<>(dimensions.size());
+            for (int i = 0; i < dimensionMasks.length; i++) {
+                if ((usedMask & dimensionMasks[i]) == 0) {
+                    result.add(dimensions.get(i));
+                }
+            }
+            return result;
         }
 
         <C> ClassBuilder<?> generateSkeleton(ClassBuilder<C> cb) {
@@ -187,6 +269,25 @@ public class Gen2Cartesian {
             return _generateSkeleton(result);
         }
 
+        ClassBuilder<String> generateSeparately() {
+            ClassBuilder<String> result = initDebug(ClassBuilder.forPackage(desc.packageName())
+                    .named(name));
+            if (desc.styles.contains(BuilderStyles.PACKAGE_PRIVATE)) {
+                result.withModifier(FINAL);
+            } else {
+                result.withModifier(PUBLIC, FINAL);
+            }
+            result.docComment("Intermediate builder for a <code>"
+                    + desc.targetTypeName + "</code> obtained from a "
+                    + "setter method on another builder.")
+                    .autoToString();
+            if (desc.styles.contains(DEBUG)) {
+                result.generateDebugLogCode();
+            }
+            _generateSkeleton(result);
+            return result;
+        }
+
         public List<String> addedGenerics(OneBuilderModel creator) {
             List<String> newGenerics = new ArrayList<>(creator.explicitGenerics);
             newGenerics.removeAll(explicitGenerics);
@@ -202,6 +303,8 @@ public class Gen2Cartesian {
             for (FieldDescriptor fd : optionalFields) {
                 lff.generatorFor(fd).generate(false);
             }
+            UnsetCheckerFactory<C> ucf = UnsetCheckerFactory.create(result, desc, lff);
+            String optionalsSet = ucf.optionalMaskField();
             result.constructor(con -> {
                 if (isRoot()) {
                     con.setModifier(PUBLIC);
@@ -211,7 +314,10 @@ public class Gen2Cartesian {
                 }
                 if (!isRoot()) {
                     for (FieldDescriptor fd : optionalFields) {
-                        con.addArgument(fd.typeName(), fd.fieldName);
+                        con.addArgument(fd.storageTypeName(), fd.fieldName);
+                    }
+                    if (optionalsSet != null) {
+                        con.addArgument(ucf.optionalMaskType(), "__optionalsSet");
                     }
                 }
                 con.body(bb -> {
@@ -233,20 +339,28 @@ public class Gen2Cartesian {
                             bb.statement("this." + lff.generatorFor(fd).localFieldName()
                                     + " = " + fd.fieldName);
                         }
+                        if (optionalsSet != null) {
+                            bb.statement("this." + optionalsSet + " = __optionalsSet");
+                        }
                     }
                 });
             });
-            UnsetCheckerFactory<C> ucf = UnsetCheckerFactory.create(result, desc, lff);
             ValidationMethodFactory<C> vmf = ValidationMethodFactory.create(result, desc);
             SetterMethodFactory<C> smf = SetterMethodFactory.create(result, desc, lff, ucf, vmf);
             for (FieldDescriptor fd : optionalFields) {
                 smf.generatorFor(fd).generate();
             }
 
-            if (unusedFields.size() > 1) {
-                for (FieldDescriptor fd : unusedFields) {
+            List<List<FieldDescriptor>> dimensions = remainingDimensions();
+            if (dimensions.size() > 1) {
+                for (List<FieldDescriptor> group : dimensions) {
+                    if (group.size() > 1) {
+                        generateGroupSetter(result, group, ucf, lff, vmf);
+                        continue;
+                    }
+                    FieldDescriptor fd = group.get(0);
                     String withMethodName = "with" + capitalize(fd.fieldName);
-                    OneBuilderModel next = forFields(omitting(fd, unusedFields), including(fd, usedFields));
+                    OneBuilderModel next = forMask(usedMask | bitOf(fd));
                     result.method(withMethodName, mb -> {
                         if (fd.canBeVarargs()) {
                             mb.withModifier(FINAL)
@@ -264,7 +378,7 @@ public class Gen2Cartesian {
                         }
                         mb.body(bb -> {
                             bb.returningNew(nb -> {
-                                next.applyArgs(result, ucf, nb, lff, fd, vmf);
+                                next.applyArgs(result, ucf, nb, lff, Collections.singleton(fd), vmf);
                                 nb.ofType(next.nameWithImplicitGenerics());
                             });
                         });
@@ -306,7 +420,7 @@ public class Gen2Cartesian {
                                         .as(fd.unboxedNumberTypeName());
 
                                 bb.returningNew(nb -> {
-                                    next.applyArgs(result, ucf, nb, lff, fd, vmf);
+                                    next.applyArgs(result, ucf, nb, lff, Collections.singleton(fd), vmf);
                                     nb.ofType(next.nameWithImplicitGenerics());
                                 });
                             });
@@ -315,6 +429,8 @@ public class Gen2Cartesian {
 
                     generateBuilderWithMethod(desc, fd, result, withMethodName, next);
                 }
+            } else if (dimensions.size() == 1 && dimensions.get(0).size() > 1) {
+                generateGroupBuildMethod(result, dimensions.get(0), ucf, lff, vmf);
             } else if (unusedFields.size() == 1) {
                 FieldDescriptor last = unusedFields.iterator().next();
                 List<String> methodGens = desc.genericsRequiredFor(Collections.singleton(last));
@@ -322,7 +438,6 @@ public class Gen2Cartesian {
                 String retGenerics = desc.fullTargetGenerics();
 
                 String buildWithMethod = "buildWith" + capitalize(last.fieldName);
-                boolean hasGenerics = !desc.genericsRequiredFor(desc.fields()).isEmpty();
                 result.method(buildWithMethod, mb -> {
                     mb.addArgument(last.parameterTypeName(), last.fieldName);
                     mb.withModifier(PUBLIC);
@@ -351,22 +466,9 @@ public class Gen2Cartesian {
                         bb.lineComment("a. fullTargetGenericSignature " + desc.fullTargetGenericSignature());
 
                         generateNullCheck(last, bb);
-                        Set<FieldDescriptor> optionals = desc.optionalFields();
+                        ucf.generateRuntimeChecks(bb);
                         bb.returningNew(nb -> {
-                            for (FieldDescriptor fd : desc.fields()) {
-                                Optional<Defaulter> def = fd.defaulter;
-                                if (fd != last) {
-                                    if (def.isPresent()) {
-                                        def.get().generate(lff.generatorFor(fd).localFieldName(), ucf.generatorFor(fd), nb.withArgument(), result);
-                                    } else {
-                                        nb.withArgument(lff.generatorFor(fd).localFieldName());
-                                    }
-                                } else {
-                                    generateInlineConstraintsTest(result, ucf, nb, fd, def, vmf);
-                                }
-                            }
-
-                            nb.ofType(desc.targetTypeName + (hasGenerics ? "<>" : ""));
+                            applyBuildArgs(result, ucf, nb, lff, Collections.singleton(last), vmf);
                         });
                     });
                 });
@@ -431,22 +533,9 @@ public class Gen2Cartesian {
                             bb.lineComment("b. fullTargetGenericSignature " + desc.fullTargetGenericSignature());
 
                             generateNullCheck(last, bb);
-                            Set<FieldDescriptor> optionals = desc.optionalFields();
+                            ucf.generateRuntimeChecks(bb);
                             bb.returningNew(nb -> {
-                                for (FieldDescriptor fd : desc.fields()) {
-                                    Optional<Defaulter> def = fd.defaulter;
-                                    if (fd != last) {
-                                        if (def.isPresent()) {
-                                            def.get().generate(lff.generatorFor(fd).localFieldName(), ucf.generatorFor(fd), nb.withArgument(), result);
-                                        } else {
-                                            nb.withArgument(lff.generatorFor(fd).localFieldName());
-                                        }
-                                    } else {
-                                        generateInlineConstraintsTest(result, ucf, nb, fd, def, vmf);
-                                    }
-                                }
-
-                                nb.ofType(desc.targetTypeName + (hasGenerics ? "<>" : ""));
+                                applyBuildArgs(result, ucf, nb, lff, Collections.singleton(last), vmf);
                             });
 
                         });
@@ -458,6 +547,86 @@ public class Gen2Cartesian {
             return result;
         }
 
+        /**
+         * Generate a single setter for a group of fields which are set
+         * together, which counts as one step from this builder to the next.
+         */
+        private <C> void generateGroupSetter(ClassBuilder<C> result, List<FieldDescriptor> group,
+                UnsetCheckerFactory<C> ucf, LocalFieldFactory<C> lff, ValidationMethodFactory<C> vmf) {
+            OneBuilderModel next = forMask(usedMask | maskOf(group));
+            result.method(groupMethodName("with", group), mb -> {
+                for (FieldDescriptor fd : group) {
+                    mb.addArgument(fd.typeName(), fd.fieldName);
+                }
+                mb.returning(next.nameWithImplicitGenerics());
+                mb.withModifier(PUBLIC);
+                mb.docComment(groupJavadoc(group, "a builder"));
+                mb.withTypeParams(addedGenerics(next));
+                mb.body(bb -> {
+                    bb.returningNew(nb -> {
+                        next.applyArgs(result, ucf, nb, lff, group, vmf);
+                        nb.ofType(next.nameWithImplicitGenerics());
+                    });
+                });
+            });
+        }
+
+        /**
+         * Generate the build method which takes the last remaining group of
+         * fields which are set together.
+         */
+        private <C> void generateGroupBuildMethod(ClassBuilder<C> result, List<FieldDescriptor> group,
+                UnsetCheckerFactory<C> ucf, LocalFieldFactory<C> lff, ValidationMethodFactory<C> vmf) {
+            List<String> methodGens = desc.genericsRequiredFor(group);
+            result.method(groupMethodName("buildWith", group), mb -> {
+                for (FieldDescriptor fd : group) {
+                    mb.addArgument(fd.typeName(), fd.fieldName);
+                }
+                mb.withModifier(PUBLIC);
+                mb.docComment(groupJavadoc(group, "a " + desc.targetTypeName));
+                mb.returning(desc.targetTypeName + desc.fullTargetGenerics());
+                for (String mg : methodGens) {
+                    if (!this.implicitGenerics.contains(mg)) {
+                        mb.withTypeParam(desc.generics.nameWithBound(mg));
+                    }
+                }
+                desc.thrownTypes().forEach(thrown -> {
+                    if (thrown.getKind() != TypeKind.DECLARED) {
+                        desc.utils().fail("Cannot handle generified thrown types", desc.origin);
+                    }
+                    mb.throwing(thrown.toString());
+                });
+                mb.body(bb -> {
+                    for (FieldDescriptor fd : group) {
+                        generateNullCheck(fd, bb);
+                    }
+                    ucf.generateRuntimeChecks(bb);
+                    bb.returningNew(nb -> {
+                        applyBuildArgs(result, ucf, nb, lff, group, vmf);
+                    });
+                });
+            });
+        }
+
+        private <C, N extends NewBuilder<T>, T> void applyBuildArgs(ClassBuilder<C> bldr,
+                UnsetCheckerFactory<C> ucf, N nb, LocalFieldFactory<C> lff,
+                Collection<FieldDescriptor> adding, ValidationMethodFactory<C> vmf) {
+            for (FieldDescriptor fd : desc.fields()) {
+                Optional<Defaulter> def = fd.defaulter;
+                if (!adding.contains(fd)) {
+                    if (def.isPresent()) {
+                        def.get().generate(lff.generatorFor(fd).localFieldName(), ucf.generatorFor(fd), nb.withArgument(), bldr);
+                    } else {
+                        nb.withArgument(lff.generatorFor(fd).localFieldName());
+                    }
+                } else {
+                    generateInlineConstraintsTest(bldr, ucf, nb, fd, def, vmf);
+                }
+            }
+            boolean hasGenerics = !desc.genericsRequiredFor(desc.fields()).isEmpty();
+            nb.ofType(desc.targetTypeName + (hasGenerics ? "<>" : ""));
+        }
+
         public void generateNullCheck(FieldDescriptor fd, ClassBuilder.BlockBuilder<?> bb) {
             if (fd.isPrimitive()) {
                 bb.ifNull(fd.fieldName)
@@ -497,21 +666,25 @@ public class Gen2Cartesian {
         }
 
         private <C, N extends NewBuilder<T>, T> void applyArgs(ClassBuilder<C> bldr, UnsetCheckerFactory<C> ucf, N nb, LocalFieldFactory<C> lff,
-                FieldDescriptor adding, ValidationMethodFactory<C> vmf) {
+                Collection<FieldDescriptor> adding, ValidationMethodFactory<C> vmf) {
             for (FieldDescriptor fd : usedFields) {
-                if (adding == fd) {
+                if (adding.contains(fd)) {
                     generateInlineConstraintsTest(bldr, ucf, nb, fd, fd.defaulter, vmf);
                 } else {
                     nb.withArgument(lff.generatorFor(fd).localFieldName());
                 }
             }
             for (FieldDescriptor fd : optionalFields) {
-                if (adding == fd) {
+                if (adding.contains(fd)) {
                     generateInlineConstraintsTest(bldr, ucf, nb, fd, fd.defaulter, vmf);
                 } else {
                     nb.withArgument(lff.generatorFor(fd).localFieldName());
                 }
             }
+            String optionalsSet = ucf.optionalMaskField();
+            if (optionalsSet != null) {
+                nb.withArgument("this." + optionalsSet);
+            }
         }
 
         private String nameWithImplicitGenerics() {
@@ -534,13 +707,12 @@ public class Gen2Cartesian {
                 return children;
             }
             List<OneBuilderModel> result = new ArrayList<>();
-            for (FieldDescriptor desc : unusedFields) {
-                Set<FieldDescriptor> newUnused = Utils.omitting(desc, unusedFields);
-                if (newUnused.isEmpty()) {
-                    break;
+            for (long dimension : dimensionMasks) {
+                long newUsed = usedMask | dimension;
+                if ((usedMask & dimension) != 0 || newUsed == allRequired) {
+                    continue;
                 }
-                Set<FieldDescriptor> newUsed = Utils.including(desc, usedFields);
-                result.add(forFields(newUnused, newUsed));
+                result.add(forMask(newUsed));
             }
             return children = result;
         }
@@ -575,55 +747,100 @@ public class Gen2Cartesian {
         }
     }
 
+    static String groupMethodName(String prefix, List<FieldDescriptor> group) {
+        StringBuilder sb = new StringBuilder(prefix);
+        for (int i = 0; i < group.size(); i++) {
+            if (i > 0) {
+                sb.append("And");
+            }
+            sb.append(capitalize(group.get(i).fieldName));
+        }
+        return sb.toString();
+    }
+
+    static String groupJavadoc(List<FieldDescriptor> group, String returned) {
+        StringBuilder sb = new StringBuilder("Sets the <b>required</b> parameters ");
+        for (int i = 0; i < group.size(); i++) {
+            if (i > 0) {
+                sb.append(i == group.size() - 1 ? " and " : ", ");
+            }
+            sb.append("<code>").append(group.get(i).fieldName).append("</code>");
+        }
+        sb.append(" together.");
+        for (FieldDescriptor fd : group) {
+            sb.append("\n@param ").append(fd.fieldName).append(" a ").append(fd.var.asType());
+        }
+        return sb.append("\n@return ").append(returned).toString();
+    }
+
     public static <C> void generateBuilderWithMethod(BuilderDescriptor desc, FieldDescriptor fd, ClassBuilder<C> result, String withMethodName, OneBuilderModel next) {
         generateBuilderWithMethod(desc, fd, result, withMethodName, next.nameWithImplicitGenerics());
     }
 
-    public static <C> void generateBuilderWithMethod(BuilderDescriptor desc,
-            FieldDescriptor fd, ClassBuilder<C> result, String withMethodName,
-            String nextBuilderType) {
+    /**
+     * Find the builder descriptor for the type of a field, if we are
+     * generating a builder for it, and it can be used from the builder being
+     * generated.
+     *
+     * @param desc The builder being generated
+     * @param fd A field
+     * @return The descriptor of a builder for the field's type, if any
+     */
+    static Optional<BuilderDescriptor> closureTarget(BuilderDescriptor desc, FieldDescriptor fd) {
         TypeElement targ = fd.targetTypeElement();
         // will be null for types like int[] that don't have a type
         // element
         if (targ != null && targ.asType().getKind() == TypeKind.DECLARED) {
             String nm = targ.asType().toString();
             if (nm.startsWith("java.")) {
-                return;
+                return Optional.empty();
             }
-            desc.owner().find(targ).ifPresent(other -> {
-                boolean canBuild = other.isSamePackage(desc)
-                        || !other.styles.contains(BuilderStyles.PACKAGE_PRIVATE);
-                if (canBuild) {
-                    result.method(withMethodName, mb -> {
-                        result.importing(Function.class);
-                        desc.thrownTypes().forEach(thrown -> {
-                            if (thrown.getKind() != TypeKind.DECLARED) {
-                                desc.utils().fail("Cannot handle generified thrown types", desc.origin);
-                            }
-                            mb.throwing(thrown.toString());
-                        });
+            return desc.owner().find(targ).filter(other -> other.isSamePackage(desc)
+                    || !other.styles.contains(BuilderStyles.PACKAGE_PRIVATE));
+        }
+        return Optional.empty();
+    }
 
-                        mb.withModifier(PUBLIC)
-                                .docComment("Populate the " + fd.fieldName + " using a builder."
-                                        + "\n@param builderHandler a function which "
-                                        + "takes the passed builder and returns a result from it."
-                                        + "\n@return a builder")
-                                .returning(nextBuilderType)
-                                .addArgument("Function<" + other.builderName
-                                        + ", " + fd.typeName() + ">", "builderHandler")
-                                .body(bb -> {
-                                    bb.returningInvocationOf(withMethodName)
-                                            .withArgumentFromInvoking("apply")
-                                            .withArgumentFromNew(nb -> {
-                                                nb.ofType(other.builderName);
-                                            }).on("builderHandler")
-                                            .onThis();
-                                });
-                    });
+    public static <C> void generateBuilderWithMethod(BuilderDescriptor desc,
+            FieldDescriptor fd, ClassBuilder<C> result, String withMethodName,
+            String nextBuilderType) {
+        closureTarget(desc, fd).ifPresent(other -> {
+            result.method(withMethodName, mb -> {
+                result.importing(Function.class);
+                desc.thrownTypes().forEach(thrown -> {
+                    if (thrown.getKind() != TypeKind.DECLARED) {
+                        desc.utils().fail("Cannot handle generified thrown types", desc.origin);
+                    }
+                    mb.throwing(thrown.toString());
+                });
 
-                }
+                mb.withModifier(PUBLIC)
+                        .docComment("Populate the " + fd.fieldName + " using a builder."
+                                + "\n@param builderHandler a function which "
+                                + "takes the passed builder and returns a result from it."
+                                + "\n@return a builder")
+                        .returning(nextBuilderType)
+                        .addArgument("Function<" + other.builderName
+                                + ", " + fd.typeName() + ">", "builderHandler")
+                        .body(bb -> {
+                            if (other.isPooled()) {
+                                bb.returningInvocationOf(withMethodName)
+                                        .withArgumentFromInvoking("apply")
+                                        .withArgumentFromInvoking("pooled")
+                                        .on(other.builderName)
+                                        .on("builderHandler")
+                                        .onThis();
+                            } else {
+                                bb.returningInvocationOf(withMethodName)
+                                        .withArgumentFromInvoking("apply")
+                                        .withArgumentFromNew(nb -> {
+                                            nb.ofType(other.builderName);
+                                        }).on("builderHandler")
+                                        .onThis();
+                            }
+                        });
             });
-        }
+        });
     }
 
 }
@@ -0,0 +1,458 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.annotation.processors;
+
+import static com.mastfrog.annotation.AnnotationUtils.capitalize;
+import com.mastfrog.builder.annotation.processors.BuilderDescriptors.BuilderDescriptor;
+import com.mastfrog.builder.annotation.processors.BuilderDescriptors.BuilderDescriptor.FieldDescriptor;
+import static com.mastfrog.builder.annotation.processors.BuilderDescriptors.initDebug;
+import static com.mastfrog.builder.annotation.processors.BuilderStyles.DEBUG;
+import static com.mastfrog.builder.annotation.processors.Gen2Cartesian.closureTarget;
+import static com.mastfrog.builder.annotation.processors.Gen2Cartesian.generateBuilderWithMethod;
+import static com.mastfrog.builder.annotation.processors.Gen2Cartesian.intermediateBuilderName;
+import static com.mastfrog.builder.annotation.processors.Utils.including;
+import static com.mastfrog.builder.annotation.processors.Utils.omitting;
+import com.mastfrog.java.vogon.ClassBuilder;
+import static com.mastfrog.java.vogon.ClassBuilder.variable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
+import javax.lang.model.type.TypeKind;
+
+/**
+ * Generates builders with the same compile-time guarantees as
+ * Gen2Cartesian, but where the intermediate builder types are interfaces, all
+ * implemented by a single mutable carrier class whose setters return
+ * <code>this</code> - so a chain of setters allocates one carrier, rather than
+ * one builder per setter call, each copying every field set so far.
+ * <p>
+ * Since a single class cannot implement the same generic method with
+ * differing type parameters, this is only usable for types which do not
+ * require generics in their builders.
+ * </p>
+ * <p>
+ * In <i>staged</i> mode, required parameters must be set in the order they
+ * are declared, so rather than one interface per subset of the required
+ * parameters, there is one per required parameter - which keeps the number
+ * and size of generated types linear in the number of parameters, and makes
+ * compile-time checking usable for types with too many required parameters
+ * for the cartesian style.
+ * </p>
+ *
+ * @author Tim Boudreau
+ */
+public class Gen2SingleInstance {
+
+    private final BuilderDescriptor desc;
+    private final Map<String, StateModel> states = new TreeMap<>();
+    private final boolean staged;
+    private final List<FieldDescriptor> stages;
+
+    Gen2SingleInstance(BuilderDescriptor desc) {
+        this(desc, false);
+    }
+
+    Gen2SingleInstance(BuilderDescriptor desc, boolean staged) {
+        this.desc = desc;
+        this.staged = staged;
+        this.stages = new ArrayList<>(desc.requiredFields());
+    }
+
+    static boolean canGenerate(BuilderDescriptor desc) {
+        return !desc.requiredFields().isEmpty()
+                && desc.genericsRequiredFor(desc.fields()).isEmpty();
+    }
+
+    ClassBuilder<String> generate() {
+        ClassBuilder<String> cb = initDebug(ClassBuilder.forPackage(desc.packageName())
+                .named(desc.builderName)
+                .withModifier(PUBLIC, FINAL)
+                .docComment("Builder for a " + desc.targetTypeName + ".")
+                .autoToString());
+
+        if (desc.styles.contains(DEBUG)) {
+            cb.generateDebugLogCode();
+        }
+        if (staged) {
+            collectStages();
+        } else {
+            collectStates(desc.requiredFields(), Collections.emptySet());
+        }
+
+        String carrier = desc.builderName + "Carrier";
+        generateRoot(cb, carrier);
+        for (StateModel state : states.values()) {
+            state.generateInterface(cb);
+        }
+        generateCarrier(cb, carrier);
+        return cb;
+    }
+
+    private void collectStates(Set<FieldDescriptor> unused, Set<FieldDescriptor> used) {
+        if (unused.isEmpty()) {
+            return;
+        }
+        if (!used.isEmpty()) {
+            String name = intermediateBuilderName(desc, used, unused);
+            if (states.containsKey(name)) {
+                return;
+            }
+            states.put(name, new StateModel(name, unused));
+        }
+        if (unused.size() > 1) {
+            for (FieldDescriptor fd : unused) {
+                collectStates(omitting(fd, unused), including(fd, used));
+            }
+        }
+    }
+
+    private void collectStages() {
+        for (int i = 1; i < stages.size(); i++) {
+            String name = stageName(stages.get(i));
+            states.put(name, new StateModel(name,
+                    new LinkedHashSet<>(stages.subList(i, stages.size()))));
+        }
+    }
+
+    private String stageName(FieldDescriptor next) {
+        return desc.builderName + "Needs" + capitalize(next.fieldName);
+    }
+
+    /**
+     * Get the required fields which can be set next from a state.
+     *
+     * @param unused The required fields not yet set
+     * @return The fields
+     */
+    private Set<FieldDescriptor> settable(Set<FieldDescriptor> unused) {
+        return staged ? Collections.singleton(unused.iterator().next()) : unused;
+    }
+
+    private String nextType(Set<FieldDescriptor> unused, FieldDescriptor adding) {
+        if (staged) {
+            return stageName(stages.get(stages.indexOf(adding) + 1));
+        }
+        Set<FieldDescriptor> newUnused = omitting(adding, unused);
+        Set<FieldDescriptor> newUsed = new LinkedHashSet<>(desc.requiredFields());
+        newUsed.removeAll(newUnused);
+        return intermediateBuilderName(desc, newUsed, newUnused);
+    }
+
+    private String targetType() {
+        return desc.targetTypeName;
+    }
+
+    private static String withMethodName(FieldDescriptor fd) {
+        return "with" + capitalize(fd.fieldName);
+    }
+
+    private static String buildWithMethodName(FieldDescriptor fd) {
+        return "buildWith" + capitalize(fd.fieldName);
+    }
+
+    private <C> void throwing(ClassBuilder.MethodBuilder<C> mb) {
+        desc.thrownTypes().forEach(thrown -> {
+            if (thrown.getKind() != TypeKind.DECLARED) {
+                desc.utils().fail("Cannot handle generified thrown types", desc.origin);
+            }
+            mb.throwing(thrown.toString());
+        });
+    }
+
+    private <C> void generateRoot(ClassBuilder<C> cb, String carrier) {
+        LocalFieldFactory<C> lff = LocalFieldFactory.create(desc, cb);
+        for (FieldDescriptor fd : desc.optionalFields()) {
+            lff.generatorFor(fd).generate(false);
+        }
+        cb.constructor(con -> {
+            con.setModifier(PUBLIC);
+            con.body(bb -> {
+                bb.lineComment("Optional parameters are held here until the first");
+                bb.lineComment("required one is set and the carrier is created.");
+            });
+        });
+        UnsetCheckerFactory<C> ucf = UnsetCheckerFactory.create(cb, desc, lff);
+        ValidationMethodFactory<C> vmf = ValidationMethodFactory.create(cb, desc);
+        SetterMethodFactory<C> smf = SetterMethodFactory.create(cb, desc, lff, ucf, vmf);
+        for (FieldDescriptor fd : desc.optionalFields()) {
+            smf.generatorFor(fd).generate();
+        }
+        Set<FieldDescriptor> required = desc.requiredFields();
+        for (FieldDescriptor fd : settable(required)) {
+            boolean last = required.size() == 1;
+            String methodName = last ? buildWithMethodName(fd) : withMethodName(fd);
+            String returnType = last ? targetType() : nextType(required, fd);
+            cb.method(methodName, mb -> {
+                if (fd.canBeVarargs()) {
+                    mb.withModifier(FINAL)
+                            .annotatedWith("SafeVarargs").closeAnnotation();
+                }
+                mb.addArgument(fd.parameterTypeName(), fd.fieldName)
+                        .withModifier(PUBLIC)
+                        .docComment(fd.setterJavadoc())
+                        .returning(returnType);
+                if (last) {
+                    throwing(mb);
+                }
+                mb.body(bb -> {
+                    newCarrier(bb, carrier, lff, ucf);
+                    bb.returningInvocationOf(methodName)
+                            .withArgument(fd.fieldName)
+                            .on("carrier");
+                });
+            });
+            if (fd.isNumericTypeRequiringCast()) {
+                cb.method(methodName, mb -> {
+                    String convenienceType = fd.convenienceParameterTypeName();
+                    mb.addArgument(convenienceType, "value")
+                            .withModifier(PUBLIC)
+                            .docComment("Convenience setter which takes a <code>" + convenienceType
+                                    + "</code> to eliminate the need for casts. Arguments are checked "
+                                    + " against <code>" + fd.minValue() + "</code> / <code>"
+                                    + fd.maxValue() + "</code>\n" + fd.setterJavadoc())
+                            .returning(returnType);
+                    if (last) {
+                        throwing(mb);
+                    }
+                    mb.body(bb -> {
+                        newCarrier(bb, carrier, lff, ucf);
+                        bb.returningInvocationOf(methodName)
+                                .withArgument("value")
+                                .on("carrier");
+                    });
+                });
+            }
+            generateBuilderWithMethod(desc, fd, cb, methodName, returnType);
+        }
+    }
+
+    private <C> void newCarrier(ClassBuilder.BlockBuilder<?> bb, String carrier,
+            LocalFieldFactory<C> lff, UnsetCheckerFactory<C> ucf) {
+        bb.declare("carrier").initializedWithNew(nb -> {
+            for (FieldDescriptor opt : desc.optionalFields()) {
+                nb.withArgument(lff.generatorFor(opt).localFieldName());
+            }
+            String optionalsSet = ucf.optionalMaskField();
+            if (optionalsSet != null) {
+                nb.withArgument("this." + optionalsSet);
+            }
+            nb.ofType(carrier);
+        }).as(carrier);
+    }
+
+    private <C> void generateCarrier(ClassBuilder<C> cb, String carrier) {
+        ClassBuilder<?> impl = cb.innerClass(carrier)
+                .withModifier(PRIVATE, STATIC, FINAL)
+                .docComment("The single mutable builder which implements every intermediate "
+                        + "builder interface, and returns itself from setters.")
+                .autoToString();
+        for (String iface : states.keySet()) {
+            impl.implementing(iface);
+        }
+        generateCarrierMembers(impl);
+        impl.build();
+    }
+
+    private <C> void generateCarrierMembers(ClassBuilder<C> impl) {
+        LocalFieldFactory<C> lff = LocalFieldFactory.create(desc, impl);
+        lff.generate();
+        UnsetCheckerFactory<C> ucf = UnsetCheckerFactory.create(impl, desc, lff);
+        String optionalsSet = ucf.optionalMaskField();
+        impl.constructor(con -> {
+            for (FieldDescriptor fd : desc.optionalFields()) {
+                con.addArgument(fd.typeName(), fd.fieldName);
+            }
+            if (optionalsSet != null) {
+                con.addArgument(ucf.optionalMaskType(), "__optionalsSet");
+            }
+            con.body(bb -> {
+                for (FieldDescriptor fd : desc.optionalFields()) {
+                    bb.statement("this." + lff.generatorFor(fd).localFieldName()
+                            + " = " + fd.fieldName);
+                }
+                if (optionalsSet != null) {
+                    bb.statement("this." + optionalsSet + " = __optionalsSet");
+                }
+            });
+        });
+        ValidationMethodFactory<C> vmf = ValidationMethodFactory.create(impl, desc);
+        // Required fields cannot be unset when the build method is reachable,
+        // so there is nothing to track for them at runtime
+        SetterMethodFactory<C> smf = new SetterMethodFactory<>(impl, desc.styles,
+                lff::generatorFor, desc, fd -> fd.optional
+                ? ucf.generatorFor(fd) : ucf.untrackedGeneratorFor(fd), vmf);
+        smf.generate();
+
+        if (staged) {
+            generateBuildMethods(impl, lff, ucf, vmf, stages.get(stages.size() - 1));
+        } else {
+            for (FieldDescriptor last : desc.requiredFields()) {
+                generateBuildMethods(impl, lff, ucf, vmf, last);
+            }
+        }
+    }
+
+    private <C> void generateBuildMethods(ClassBuilder<C> impl, LocalFieldFactory<C> lff,
+            UnsetCheckerFactory<C> ucf, ValidationMethodFactory<C> vmf, FieldDescriptor last) {
+        String buildWithMethod = buildWithMethodName(last);
+        impl.method(buildWithMethod, mb -> {
+            if (last.canBeVarargs()) {
+                mb.withModifier(FINAL)
+                        .annotatedWith("SafeVarargs").closeAnnotation();
+            }
+            mb.addArgument(last.parameterTypeName(), last.fieldName)
+                    .withModifier(PUBLIC)
+                    .returning(targetType());
+            throwing(mb);
+            mb.body(bb -> {
+                bb.returningNew(nb -> {
+                    for (FieldDescriptor fd : desc.fields()) {
+                        if (fd == last) {
+                            Optional<String> valMethod = vmf.generator(fd).validationMethod();
+                            if (valMethod.isPresent()) {
+                                nb.withArgumentFromInvoking(valMethod.get())
+                                        .withArgument(fd.fieldName).inScope();
+                            } else {
+                                nb.withArgument(fd.fieldName);
+                            }
+                        } else if (fd.defaulter.isPresent()) {
+                            fd.defaulter.get().generate(lff.generatorFor(fd).localFieldName(),
+                                    ucf.generatorFor(fd), nb.withArgument(), impl);
+                        } else {
+                            nb.withArgument(lff.generatorFor(fd).localFieldName());
+                        }
+                    }
+                    nb.ofType(targetType());
+                });
+            });
+        });
+        if (last.isNumericTypeRequiringCast()) {
+            impl.method(buildWithMethod, mb -> {
+                String convenienceType = last.convenienceParameterTypeName();
+                mb.addArgument(convenienceType, "value")
+                        .withModifier(PUBLIC)
+                        .returning(targetType());
+                throwing(mb);
+                mb.body(bb -> {
+                    ClassBuilder.Variable fv = variable("value");
+                    bb.iff(fv.isLessThan(last.minValue()).logicalOrWith(fv.isGreaterThan(last.maxValue())))
+                            .andThrow(nb -> {
+                                nb.withStringConcatentationArgument("value")
+                                        .append(" must be greater than or equal to ")
+                                        .appendExpression(last.minValue())
+                                        .append(" (").append(last.minValue())
+                                        .append(") and less than or equal to ")
+                                        .appendExpression(last.maxValue())
+                                        .append(" (").append(last.maxValue()).append(") but got ")
+                                        .appendExpression("value")
+                                        .endConcatenation()
+                                        .ofType("IllegalArgumentException");
+                            }).endIf();
+                    bb.declare(last.fieldName)
+                            .initializedWithCastTo(last.unboxedNumberTypeName())
+                            .ofExpression("value")
+                            .as(last.unboxedNumberTypeName());
+                    bb.returningInvocationOf(buildWithMethod)
+                            .withArgument(last.fieldName)
+                            .onThis();
+                });
+            });
+        }
+        generateBuilderWithMethod(desc, last, impl, buildWithMethod, targetType());
+    }
+
+    /**
+     * One intermediate state of the builder, with some subset of the required
+     * fields set, generated as an interface.
+     */
+    private class StateModel {
+
+        private final String name;
+        private final Set<FieldDescriptor> unusedFields;
+
+        StateModel(String name, Set<FieldDescriptor> unusedFields) {
+            this.name = name;
+            this.unusedFields = unusedFields;
+        }
+
+        <C> void generateInterface(ClassBuilder<C> cb) {
+            ClassBuilder<?> iface = cb.innerClass(name)
+                    .toInterface()
+                    .withModifier(PUBLIC)
+                    .docComment(staged
+                            ? "Stage of the builder for a <code>" + desc.targetTypeName
+                            + "</code> at which <code>" + unusedFields.iterator().next().fieldName
+                            + "</code> must be set next."
+                            : "Intermediate builder for a <code>"
+                            + desc.targetTypeName + "</code> obtained from a "
+                            + "setter method on another builder.");
+            for (FieldDescriptor fd : desc.optionalFields()) {
+                declare(iface, withMethodName(fd), fd, name, false);
+            }
+            if (unusedFields.size() > 1) {
+                for (FieldDescriptor fd : settable(unusedFields)) {
+                    declare(iface, withMethodName(fd), fd, nextType(unusedFields, fd), false);
+                }
+            } else {
+                FieldDescriptor last = unusedFields.iterator().next();
+                declare(iface, buildWithMethodName(last), last, targetType(), true);
+            }
+            iface.build();
+        }
+
+        private <C> void declare(ClassBuilder<C> iface, String methodName,
+                FieldDescriptor fd, String returnType, boolean build) {
+            List<String> argTypes = new ArrayList<>(3);
+            argTypes.add(fd.parameterTypeName());
+            if (fd.isNumericTypeRequiringCast()) {
+                argTypes.add(fd.convenienceParameterTypeName());
+            }
+            closureTarget(desc, fd).ifPresent(other -> {
+                iface.importing(Function.class);
+                argTypes.add("Function<" + other.builderName + ", " + fd.typeName() + ">");
+            });
+            for (String argType : argTypes) {
+                iface.method(methodName, mb -> {
+                    mb.addArgument(argType, fd.fieldName)
+                            .docComment(fd.setterJavadoc())
+                            .returning(returnType);
+                    if (build) {
+                        throwing(mb);
+                    }
+                    mb.closeMethod();
+                });
+            }
+        }
+    }
+}
@@ -29,6 +29,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -65,6 +66,8 @@ final class GenericsAnalyzer {
     private final ExecutableElement target;
     private final GenericsModel returnTypeModel;
     private final Map<String, GenericsModel> modelForParameter = new LinkedHashMap<>(12);
+    private final Map<String, String> boundForName = new HashMap<>();
+    private Set<TypeModel> all;
 
     GenericsAnalyzer(AnnotationUtils utils, ExecutableElement el) {
         this.target = el;
@@ -88,14 +91,22 @@ final class GenericsAnalyzer {
     }
 
     Set<TypeModel> all() {
-        Set<TypeModel> all = new LinkedHashSet<>(returnTypeModel.all);
-        modelForParameter.values().forEach(v -> {
-            all.addAll(v.all);
-        });
+        // The models are complete once the constructor has run
+        if (all == null) {
+            Set<TypeModel> result = new LinkedHashSet<>(returnTypeModel.all);
+            modelForParameter.values().forEach(v -> {
+                result.addAll(v.all);
+            });
+            all = Collections.unmodifiableSet(result);
+        }
         return all;
     }
 
     public String nameWithBound(String genericType) {
+        return boundForName.computeIfAbsent(genericType, this::computeNameWithBound);
+    }
+
+    private String computeNameWithBound(String genericType) {
         TypeModel target = null;
         for (TypeModel tm : all()) {
             if (tm.toString().equals(genericType)) {
@@ -29,6 +29,7 @@ import com.mastfrog.java.vogon.ClassBuilder;
 import java.util.HashMap;
 import java.util.Map;
 import javax.lang.model.element.Modifier;
+import javax.lang.model.type.TypeKind;
 
 /**
  *
@@ -59,6 +60,34 @@ public class LocalFieldFactory<C> {
         }
     }
 
+    /**
+     * Generate statements which return every local field to the value it has
+     * in a newly constructed builder.
+     *
+     * @param bb A block builder
+     */
+    public <T, B extends ClassBuilder.BlockBuilderBase<T, B, X>, X> void generateReset(B bb) {
+        for (FieldDescriptor fd : desc.fields()) {
+            bb.statement("this." + generatorFor(fd).localFieldName() + " = " + initialValue(fd));
+        }
+    }
+
+    private static String initialValue(FieldDescriptor fd) {
+        // Optional primitives are stored boxed unless UNBOXED_OPTIONALS
+        // is used, so null means unset; so are runtime-checked required
+        // primitives in HYBRID builders
+        if ((fd.optional && !fd.isUnboxedOptional()) || fd.isRuntimeChecked()) {
+            return "null";
+        }
+        TypeKind kind = fd.var.asType().getKind();
+        if (kind == TypeKind.BOOLEAN) {
+            return "false";
+        } else if (kind.isPrimitive()) {
+            return "0";
+        }
+        return "null";
+    }
+
     public interface LocalFieldGenerator {
 
         void generate(boolean makeFinal);
@@ -85,7 +114,7 @@ public class LocalFieldFactory<C> {
                 if (makeFinal) {
                     field.withModifier(Modifier.FINAL);
                 }
-                field.ofType(desc.typeName());
+                field.ofType(desc.storageTypeName());
             }
         }
 
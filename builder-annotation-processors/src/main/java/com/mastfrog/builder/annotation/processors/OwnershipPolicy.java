@@ -0,0 +1,67 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.annotation.processors;
+
+import com.mastfrog.annotation.AnnotationUtils;
+import java.util.Set;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.VariableElement;
+
+/**
+ * Mirrors the ownership policy enum in the annotations package.
+ *
+ * @author Tim Boudreau
+ */
+enum OwnershipPolicy {
+    COPY,
+    TRUST,
+    FREEZE;
+
+    static final String OWNERSHIP_ANNOTATION = "com.mastfrog.builder.annotations.Ownership";
+
+    /**
+     * Get the explicitly specified policy for a parameter, if any.
+     *
+     * @param utils Utils
+     * @param var A parameter
+     * @return A policy or null if the parameter is not annotated
+     */
+    static OwnershipPolicy explicitPolicy(AnnotationUtils utils, VariableElement var) {
+        AnnotationMirror mir = utils.findAnnotationMirror(var, OWNERSHIP_ANNOTATION);
+        if (mir == null) {
+            return null;
+        }
+        Set<String> vals = utils.enumConstantValues(mir, "value", COPY.name());
+        if (vals != null) {
+            for (String s : vals) {
+                for (OwnershipPolicy p : values()) {
+                    if (p.name().equals(s)) {
+                        return p;
+                    }
+                }
+            }
+        }
+        return COPY;
+    }
+}
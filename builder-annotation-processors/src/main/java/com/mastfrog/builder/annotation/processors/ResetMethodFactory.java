@@ -0,0 +1,150 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.annotation.processors;
+
+import com.mastfrog.builder.annotation.processors.BuilderDescriptors.BuilderDescriptor;
+import com.mastfrog.java.vogon.ClassBuilder;
+import javax.lang.model.element.Modifier;
+
+/**
+ * Generates the <code>reset()</code> method of flat builders, and for pooled
+ * builders, the thread-local pool they are acquired from and released to.
+ *
+ * @author Tim Boudreau
+ */
+public class ResetMethodFactory<C> {
+
+    private final ClassBuilder<C> bldr;
+    private final BuilderDescriptor desc;
+    private final LocalFieldFactory<C> fields;
+    private final UnsetCheckerFactory<C> checkers;
+    private String releaseMethod;
+    private String problemsField;
+
+    ResetMethodFactory(ClassBuilder<C> bldr, BuilderDescriptor desc,
+            LocalFieldFactory<C> fields, UnsetCheckerFactory<C> checkers) {
+        this.bldr = bldr;
+        this.desc = desc;
+        this.fields = fields;
+        this.checkers = checkers;
+    }
+
+    /**
+     * Set the field build() collects problems in, so reset() can clear
+     * any left behind by a check which threw.
+     *
+     * @param problemsField A field name, or null
+     * @return this
+     */
+    ResetMethodFactory<C> clearing(String problemsField) {
+        this.problemsField = problemsField;
+        return this;
+    }
+
+    public void generate() {
+        bldr.method("reset", mb -> {
+            if (!desc.styles.contains(BuilderStyles.PACKAGE_PRIVATE)) {
+                mb.withModifier(Modifier.PUBLIC);
+            }
+            mb.docComment("Clear all values set on this builder, returning it to "
+                    + "the state of a newly created one, so it can be reused."
+                    + "\n@return this")
+                    .returning(bldr.parameterizedClassName(false))
+                    .body(bb -> {
+                        fields.generateReset(bb);
+                        checkers.generateReset(bb);
+                        if (problemsField != null) {
+                            bb.statement("this." + problemsField + " = null");
+                        }
+                        bb.returningThis();
+                    });
+        });
+        if (desc.isPooled()) {
+            generatePool();
+        }
+    }
+
+    /**
+     * Get the name of the method build() should call after successfully
+     * constructing its result, if the builder is pooled.
+     *
+     * @return A method name or null
+     */
+    String releaseMethod() {
+        return releaseMethod;
+    }
+
+    private void generatePool() {
+        String type = bldr.className();
+        String pool = bldr.unusedFieldName("POOL");
+        // Marks builders acquired from pooled(), so ones created with new are
+        // never added to the pool
+        String pooled = bldr.unusedFieldName("_pooled");
+        bldr.field(pool, fb -> {
+            fb.withModifier(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                    .initializedTo("new ThreadLocal<>()")
+                    .ofType("ThreadLocal<" + type + ">");
+        });
+        bldr.field(pooled).withModifier(Modifier.PRIVATE).ofType("boolean");
+
+        bldr.method("pooled", mb -> {
+            if (!desc.styles.contains(BuilderStyles.PACKAGE_PRIVATE)) {
+                mb.withModifier(Modifier.PUBLIC);
+            }
+            mb.withModifier(Modifier.STATIC)
+                    .docComment("Get a builder for the current thread, reusing one "
+                            + "released by a previous successful <code>build()</code> "
+                            + "if one is available. The returned builder is returned "
+                            + "to the pool when <code>build()</code> succeeds, and must "
+                            + "not be used after that. Pooling uses no locks, so it is "
+                            + "safe for use from virtual threads."
+                            + "\n@return A builder")
+                    .returning(type)
+                    .body(bb -> {
+                        bb.declare("result").initializedByInvoking("get")
+                                .on(pool).as(type);
+                        bb.lineComment("Take it out of the pool, so a nested use of this");
+                        bb.lineComment("builder type cannot be handed the same instance");
+                        bb.ifNotNull("result")
+                                .invoke("set").withArgument("null").on(pool)
+                                .returning("result")
+                                .endIf();
+                        bb.statement("result = new " + type + "()");
+                        bb.statement("result." + pooled + " = true");
+                        bb.returning("result");
+                    });
+        });
+
+        releaseMethod = bldr.unusedMethodName("release");
+        bldr.method(releaseMethod, mb -> {
+            mb.withModifier(Modifier.PRIVATE)
+                    .body(bb -> {
+                        bb.iff().booleanExpression("this." + pooled)
+                                .invoke("reset").onThis()
+                                .invoke("set").withArgument("this").on(pool)
+                                .endIf();
+                    });
+        });
+    }
+}
@@ -55,6 +55,7 @@ public class SetterMethodFactory<C> {
     private String failMethod;
     private final Function<FieldDescriptor, UnsetCheckGenerator> checkers;
     private final ValidationMethodFactory<C> validations;
+    private UnsetCheckerFactory<C> validationTracking;
 
     public SetterMethodFactory(ClassBuilder<C> bldr, Set<BuilderStyles> styles,
             Function<? super BuilderDescriptor.FieldDescriptor, ? extends LocalFieldFactory.LocalFieldGenerator> fields,
@@ -70,11 +71,23 @@ public class SetterMethodFactory<C> {
     }
 
     static <C> SetterMethodFactory<C> create(ClassBuilder<C> bldr, BuilderDescriptor desc,
-            LocalFieldFactory lff, UnsetCheckerFactory unset, ValidationMethodFactory<C> validations) {
+            LocalFieldFactory<C> lff, UnsetCheckerFactory<C> unset, ValidationMethodFactory<C> validations) {
         return new SetterMethodFactory<>(bldr, desc.styles, lff::generatorFor, desc,
                 unset::generatorFor, validations);
     }
 
+    /**
+     * Have setters record which fields they validated, so a build() which
+     * consults the same factory can skip validating them again.
+     *
+     * @param tracking The factory which owns the validated-fields mask
+     * @return this
+     */
+    SetterMethodFactory<C> trackingValidationIn(UnsetCheckerFactory<C> tracking) {
+        this.validationTracking = tracking;
+        return this;
+    }
+
     public SetterMethodGenerator generatorFor(FieldDescriptor fd) {
         return generatorForField.computeIfAbsent(fd, SetterMethodGeneratorImpl::new);
     }
@@ -199,6 +212,9 @@ public class SetterMethodFactory<C> {
                             validations.generator(field).assign(field.fieldName, bb.assign("this." + builderField)
                                     .to());
                             checkers.apply(field).onSet(bb);
+                            if (validationTracking != null) {
+                                validationTracking.onValidated(field, bb);
+                            }
 
                             bb.returningThis();
                         });
@@ -239,6 +255,9 @@ public class SetterMethodFactory<C> {
                                 validations.generator(field).assign(field.fieldName, bb.assign("this." + builderField)
                                         .to());
                                 checkers.apply(field).onSet(bb);
+                                if (validationTracking != null) {
+                                    validationTracking.onValidated(field, bb);
+                                }
 
                                 bb.returningThis();
                             });
@@ -33,6 +33,8 @@ import com.mastfrog.java.vogon.ClassBuilder.BlockBuilderBase;
 import com.mastfrog.java.vogon.ClassBuilder.ConditionBuilder;
 import com.mastfrog.java.vogon.ClassBuilder.SwitchBuilder;
 import com.mastfrog.java.vogon.ClassBuilder.ValueExpressionBuilder;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
@@ -53,7 +55,12 @@ public class UnsetCheckerFactory<C> {
     private final Map<FieldDescriptor, UnsetCheckGenerator> fieldGens = new TreeMap<>();
     private String failMethod;
     private MaskField mask;
+    private MaskField optionalMask;
+    private MaskField validatedMask;
+    private List<FieldDescriptor> validationTracked;
     private final Function<FieldDescriptor, LocalFieldGenerator> localFields;
+    private boolean trackRequiredObjects;
+    private String reportUnsetMethod;
 
     UnsetCheckerFactory(ClassBuilder<C> bldr, Set<BuilderStyles> styles, BuilderDescriptor desc,
             Function<FieldDescriptor, LocalFieldGenerator> localFields) {
@@ -68,6 +75,21 @@ public class UnsetCheckerFactory<C> {
         return new UnsetCheckerFactory<>(bldr, desc.styles, desc, factory::generatorFor);
     }
 
+    /**
+     * Track required object fields in the mask of set fields, alongside
+     * required primitives, so build() can confirm all of them are set by
+     * comparing one word per 64 fields, and only tests fields individually if
+     * that fails. Only usable by builders where a setter is the only way
+     * a required field can be assigned, since the mask is not consulted
+     * about nulls; must be called before any generators are created.
+     *
+     * @return this
+     */
+    UnsetCheckerFactory<C> trackingRequiredObjects() {
+        trackRequiredObjects = true;
+        return this;
+    }
+
     private String failMethod() {
         if (failMethod == null) {
             failMethod = bldr.unusedMethodName("fail");
@@ -84,10 +106,51 @@ public class UnsetCheckerFactory<C> {
         return failMethod;
     }
 
+    private String unsetMethod() {
+        String result = "__unset__";
+        ClassBuilder<?> top = bldr.topLevel();
+        if (!top.containsMethodNamed(result)) {
+            top.method(result)
+                    .withModifier(Modifier.PRIVATE, Modifier.STATIC)
+                    .addArgument("String", "failure")
+                    .body(bb -> {
+                        bb.andThrow(nb -> {
+                            nb.withArgument("failure")
+                                    .ofType("IllegalStateException");
+                        });
+                    });
+        }
+        return result;
+    }
+
+    /**
+     * Generate checks which throw an IllegalStateException if any required
+     * field whose presence is not enforced by the type system is unset, for
+     * the build methods of HYBRID builders.
+     *
+     * @param bb A block builder
+     */
+    public <T, B extends ClassBuilder.BlockBuilderBase<T, B, X>, X> void generateRuntimeChecks(B bb) {
+        for (FieldDescriptor fd : desc.runtimeCheckedFields()) {
+            generatorFor(fd).generate(bb, bldr.topLevel().className(), this::unsetMethod);
+        }
+    }
+
     public UnsetCheckGenerator generatorFor(FieldDescriptor fd) {
         return fieldGens.computeIfAbsent(fd, this::create);
     }
 
+    /**
+     * Get a generator which tracks nothing, for fields whose presence is
+     * guaranteed by the type system rather than checked at runtime.
+     *
+     * @param fd A field
+     * @return A generator
+     */
+    public UnsetCheckGenerator untrackedGeneratorFor(FieldDescriptor fd) {
+        return new NoOpUnsetGenerator(fd);
+    }
+
     private int pfCount = -1;
 
     private int requiredPrimitiveCount() {
@@ -103,12 +166,33 @@ public class UnsetCheckerFactory<C> {
         return pfCount = ct;
     }
 
+    private boolean isMasked(FieldDescriptor fd) {
+        if (fd.optional || fd.isRuntimeChecked()) {
+            return false;
+        }
+        if (fd.isPrimitive()) {
+            return requiredMaskedCount() > 1;
+        }
+        return trackRequiredObjects && requiredMaskedCount() > 1;
+    }
+
+    private int requiredMaskedCount() {
+        return trackRequiredObjects ? desc.requiredFields().size() : requiredPrimitiveCount();
+    }
+
     private UnsetCheckGenerator create(FieldDescriptor fd) {
+        if (fd.isUnboxedOptional()) {
+            return new OptionalPrimitiveSetGenerator(fd);
+        }
+        if (fd.isRuntimeChecked()) {
+            // Stored boxed, so null means unset even for primitives
+            return new ObjectUnsetCheckGenerator(fd);
+        }
+        if (isMasked(fd)) {
+            return new RequiredFieldMaskGenerator(fd);
+        }
         if (fd.isPrimitive() && !fd.optional) {
-            if (requiredPrimitiveCount() == 1) {
-                return new SinglePrimitiveUnsetGenerator(fd);
-            }
-            return new RequiredPrimitiveUnsetCheckGenerator(fd);
+            return new SinglePrimitiveUnsetGenerator(fd);
         } else if (!fd.isPrimitive() && !fd.optional) {
             return new ObjectUnsetCheckGenerator(fd);
         }
@@ -123,37 +207,248 @@ public class UnsetCheckerFactory<C> {
 
     public <T, B extends ClassBuilder.BlockBuilderBase<T, B, X>, X> void generateAllChecks(
             B bb, String pn, String addMethod) {
+        generateAllChecks(bb, pn, addMethod, null);
+    }
+
+    /**
+     * Generate checks that every required field has been set, each of which
+     * only runs if the passed guard expression is true.
+     *
+     * @param bb A block builder
+     * @param pn The object problems are added to
+     * @param addMethod The method which adds a problem
+     * @param guard A boolean expression, such as a test that no problem has
+     * been found yet, or null to run every check
+     */
+    public <T, B extends ClassBuilder.BlockBuilderBase<T, B, X>, X> void generateAllChecks(
+            B bb, String pn, String addMethod, String guard) {
         bb.lineComment(getClass().getSimpleName());
-        Set<FieldDescriptor> primitives = new TreeSet<>();
-        Set<FieldDescriptor> nonPrimitives = new TreeSet<>();
+        Set<FieldDescriptor> masked = new TreeSet<>();
+        Set<FieldDescriptor> unmasked = new TreeSet<>();
         for (FieldDescriptor fd : desc.fields()) {
-            if (!fd.optional && fd.isPrimitive()) {
-                primitives.add(fd);
+            if (generatorFor(fd).usesMaskField()) {
+                masked.add(fd);
             } else {
-                nonPrimitives.add(fd);
+                unmasked.add(fd);
             }
         }
-        if (primitives.size() == 1) {
-            nonPrimitives.addAll(primitives);
-        } else if (!primitives.isEmpty()) {
-            long mask = 0;
-            for (int i = 0; i < primitives.size(); i++) {
-                mask |= 1L << i;
+        if (!masked.isEmpty()) {
+            // One comparison per word of the mask confirms every required
+            // field is set; only if that fails is each field tested to find
+            // which ones are not, in a separate method so the cold path does
+            // not count against inlining the build method
+            for (FieldDescriptor fd : masked) {
+                // Ensure every bit is allocated before computing full words
+                generatorFor(fd).allocateMaskBits();
             }
-            ClassBuilder.IfBuilder<B> iff = bb.iff()
-                    .booleanExpression(mask().name() + " != " + mask().fieldType().toExpression(mask));
-            for (FieldDescriptor fd : primitives) {
-                generatorFor(fd).generate(iff, pn, () -> addMethod);
-            }
-            iff.endIf();
+            bb.iff().booleanExpression(mask().notAllSetExpression())
+                    .statement(reportUnsetMethod(masked, pn, addMethod, guard) + "()")
+                    .endIf();
+        }
+        for (FieldDescriptor fd : unmasked) {
+            generateGuardedCheck(fd, bb, pn, addMethod, guard);
         }
-        for (FieldDescriptor fd : nonPrimitives) {
+    }
+
+    private String reportUnsetMethod(Set<FieldDescriptor> masked, String pn,
+            String addMethod, String guard) {
+        if (reportUnsetMethod == null) {
+            reportUnsetMethod = bldr.unusedMethodName("__reportUnset__");
+            bldr.method(reportUnsetMethod, mb -> {
+                mb.withModifier(Modifier.PRIVATE)
+                        .docComment("Find which required parameters are unset, "
+                                + "once the mask shows some are.")
+                        .body(bb -> {
+                            for (FieldDescriptor fd : masked) {
+                                generateGuardedCheck(fd, bb, pn, addMethod, guard);
+                            }
+                        });
+            });
+        }
+        return reportUnsetMethod;
+    }
+
+    private <T, B extends ClassBuilder.BlockBuilderBase<T, B, X>, X> void generateGuardedCheck(
+            FieldDescriptor fd, B bb, String pn, String addMethod, String guard) {
+        if (guard == null || fd.optional) {
             generatorFor(fd).generate(bb, pn, () -> addMethod);
+        } else {
+            ClassBuilder.IfBuilder<B> iff = bb.iff().booleanExpression(guard);
+            generatorFor(fd).generate(iff, pn, () -> addMethod);
+            iff.endIf();
+        }
+    }
+
+    /**
+     * Generate statements which mark every tracked field as unset again, for
+     * builders which can be reset and reused.
+     *
+     * @param bb A block builder
+     */
+    public <T, B extends ClassBuilder.BlockBuilderBase<T, B, X>, X> void generateReset(B bb) {
+        if (optionalMaskField() != null) {
+            bb.statement("this." + optionalMaskField() + " = 0");
+        }
+        if (validatedMask != null) {
+            bb.statement("this." + validatedMask.name() + " = 0");
+        }
+        boolean maskCleared = false;
+        for (FieldDescriptor fd : desc.fields()) {
+            UnsetCheckGenerator gen = generatorFor(fd);
+            if (gen.usesMaskField()) {
+                if (!maskCleared) {
+                    maskCleared = true;
+                    for (String word : mask().names()) {
+                        bb.statement("this." + word + " = 0");
+                    }
+                }
+            } else {
+                gen.onReset(bb);
+            }
         }
     }
 
     MaskField mask() {
-        return mask == null ? mask = new MaskField() : mask;
+        if (mask == null) {
+            int count = 0;
+            for (FieldDescriptor fd : desc.fields()) {
+                if (isMasked(fd)) {
+                    count++;
+                }
+            }
+            mask = new MaskField(trackRequiredObjects ? "requiredFieldsSet"
+                    : "primitiveFields", count);
+        }
+        return mask;
+    }
+
+    private MaskField optionalMask() {
+        if (optionalMask == null) {
+            optionalMask = new MaskField("optionalPrimitivesSet",
+                    desc.unboxedOptionalFields().size());
+        }
+        return optionalMask;
+    }
+
+    /**
+     * Get the name of the field recording which optional primitives stored
+     * unboxed have been set, creating it if necessary, so that builders which
+     * hand their state to another builder can pass it along.
+     *
+     * @return A field name, or null if there are no unboxed optional fields
+     */
+    String optionalMaskField() {
+        if (desc.unboxedOptionalFields().isEmpty()) {
+            return null;
+        }
+        optionalMask().add();
+        return optionalMask().name();
+    }
+
+    /**
+     * Get a boolean expression which tests whether an optional primitive
+     * stored unboxed has been set.
+     *
+     * @param fd A field for which isUnboxedOptional() is true
+     * @return An expression
+     */
+    String optionalSetTest(FieldDescriptor fd) {
+        return "(this." + optionalMaskField() + " & "
+                + optionalMask().fieldType().toExpression(1L << fd.unboxedOptionalIndex())
+                + ") != 0";
+    }
+
+    /**
+     * Get the fields whose setters validate a private copy of the value, so
+     * build() need not validate them again until that copy has been passed to
+     * an object it built. At most 64 fields are tracked; any more are
+     * validated by every build().
+     *
+     * @return A list of fields
+     */
+    List<FieldDescriptor> validationTrackedFields() {
+        if (validationTracked == null) {
+            validationTracked = new ArrayList<>();
+            for (FieldDescriptor fd : desc.fields()) {
+                if (!fd.constraints.isEmpty() && fd.isCopiedOnSet()
+                        && validationTracked.size() < Long.SIZE) {
+                    validationTracked.add(fd);
+                }
+            }
+        }
+        return validationTracked;
+    }
+
+    boolean isValidationTracked(FieldDescriptor fd) {
+        return validationTrackedFields().contains(fd);
+    }
+
+    private MaskField validatedMask() {
+        if (validatedMask == null) {
+            validatedMask = new MaskField("validatedFields",
+                    validationTrackedFields().size());
+            validatedMask.add();
+        }
+        return validatedMask;
+    }
+
+    private String validatedBit(FieldDescriptor fd) {
+        return validatedMask().fieldType().toExpression(
+                1L << validationTrackedFields().indexOf(fd));
+    }
+
+    /**
+     * Get a boolean expression which tests whether the current value of a
+     * field was validated by its setter and has not been passed to a built
+     * object since.
+     *
+     * @param fd A field for which isValidationTracked() is true
+     * @return An expression
+     */
+    String validatedTest(FieldDescriptor fd) {
+        return "(this." + validatedMask().name() + " & " + validatedBit(fd) + ") != 0";
+    }
+
+    /**
+     * Generate a statement recording that a field's setter has validated the
+     * value it stored, if that field is tracked.
+     *
+     * @param fd A field
+     * @param bb A block builder
+     * @return the block builder
+     */
+    public <T, B extends ClassBuilder.BlockBuilderBase<T, B, X>, X> B onValidated(FieldDescriptor fd, B bb) {
+        if (isValidationTracked(fd)) {
+            bb.statement("this." + validatedMask().name() + " |= " + validatedBit(fd));
+        }
+        return bb;
+    }
+
+    /**
+     * Generate a statement recording that the values of all tracked fields
+     * are about to be passed to a built object, which may alter them, so the
+     * next build() must validate them again.
+     *
+     * @param bb A block builder
+     * @return the block builder
+     */
+    public <T, B extends ClassBuilder.BlockBuilderBase<T, B, X>, X> B onValuesShared(B bb) {
+        if (validatedMask != null) {
+            bb.statement("this." + validatedMask.name() + " = 0");
+        }
+        return bb;
+    }
+
+    /**
+     * Get the type of the optional mask field.
+     *
+     * @return A type name, or null if there are no unboxed optional fields
+     */
+    String optionalMaskType() {
+        if (desc.unboxedOptionalFields().isEmpty()) {
+            return null;
+        }
+        return optionalMask().fieldType().toString();
     }
 
     public interface UnsetCheckGenerator extends IsSetTestGenerator {
@@ -168,9 +463,20 @@ public class UnsetCheckerFactory<C> {
             return bb;
         }
 
+        default <T, B extends ClassBuilder.BlockBuilderBase<T, B, X>, X> B onReset(B bb) {
+            return bb;
+        }
+
         default boolean usesMaskField() {
             return false;
         }
+
+        /**
+         * Claim this field's bits in the required-fields mask now, if it is
+         * tracked there, so the mask's size is final.
+         */
+        default void allocateMaskBits() {
+        }
     }
 
     private class SinglePrimitiveUnsetGenerator implements UnsetCheckGenerator {
@@ -197,6 +503,12 @@ public class UnsetCheckerFactory<C> {
             return bb;
         }
 
+        @Override
+        public <T, B extends BlockBuilderBase<T, B, X>, X> B onReset(B bb) {
+            bb.statement("this." + isSetFieldName() + " = false");
+            return bb;
+        }
+
         public <X> ValueExpressionBuilder<ValueExpressionBuilder<X>> isSetTest(
                 ConditionBuilder<ValueExpressionBuilder<ValueExpressionBuilder<X>>> tern) {
             return tern.booleanExpression(isSetFieldName());
@@ -289,22 +601,25 @@ public class UnsetCheckerFactory<C> {
         }
     }
 
-    private class RequiredPrimitiveUnsetCheckGenerator extends AbstractUnsetGenerator implements UnsetCheckGenerator {
+    /**
+     * Tracks whether a required field has been set with a bit in the mask,
+     * which may span several words if there are more than 64 such fields.
+     */
+    private class RequiredFieldMaskGenerator extends AbstractUnsetGenerator implements UnsetCheckGenerator {
 
-        public RequiredPrimitiveUnsetCheckGenerator(FieldDescriptor field) {
+        public RequiredFieldMaskGenerator(FieldDescriptor field) {
             super(field);
         }
 
         @Override
         public <T, B extends BlockBuilderBase<T, B, X>, X> boolean generate(
                 B bb, String problemsHolder, Supplier<String> addProblemMethodName) {
-            String maskField = mask().name();
-            String fn = localFieldName();
+            String name = field.isPrimitive() ? fieldName() : "'" + fieldName() + "'";
             bb.iff().booleanExpression(testExpression())
                     .invoke(addProblemMethodName.get())
                     .withStringConcatentationArgument(typeName())
                     .append(" parameter ")
-                    .append(fieldName())
+                    .append(name)
                     .append(" is unset")
                     .endConcatenation()
                     .on(problemsHolder)
@@ -317,10 +632,15 @@ public class UnsetCheckerFactory<C> {
             mask().add();
         }
 
+        @Override
+        public void allocateMaskBits() {
+            primitiveFieldIndex();
+        }
+
         @Override
         public <T, B extends BlockBuilderBase<T, B, X>, X> B onSet(B bb) {
             bb.lineComment(getClass().getSimpleName());
-            bb.statement(mask().name() + " |= " + mask().fieldType().toExpression(1L << primitiveFieldIndex()));
+            bb.statement(mask().setStatement(primitiveFieldIndex()));
             return bb;
         }
 
@@ -330,8 +650,7 @@ public class UnsetCheckerFactory<C> {
         }
 
         private String testExpression() {
-            return "(" + mask().name() + " & "
-                    + (mask().fieldType().toExpression(1 << primitiveFieldIndex())) + ") == 0";
+            return mask().unsetTest(primitiveFieldIndex());
         }
 
         @Override
@@ -348,6 +667,51 @@ public class UnsetCheckerFactory<C> {
         }
     }
 
+    /**
+     * Tracks whether an optional primitive stored unboxed has been set, using
+     * a bit whose index is fixed by the field's position, so that the mask
+     * means the same thing in every builder class for a type.
+     */
+    private class OptionalPrimitiveSetGenerator extends AbstractUnsetGenerator implements UnsetCheckGenerator {
+
+        OptionalPrimitiveSetGenerator(FieldDescriptor field) {
+            super(field);
+        }
+
+        private String bit() {
+            return optionalMask().fieldType().toExpression(1L << field.unboxedOptionalIndex());
+        }
+
+        private String testExpression() {
+            return optionalSetTest(field);
+        }
+
+        @Override
+        public <T, B extends BlockBuilderBase<T, B, X>, X> boolean generate(B bb,
+                String problemsHolder, Supplier<String> addProblemMethodName) {
+            return false;
+        }
+
+        @Override
+        public <T, B extends BlockBuilderBase<T, B, X>, X> B onSet(B bb) {
+            bb.statement("this." + optionalMaskField() + " |= " + bit());
+            return bb;
+        }
+
+        @Override
+        public <X> ValueExpressionBuilder<ValueExpressionBuilder<X>> isSetTest(
+                ConditionBuilder<ValueExpressionBuilder<ValueExpressionBuilder<X>>> tern) {
+            return tern.booleanExpression(testExpression());
+        }
+
+        @Override
+        public <T> SwitchBuilder<T> generateSwitchTest(SwitchBuilder<T> sw) {
+            return sw.inCase(fieldName(), cs -> {
+                cs.returning(testExpression());
+            });
+        }
+    }
+
     private class NoOpUnsetGenerator extends AbstractUnsetGenerator implements UnsetCheckGenerator {
 
         public NoOpUnsetGenerator(FieldDescriptor field) {
@@ -425,31 +789,34 @@ public class UnsetCheckerFactory<C> {
         }
     }
 
+    /**
+     * A set of bits stored in the smallest integral field which can hold
+     * them, or in several long fields if there are more than 64.
+     */
     private class MaskField {
 
-        private String primitiveMaskField;
+        private final String baseName;
+        private List<String> names;
         private int nextFieldIndex = -1;
         private final IntegerFieldType maskFieldType;
         private final int count;
         private boolean added;
 
-        MaskField() {
-            int count = 0;
-            for (FieldDescriptor fd : desc.fields()) {
-                if (fd.isPrimitive() && !fd.optional) {
-                    count++;
-                }
-            }
+        MaskField(String baseName, int count) {
+            this.baseName = baseName;
             this.count = count;
-            maskFieldType = IntegerFieldType.forBits(count);
+            maskFieldType = count > Long.SIZE ? IntegerFieldType.LONG
+                    : IntegerFieldType.forBits(count);
         }
 
         public void add() {
             if (!added) {
                 added = true;
-                bldr.field(name())
-                        .withModifier(Modifier.PRIVATE)
-                        .ofType(fieldType().toString());
+                for (String name : names()) {
+                    bldr.field(name)
+                            .withModifier(Modifier.PRIVATE)
+                            .ofType(fieldType().toString());
+                }
             }
         }
 
@@ -461,10 +828,67 @@ public class UnsetCheckerFactory<C> {
             return ++nextFieldIndex;
         }
 
+        private int words() {
+            return Math.max(1, (count + Long.SIZE - 1) / Long.SIZE);
+        }
+
+        /**
+         * Get the name of the (first, if more than one) field.
+         *
+         * @return A field name
+         */
         public String name() {
-            return primitiveMaskField == null
-                    ? primitiveMaskField = bldr.unusedFieldName("primitiveFields")
-                    : primitiveMaskField;
+            return names().get(0);
+        }
+
+        public List<String> names() {
+            if (names == null) {
+                names = new ArrayList<>(words());
+                if (words() == 1) {
+                    names.add(bldr.unusedFieldName(baseName));
+                } else {
+                    for (int i = 0; i < words(); i++) {
+                        names.add(bldr.unusedFieldName(baseName + i));
+                    }
+                }
+            }
+            return names;
+        }
+
+        private String word(int bit) {
+            return names().get(bit / Long.SIZE);
+        }
+
+        private String bitExpression(int bit) {
+            return fieldType().toExpression(1L << (bit % Long.SIZE));
+        }
+
+        String setStatement(int bit) {
+            return word(bit) + " |= " + bitExpression(bit);
+        }
+
+        String unsetTest(int bit) {
+            return "(" + word(bit) + " & " + bitExpression(bit) + ") == 0";
+        }
+
+        /**
+         * Get an expression which is true if any bit allocated so far is not
+         * set.
+         *
+         * @return An expression
+         */
+        String notAllSetExpression() {
+            int bits = nextFieldIndex + 1;
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < words() && i * Long.SIZE < bits; i++) {
+                int inWord = Math.min(Long.SIZE, bits - (i * Long.SIZE));
+                long full = inWord == Long.SIZE ? -1L : (1L << inWord) - 1;
+                if (sb.length() > 0) {
+                    sb.append(" || ");
+                }
+                sb.append(names().get(i)).append(" != ").append(fieldType().toExpression(full));
+            }
+            return sb.toString();
         }
     }
 }
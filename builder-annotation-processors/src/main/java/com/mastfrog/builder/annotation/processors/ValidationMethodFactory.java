@@ -33,6 +33,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import static javax.lang.model.element.Modifier.FINAL;
 import static javax.lang.model.element.Modifier.PRIVATE;
 import static javax.lang.model.element.Modifier.STATIC;
 
@@ -48,6 +49,7 @@ public class ValidationMethodFactory<C> {
             = new HashMap<>();
     private String failMethod;
     private String nullCheckMethod;
+    private boolean deferConstraints;
 
     ValidationMethodFactory(ClassBuilder<C> bldr, BuilderDescriptors.BuilderDescriptor desc) {
         this.bldr = bldr;
@@ -58,6 +60,17 @@ public class ValidationMethodFactory<C> {
         return new ValidationMethodFactory<>(bldr, desc);
     }
 
+    /**
+     * Have setters only take ownership of values as their ownership policy
+     * requires, leaving null checks and constraints to the build method.
+     *
+     * @return this
+     */
+    ValidationMethodFactory<C> deferringConstraints() {
+        this.deferConstraints = true;
+        return this;
+    }
+
     String nullCheckMethod() {
         if (nullCheckMethod == null) {
             nullCheckMethod = "__checkNull__";
@@ -110,6 +123,20 @@ public class ValidationMethodFactory<C> {
     }
 
     private ValidationMethodGenerator create(FieldDescriptor fd) {
+        if (deferConstraints) {
+            return transformsValue(fd) ? new DefaultGeneration(fd) : NoOpValidation.INSTANCE;
+        }
+        if (fd.explicitOwnership != null && fd.explicitOwnership != OwnershipPolicy.TRUST
+                && !fd.canBeVarargs() && fd.ownableCollectionType() == null) {
+            desc.utils().fail("@Ownership(" + fd.explicitOwnership.name() + ") can only be "
+                    + "applied to arrays, Collection, List, Set and Map, not "
+                    + fd.typeName(), fd.var);
+        }
+        // An explicit ownership policy needs a validation method even when
+        // there is nothing to validate, to copy or freeze the value in
+        if (fd.explicitOwnership != null && transformsValue(fd)) {
+            return new DefaultGeneration(fd);
+        }
         if (fd.isReallyPrimitive() && fd.constraints.isEmpty()) {
             return NoOpValidation.INSTANCE;
         }
@@ -122,6 +149,70 @@ public class ValidationMethodFactory<C> {
         return new DefaultGeneration(fd);
     }
 
+    private static boolean transformsValue(FieldDescriptor fd) {
+        if (fd.ownership() == OwnershipPolicy.TRUST) {
+            return false;
+        }
+        return fd.canBeVarargs() || fd.ownableCollectionType() != null;
+    }
+
+    private String freezeMethod(String collectionType) {
+        String simple = collectionType.substring(collectionType.lastIndexOf('.') + 1);
+        String name = "__freeze" + simple + "__";
+        ClassBuilder<?> top = bldr.topLevel();
+        if (top.containsMethodNamed(name)) {
+            return name;
+        }
+        boolean isMap = "java.util.Map".equals(collectionType);
+        boolean isSet = "java.util.Set".equals(collectionType);
+        // The classes of the JDK's immutable collections, so values which
+        // are already immutable can be used without a copy
+        String small = top.unusedFieldName("__IMMUTABLE_" + simple.toUpperCase() + "_SMALL__");
+        String large = top.unusedFieldName("__IMMUTABLE_" + simple.toUpperCase() + "_LARGE__");
+        String factory = isMap ? "java.util.Map" : isSet ? "java.util.Set" : "java.util.List";
+        top.field(small, fb -> {
+            fb.withModifier(PRIVATE, STATIC, FINAL)
+                    .initializedTo(factory + (isMap ? ".of(1, 1)" : ".of(1)") + ".getClass()")
+                    .ofType("Class<?>");
+        });
+        top.field(large, fb -> {
+            fb.withModifier(PRIVATE, STATIC, FINAL)
+                    .initializedTo(factory + (isMap ? ".of(1, 1, 2, 2)" : ".of(1, 2, 3)") + ".getClass()")
+                    .ofType("Class<?>");
+        });
+        String typeParams = isMap ? "_K, _V" : "_X";
+        String resultType = factory + "<" + typeParams + ">";
+        String argType = (isMap || isSet ? factory : "java.util.Collection") + "<" + typeParams + ">";
+        String empty = isMap ? "emptyMap" : isSet ? "emptySet" : "emptyList";
+        String wrap = isMap ? "unmodifiableMap" : isSet ? "unmodifiableSet" : "unmodifiableList";
+        String copyType = isMap ? "java.util.LinkedHashMap" : isSet ? "java.util.LinkedHashSet" : "java.util.ArrayList";
+        top.method(name, mb -> {
+            mb.withModifier(PRIVATE, STATIC)
+                    .annotatedWith("SuppressWarnings").addArgument("value", "unchecked").closeAnnotation()
+                    .addArgument(argType, "items")
+                    .returning(resultType);
+            if (isMap) {
+                mb.withTypeParam("_K").withTypeParam("_V");
+            } else {
+                mb.withTypeParam("_X");
+            }
+            mb.body(bb -> {
+                bb.iff().booleanExpression("items.isEmpty()")
+                        .returningInvocationOf(empty).on("java.util.Collections")
+                        .endIf();
+                bb.iff().booleanExpression("items.getClass() == " + small
+                        + " || items.getClass() == " + large)
+                        .returning("(" + resultType + ") items")
+                        .endIf();
+                bb.returningInvocationOf(wrap)
+                        .withArgumentFromNew(nb -> {
+                            nb.withArgument("items").ofType(copyType + "<>");
+                        }).on("java.util.Collections");
+            });
+        });
+        return name;
+    }
+
     public interface ValidationMethodGenerator {
 
         Optional<String> validationMethod();
@@ -163,10 +254,17 @@ public class ValidationMethodFactory<C> {
 
         @Override
         public Optional<String> validationMethod() {
+            if (deferConstraints) {
+                if (validationMethodName == null) {
+                    validationMethodName = generateOwnershipOnly();
+                }
+                return Optional.of(validationMethodName);
+            }
             boolean noNullCheck
                     = field.isPrimitive()
                     || (field.optional && field.nullValuesPermitted);
-            if (noNullCheck && field.constraints.isEmpty()) {
+            if (noNullCheck && field.constraints.isEmpty()
+                    && (field.explicitOwnership == null || !transformsValue(field))) {
                 return Optional.empty();
             }
             if (field.isPrimitive() && field.constraints.isEmpty()) {
@@ -237,30 +335,81 @@ public class ValidationMethodFactory<C> {
                     } else {
                         bb.lineComment("No null check needed");
                     }
-                    if (field.canBeVarargs()) {
-                        if (noNullCheck) {
-                            bb.returningInvocationOf("copyOf").withArgument(field.fieldName)
-                                    .withArgumentFromField("length").of(field.fieldName)
-                                    .on("java.util.Arrays");
-                        } else {
-                            bb.returningValue().ternary()
-                                    .isNull(field.fieldName)
-                                    .endCondition().expression("null")
-                                    .invoke("copyOf", ivb -> {
-                                        ivb.withArgument(field.fieldName)
-                                                .withArgumentFromField("length")
-                                                .of(field.fieldName)
-                                                .on("java.util.Arrays");
-                                    });
-                        }
-                    } else {
-                        bb.returning(field.fieldName);
-                    }
+                    generateReturn(bb, noNullCheck);
                 });
             });
             return validationMethod;
 
         }
 
+        private String generateOwnershipOnly() {
+            String ownMethod = "__own" + capitalize(field.fieldName) + "__";
+            ClassBuilder<?> top = bldr.topLevel();
+            if (top.containsMethodNamed(ownMethod)) {
+                return ownMethod;
+            }
+            top.method(ownMethod, mb -> {
+                mb.withModifier(PRIVATE, STATIC);
+                mb.addArgument(field.typeName(), field.fieldName);
+                mb.returning(field.typeName());
+                mb.docComment("Copies or freezes the parameter <code>" + field.fieldName
+                        + "</code> as its ownership policy requires; it is checked "
+                        + "when it is built.");
+                List<String> gfc = desc.genericsRequiredFor(Collections.singleton(field));
+                for (String g : gfc) {
+                    mb.withTypeParam(desc.generics.nameWithBound(g));
+                }
+                mb.body(bb -> generateReturn(bb, true));
+            });
+            return ownMethod;
+        }
+
+        private void generateReturn(ClassBuilder.BlockBuilder<?> bb, boolean nullable) {
+            if (!transformsValue(field)) {
+                bb.returning(field.fieldName);
+                return;
+            }
+            if (field.canBeVarargs()) {
+                // Arrays cannot be frozen, so FREEZE means COPY
+                if (!nullable) {
+                    bb.returningInvocationOf("copyOf").withArgument(field.fieldName)
+                            .withArgumentFromField("length").of(field.fieldName)
+                            .on("java.util.Arrays");
+                } else {
+                    bb.returningValue().ternary()
+                            .isNull(field.fieldName)
+                            .endCondition().expression("null")
+                            .invoke("copyOf", ivb -> {
+                                ivb.withArgument(field.fieldName)
+                                        .withArgumentFromField("length")
+                                        .of(field.fieldName)
+                                        .on("java.util.Arrays");
+                            });
+                }
+                return;
+            }
+            String collectionType = field.ownableCollectionType();
+            String transformed;
+            if (field.ownership() == OwnershipPolicy.FREEZE) {
+                transformed = freezeMethod(collectionType) + "(" + field.fieldName + ")";
+            } else {
+                switch (collectionType) {
+                    case "java.util.Set":
+                        transformed = "new java.util.LinkedHashSet<>(" + field.fieldName + ")";
+                        break;
+                    case "java.util.Map":
+                        transformed = "new java.util.LinkedHashMap<>(" + field.fieldName + ")";
+                        break;
+                    default:
+                        transformed = "new java.util.ArrayList<>(" + field.fieldName + ")";
+                        break;
+                }
+            }
+            if (nullable) {
+                bb.ifNull(field.fieldName).returning("null").endIf();
+            }
+            bb.returning(transformed);
+        }
+
     }
 }
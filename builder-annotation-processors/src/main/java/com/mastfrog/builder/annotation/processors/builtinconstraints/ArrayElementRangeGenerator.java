@@ -0,0 +1,276 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.annotation.processors.builtinconstraints;
+
+import com.mastfrog.annotation.AnnotationUtils;
+import com.mastfrog.builder.annotation.processors.spi.ConstraintGenerator;
+import com.mastfrog.java.vogon.ClassBuilder;
+import java.util.function.Consumer;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+
+/**
+ * Checks that every element of a primitive array is within a range. The
+ * generated code first reduces the array to its minimum and maximum using
+ * Math.min() / Math.max() (or a comparison the JIT compiles to a conditional
+ * move, for floating point types, so NaN does not mask a violation), which
+ * has no data-dependent branches and can be vectorized by the JIT; only if
+ * that shows a violation is the array scanned again to find its index.
+ *
+ * @author Tim Boudreau
+ */
+final class ArrayElementRangeGenerator implements ConstraintGenerator {
+
+    private final String componentType;
+    private final String accumulatorType;
+    private final String min;
+    private final String max;
+    private final boolean nullable;
+
+    private ArrayElementRangeGenerator(String componentType, String min,
+            String max, boolean nullable) {
+        this.componentType = componentType;
+        this.min = min;
+        this.max = max;
+        this.nullable = nullable;
+        switch (componentType) {
+            case "byte":
+            case "short":
+                accumulatorType = "int";
+                break;
+            default:
+                accumulatorType = componentType;
+        }
+    }
+
+    /**
+     * Create a generator for an array parameter annotated with one of the
+     * numeric min or max annotations.
+     *
+     * @param el The parameter
+     * @param utils Utils
+     * @param componentType The array's primitive component type
+     * @param valueType The type of the annotations' value() method
+     * @param minMirror The minimum annotation, or null
+     * @param maxMirror The maximum annotation, or null
+     * @param nullable Whether the parameter may be null
+     * @return A generator
+     */
+    static <N extends Number & Comparable<N>> ArrayElementRangeGenerator create(
+            Element el, AnnotationUtils utils, String componentType,
+            Class<N> valueType, AnnotationMirror minMirror,
+            AnnotationMirror maxMirror, boolean nullable) {
+        N min = minMirror == null ? null : utils.annotationValue(minMirror, "value", valueType);
+        N max = maxMirror == null ? null : utils.annotationValue(maxMirror, "value", valueType);
+        if (min == null && max == null) {
+            throw new IllegalStateException("Could not read a " + valueType.getSimpleName()
+                    + " bound from " + (minMirror == null ? maxMirror : minMirror)
+                    + " on " + el);
+        }
+        if (min != null && max != null && min.compareTo(max) > 0) {
+            utils.fail("Minimum element value " + min + " is greater than maximum "
+                    + max, el, minMirror);
+        }
+        return new ArrayElementRangeGenerator(componentType,
+                literal(utils, el, min, minMirror),
+                literal(utils, el, max, maxMirror), nullable);
+    }
+
+    private static String literal(AnnotationUtils utils, Element el, Number n,
+            AnnotationMirror mirror) {
+        if (n == null) {
+            return null;
+        }
+        if (n instanceof Float || n instanceof Double) {
+            double d = n.doubleValue();
+            String type = n instanceof Float ? "Float" : "Double";
+            if (Double.isNaN(d)) {
+                utils.fail("NaN cannot be a bound", el, mirror);
+                return null;
+            }
+            if (Double.isInfinite(d)) {
+                return type + (d > 0 ? ".POSITIVE_INFINITY" : ".NEGATIVE_INFINITY");
+            }
+            return n + (n instanceof Float ? "F" : "D");
+        }
+        return n instanceof Long ? n + "L" : n.toString();
+    }
+
+    private boolean isFloatingPoint() {
+        return "float".equals(componentType) || "double".equals(componentType);
+    }
+
+    private String largestValue() {
+        switch (accumulatorType) {
+            case "int":
+                return "Integer.MAX_VALUE";
+            case "long":
+                return "Long.MAX_VALUE";
+            case "float":
+                return "Float.POSITIVE_INFINITY";
+            default:
+                return "Double.POSITIVE_INFINITY";
+        }
+    }
+
+    private String smallestValue() {
+        switch (accumulatorType) {
+            case "int":
+                return "Integer.MIN_VALUE";
+            case "long":
+                return "Long.MIN_VALUE";
+            case "float":
+                return "Float.NEGATIVE_INFINITY";
+            default:
+                return "Double.NEGATIVE_INFINITY";
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" + componentType + "[] min " + min
+                + " max " + max + " nullable " + nullable + ")";
+    }
+
+    @Override
+    public <T, B extends ClassBuilder.BlockBuilderBase<T, B, X>, X> void generate(
+            String localFieldName, String problemsListVariableName, String addMethodName,
+            AnnotationUtils utils, B bb, String parameterName) {
+        if (min == null && max == null) {
+            return;
+        }
+        bb.lineComment(getClass().getName());
+        if (nullable) {
+            ClassBuilder.IfBuilder<B> iff = bb.iff().isNotNull(localFieldName).endCondition();
+            apply(localFieldName, problemsListVariableName, addMethodName, iff, parameterName);
+            iff.endIf();
+        } else {
+            apply(localFieldName, problemsListVariableName, addMethodName, bb, parameterName);
+        }
+    }
+
+    private <T, B extends ClassBuilder.BlockBuilderBase<T, B, X>, X> void apply(String localFieldName,
+            String problemsListVariableName, String addMethodName, B bb,
+            String parameterName) {
+        String v = "_i";
+        String element = localFieldName + "[" + v + "]";
+        String lo = "_" + parameterName + "Lowest";
+        String hi = "_" + parameterName + "Highest";
+        if (min != null) {
+            bb.statement(accumulatorType + " " + lo + " = " + largestValue());
+        }
+        if (max != null) {
+            bb.statement(accumulatorType + " " + hi + " = " + smallestValue());
+        }
+        bb.forVar(v, fv -> {
+            fv.initializedWith(0).condition().lessThan().field("length").of(localFieldName)
+                    .endCondition().running(forBlock -> {
+                        if (min != null) {
+                            forBlock.statement(lo + " = " + reduce("min", "<", element, lo));
+                        }
+                        if (max != null) {
+                            forBlock.statement(hi + " = " + reduce("max", ">", element, hi));
+                        }
+                    });
+        });
+        StringBuilder violated = new StringBuilder();
+        if (min != null) {
+            violated.append(lo).append(" < ").append(min);
+        }
+        if (max != null) {
+            if (violated.length() > 0) {
+                violated.append(" || ");
+            }
+            violated.append(hi).append(" > ").append(max);
+        }
+        ClassBuilder.IfBuilder<B> iff = bb.iff().booleanExpression(violated.toString());
+        iff.forVar(v, fv -> {
+            fv.initializedWith(0).condition().lessThan().field("length").of(localFieldName)
+                    .endCondition().running(forBlock -> {
+                        if (min != null) {
+                            forBlock.iff().booleanExpression(element + " < " + min)
+                                    .invoke(addMethodName)
+                                    .withStringConcatentationArgument(componentType + "[] param '")
+                                    .append(parameterName)
+                                    .append("' at index ")
+                                    .appendExpression(v)
+                                    .append(" must be >= ")
+                                    .append(min)
+                                    .append(" but is ")
+                                    .appendExpression(element)
+                                    .endConcatenation()
+                                    .on(problemsListVariableName)
+                                    .statement("break")
+                                    .endIf();
+                        }
+                        if (max != null) {
+                            forBlock.iff().booleanExpression(element + " > " + max)
+                                    .invoke(addMethodName)
+                                    .withStringConcatentationArgument(componentType + "[] param '")
+                                    .append(parameterName)
+                                    .append("' at index ")
+                                    .appendExpression(v)
+                                    .append(" must be <= ")
+                                    .append(max)
+                                    .append(" but is ")
+                                    .appendExpression(element)
+                                    .endConcatenation()
+                                    .on(problemsListVariableName)
+                                    .statement("break")
+                                    .endIf();
+                        }
+                    });
+        });
+        iff.endIf();
+    }
+
+    private String reduce(String method, String operator, String element, String accumulator) {
+        if (isFloatingPoint()) {
+            // Math.min() and max() propagate NaN, which would hide any
+            // out of range values; element-wise comparisons ignore it, as
+            // the scalar FloatMin / DoubleMin checks do
+            return element + " " + operator + " " + accumulator + " ? " + element
+                    + " : " + accumulator;
+        }
+        return "Math." + method + "(" + accumulator + ", " + element + ")";
+    }
+
+    @Override
+    public void contributeDocComments(Consumer<String> bulletPoints) {
+        if (nullable) {
+            bulletPoints.accept("Parameter is optional.");
+        }
+        if (min != null) {
+            bulletPoints.accept("All values must be &gt;= <code>" + min + "</code>");
+        }
+        if (max != null) {
+            bulletPoints.accept("All values must be &lt;= <code>" + max + "</code>");
+        }
+    }
+
+    @Override
+    public int weight() {
+        return 500;
+    }
+}
@@ -29,19 +29,21 @@ import static com.mastfrog.builder.annotation.processors.spi.ConstraintGenerator
 import com.mastfrog.builder.annotation.processors.spi.ConstraintHandler;
 import com.mastfrog.java.vogon.ClassBuilder;
 import com.mastfrog.java.vogon.ClassBuilder.BlockBuilderBase;
-import com.mastfrog.java.vogon.ClassBuilder.ComparisonBuilder;
 import com.mastfrog.java.vogon.ClassBuilder.IfBuilder;
-import com.mastfrog.java.vogon.ClassBuilder.Value;
-import com.mastfrog.java.vogon.ClassBuilder.ValueExpressionBuilder;
-import com.mastfrog.java.vogon.ClassBuilder.Variable;
-import static com.mastfrog.java.vogon.ClassBuilder.number;
 import com.mastfrog.util.service.ServiceProvider;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.STATIC;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.DeclaredType;
@@ -58,6 +60,13 @@ public final class BigMinMaxHandler implements ConstraintHandler {
 
     private static final String BIG_MIN = "com.mastfrog.builder.annotations.constraint.BigMin";
     private static final String BIG_MAX = "com.mastfrog.builder.annotations.constraint.BigMax";
+    private static final Set<String> HANDLED
+            = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(BIG_MIN, BIG_MAX)));
+
+    @Override
+    public Set<String> handledAnnotationTypes() {
+        return HANDLED;
+    }
 
     @Override
     public void collect(AnnotationUtils utils, Element targetElement,
@@ -87,10 +96,10 @@ public final class BigMinMaxHandler implements ConstraintHandler {
             }
             String type = isBigDecimal ? "BigDecimal" : "BigInteger";
             if (min != null) {
-                genConsumer.accept(new BigMinGenerator(utils, min, nullable, type, isSupplier));
+                genConsumer.accept(new BigMinGenerator(utils, parameterElement, min, nullable, type, isSupplier));
             }
             if (max != null) {
-                genConsumer.accept(new BigMaxGenerator(utils, max, nullable, type, isSupplier));
+                genConsumer.accept(new BigMaxGenerator(utils, parameterElement, max, nullable, type, isSupplier));
             }
         }
     }
@@ -126,31 +135,121 @@ public final class BigMinMaxHandler implements ConstraintHandler {
         return tu.isAssignable(parameterElement.asType(), theType);
     }
 
-    private static class BigMinGenerator implements ConstraintGenerator {
+    /**
+     * Base class for generators which test a BigInteger or BigDecimal against
+     * a bound.  The bound is parsed once into a static constant rather than
+     * on every check, and bounds that can be tested without one (zero, or a
+     * BigInteger bound which fits in a long) are tested using signum() or
+     * primitive arithmetic instead.
+     */
+    private static abstract class BigBoundGenerator implements ConstraintGenerator {
 
-        private final AnnotationUtils utils;
-        private final AnnotationMirror min;
+        final AnnotationUtils utils;
+        final AnnotationMirror mirror;
         private final boolean nullable;
         private final String typeName;
         private final boolean isSupplier;
+        private final String stringLit;
+        private final Number bound;
 
-        private BigMinGenerator(AnnotationUtils utils, AnnotationMirror min, boolean nullable,
-                String typeName, boolean isSupplier) {
+        BigBoundGenerator(AnnotationUtils utils, VariableElement parameterElement,
+                AnnotationMirror mirror, boolean nullable, String typeName, boolean isSupplier) {
             this.utils = utils;
-            this.min = min;
+            this.mirror = mirror;
             this.nullable = nullable;
             this.typeName = typeName;
             this.isSupplier = isSupplier;
+            this.stringLit = utils.annotationValue(mirror, "value", String.class).trim();
+            this.bound = parse(stringLit, parameterElement);
+        }
+
+        private Number parse(String lit, VariableElement parameterElement) {
+            try {
+                return "BigDecimal".equals(typeName) ? new BigDecimal(lit) : new BigInteger(lit);
+            } catch (NumberFormatException ex) {
+                utils.fail("Not a valid " + typeName + ": '" + lit + "'", parameterElement, mirror);
+                return null;
+            }
         }
 
+        /**
+         * The operator which, applied to the result of comparing the value
+         * with the bound, or to the value itself, indicates it is out of range.
+         *
+         * @return An operator
+         */
+        abstract String failingOperator();
+
+        abstract String failureMessage();
+
         @Override
         public <C> void decorateClass(ClassBuilder<C> bldr) {
             bldr.importing("java.math." + typeName);
+            if (needsConstant()) {
+                String name = constantName();
+                if (!bldr.topLevel().containsFieldNamed(name)) {
+                    bldr.topLevel().field(name, fb -> {
+                        fb.withModifier(PRIVATE, STATIC, FINAL)
+                                .initializedTo("new " + typeName + "(\"" + bound + "\")")
+                                .ofType(typeName);
+                    });
+                }
+            }
         }
 
-        @Override
-        public void contributeDocComments(Consumer<String> bulletPoints) {
-            bulletPoints.accept("value must be &gt;= " + utils.annotationValue(min, "value", String.class));
+        private boolean isZero() {
+            return bound != null && signum(bound) == 0;
+        }
+
+        private static int signum(Number n) {
+            return n instanceof BigDecimal ? ((BigDecimal) n).signum() : ((BigInteger) n).signum();
+        }
+
+        private boolean fitsInLong() {
+            return bound instanceof BigInteger && ((BigInteger) bound).bitLength() < Long.SIZE;
+        }
+
+        private boolean needsConstant() {
+            return bound != null && !isZero() && !fitsInLong();
+        }
+
+        private String constantName() {
+            StringBuilder sb = new StringBuilder("BIG_")
+                    .append("BigDecimal".equals(typeName) ? "DECIMAL_" : "INTEGER_");
+            for (char c : stringLit.toCharArray()) {
+                switch (c) {
+                    case '-':
+                        sb.append("NEG_");
+                        break;
+                    case '+':
+                        sb.append('P');
+                        break;
+                    case '.':
+                        sb.append('_');
+                        break;
+                    case 'e':
+                    case 'E':
+                        sb.append('E');
+                        break;
+                    default:
+                        sb.append(c);
+                }
+            }
+            return sb.toString();
+        }
+
+        private String failureTest(String value) {
+            String op = failingOperator();
+            if (isZero()) {
+                return value + ".signum() " + op + " 0";
+            } else if (fitsInLong()) {
+                // A value which does not fit in a long is beyond any bound
+                // which does, so its sign alone decides it
+                return "(" + value + ".bitLength() < " + Long.SIZE
+                        + " ? " + value + ".longValue() " + op + " " + bound + "L"
+                        + " : " + value + ".signum() " + op + " 0)";
+            }
+            return value + ".compareTo(" + constantName() + ") " + op + " 0";
         }
 
         @Override
@@ -160,124 +259,78 @@ public final class BigMinMaxHandler implements ConstraintHandler {
             bb.lineComment(getClass().getName());
             if (nullable) {
                 IfBuilder<B> test = bb.ifNotNull(fieldVariableName);
-                doGenerate(fieldVariableName, problemsListVariableName, addMethodName, utils, test, parameterName);
+                doGenerate(fieldVariableName, problemsListVariableName, addMethodName, test, parameterName);
                 test.endIf();
             } else {
-                doGenerate(fieldVariableName, problemsListVariableName, addMethodName, utils, bb, parameterName);
+                doGenerate(fieldVariableName, problemsListVariableName, addMethodName, bb, parameterName);
             }
         }
 
         private <T, B extends BlockBuilderBase<T, B, X>, X> void doGenerate(
                 String fieldVariableName, String problemsListVariableName, String addMethodName,
-                AnnotationUtils utils, B bb, String parameterName) {
-            String stringLit = utils.annotationValue(min, "value", String.class);
-            Value v;
+                B bb, String parameterName) {
+            String value = fieldVariableName;
             if (isSupplier) {
-                v = ClassBuilder.invocationOf("compareTo")
-                        .withArgumentFromInvoking("get")
-                        .on(fieldVariableName)
-                        .onNew(nb -> {
-                            nb.withStringLiteral(stringLit)
-                                    .ofType(typeName);
-                        }).isGreaterThan(number(0));
-
-            } else {
-                v = ClassBuilder.invocationOf("compareTo")
-                        .withArgument(fieldVariableName)
-                        .onNew(nb -> {
-                            nb.withStringLiteral(stringLit)
-                                    .ofType(typeName);
-                        }).isGreaterThan(number(0));
+                // Call get() once, for both the test and the message
+                value = "_" + parameterName + "_" + failingOperator().replace('<', 'l').replace('>', 'g');
+                bb.declare(value).initializedByInvoking("get")
+                        .on(fieldVariableName).as(typeName);
             }
-
-            bb.iff(v)
+            bb.iff().booleanExpression(failureTest(value))
                     .invoke(addMethodName)
                     .withStringConcatentationArgument(parameterName)
-                    .append(" must be greater than or equal to ")
+                    .append(failureMessage())
                     .append(stringLit)
-                    .append(" but is ").appendExpression(fieldVariableName)
+                    .append(" but is ").appendExpression(value)
                     .endConcatenation()
                     .on(problemsListVariableName)
                     .endIf();
         }
-
     }
 
-    private static class BigMaxGenerator implements ConstraintGenerator {
+    private static class BigMinGenerator extends BigBoundGenerator {
 
-        private final AnnotationUtils utils;
-        private final AnnotationMirror min;
-        private final boolean nullable;
-        private final String typeName;
-        private final boolean isSupplier;
-
-        private BigMaxGenerator(AnnotationUtils utils, AnnotationMirror min, boolean nullable,
-                String typeName, boolean isSupplier) {
-            this.utils = utils;
-            this.min = min;
-            this.nullable = nullable;
-            this.typeName = typeName;
-            this.isSupplier = isSupplier;
+        private BigMinGenerator(AnnotationUtils utils, VariableElement parameterElement,
+                AnnotationMirror min, boolean nullable, String typeName, boolean isSupplier) {
+            super(utils, parameterElement, min, nullable, typeName, isSupplier);
         }
 
         @Override
-        public <C> void decorateClass(ClassBuilder<C> bldr) {
-            bldr.importing("java.math." + typeName);
+        String failingOperator() {
+            return "<";
         }
 
         @Override
-        public void contributeDocComments(Consumer<String> bulletPoints) {
-            bulletPoints.accept("value must be &lt;= " + utils.annotationValue(min, "value", String.class));
+        String failureMessage() {
+            return " must be greater than or equal to ";
         }
 
         @Override
-        public <T, B extends BlockBuilderBase<T, B, X>, X> void generate(
-                String fieldVariableName, String problemsListVariableName, String addMethodName,
-                AnnotationUtils utils, B bb, String parameterName) {
-            bb.lineComment(getClass().getName());
-            if (nullable) {
-                IfBuilder<B> test = bb.ifNotNull(fieldVariableName);
-                doGenerate(fieldVariableName, problemsListVariableName, addMethodName, utils, test, parameterName);
-                test.endIf();
-            } else {
-                doGenerate(fieldVariableName, problemsListVariableName, addMethodName, utils, bb, parameterName);
-            }
+        public void contributeDocComments(Consumer<String> bulletPoints) {
+            bulletPoints.accept("value must be &gt;= " + utils.annotationValue(mirror, "value", String.class));
         }
+    }
 
-        private <T, B extends BlockBuilderBase<T, B, X>, X> void doGenerate(
-                String fieldVariableName, String problemsListVariableName, String addMethodName,
-                AnnotationUtils utils, B bb, String parameterName) {
+    private static class BigMaxGenerator extends BigBoundGenerator {
 
-            String stringLit = utils.annotationValue(min, "value", String.class);
-            Value v;
-            if (isSupplier) {
-                v = ClassBuilder.invocationOf("compareTo")
-                        .withArgumentFromInvoking("get")
-                        .on(fieldVariableName)
-                        .onNew(nb -> {
-                            nb.withStringLiteral(stringLit)
-                                    .ofType(typeName);
-                        }).isLessThan(number(0));
+        private BigMaxGenerator(AnnotationUtils utils, VariableElement parameterElement,
+                AnnotationMirror max, boolean nullable, String typeName, boolean isSupplier) {
+            super(utils, parameterElement, max, nullable, typeName, isSupplier);
+        }
 
-            } else {
-                v = ClassBuilder.invocationOf("compareTo")
-                        .withArgument(fieldVariableName)
-                        .onNew(nb -> {
-                            nb.withStringLiteral(stringLit)
-                                    .ofType(typeName);
-                        }).isLessThan(number(0));
-            }
+        @Override
+        String failingOperator() {
+            return ">";
+        }
 
-            bb.iff(v)
-                    .invoke(addMethodName)
-                    .withStringConcatentationArgument(parameterName)
-                    .append(" must be greater than or equal to ")
-                    .append(stringLit)
-                    .append(" but is ").appendExpression(fieldVariableName)
-                    .endConcatenation()
-                    .on(problemsListVariableName)
-                    .endIf();
+        @Override
+        String failureMessage() {
+            return " must be less than or equal to ";
         }
-    }
 
+        @Override
+        public void contributeDocComments(Consumer<String> bulletPoints) {
+            bulletPoints.accept("value must be &lt;= " + utils.annotationValue(mirror, "value", String.class));
+        }
+    }
 }
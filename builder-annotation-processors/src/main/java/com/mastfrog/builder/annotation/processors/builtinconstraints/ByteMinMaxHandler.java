@@ -25,7 +25,6 @@ package com.mastfrog.builder.annotation.processors.builtinconstraints;
 
 import com.mastfrog.annotation.AnnotationUtils;
 import com.mastfrog.builder.annotation.processors.spi.ConstraintGenerator;
-import static com.mastfrog.builder.annotation.processors.spi.ConstraintGenerator.NULLABLE_ANNOTATION;
 import com.mastfrog.builder.annotation.processors.spi.ConstraintHandler;
 import com.mastfrog.java.vogon.ClassBuilder;
 import com.mastfrog.java.vogon.ClassBuilder.BlockBuilderBase;
@@ -33,6 +32,10 @@ import com.mastfrog.java.vogon.ClassBuilder.ComparisonBuilder;
 import com.mastfrog.java.vogon.ClassBuilder.IfBuilder;
 import com.mastfrog.java.vogon.ClassBuilder.ValueExpressionBuilder;
 import com.mastfrog.util.service.ServiceProvider;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.function.Consumer;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
@@ -48,15 +51,27 @@ public class ByteMinMaxHandler implements ConstraintHandler {
 
     private static final String BYTE_MIN = "com.mastfrog.builder.annotations.constraint.ByteMin";
     private static final String BYTE_MAX = "com.mastfrog.builder.annotations.constraint.ByteMax";
+    private static final Set<String> HANDLED
+            = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(BYTE_MIN, BYTE_MAX)));
+
+    @Override
+    public Set<String> handledAnnotationTypes() {
+        return HANDLED;
+    }
 
     @Override
     public void collect(AnnotationUtils utils, Element targetElement, VariableElement parameterElement,
             Consumer<ConstraintGenerator> genConsumer) {
         AnnotationMirror min = utils.findAnnotationMirror(parameterElement, BYTE_MIN);
         AnnotationMirror max = utils.findAnnotationMirror(parameterElement, BYTE_MAX);
-        boolean nullable = utils.findAnnotationMirror(parameterElement, NULLABLE_ANNOTATION) != null;
+        boolean nullable = ConstraintGenerator.isNullable(utils, targetElement, parameterElement);
         if (min != null || max != null) {
             TypeMirror paramType = parameterElement.asType();
+            if ("byte[]".equals(paramType.toString())) {
+                genConsumer.accept(ArrayElementRangeGenerator.create(parameterElement,
+                        utils, "byte", Byte.class, min, max, nullable));
+                return;
+            }
             boolean isBoxedByte = utils.isAssignable(paramType, Byte.class.getName());
             boolean isPrimitiveByte = !isBoxedByte && utils.isAssignable(paramType, byte.class.getName());
             boolean isNumber = !isBoxedByte && !isPrimitiveByte
@@ -76,11 +91,11 @@ public class ByteMinMaxHandler implements ConstraintHandler {
     }
 
     public boolean equals(Object o) {
-        return o instanceof ShortMinMaxHandler;
+        return o instanceof ByteMinMaxHandler;
     }
 
     public int hashCode() {
-        return ShortMinMaxHandler.class.hashCode();
+        return ByteMinMaxHandler.class.hashCode();
     }
 
     private static class ByteMaxGenerator implements ConstraintGenerator {
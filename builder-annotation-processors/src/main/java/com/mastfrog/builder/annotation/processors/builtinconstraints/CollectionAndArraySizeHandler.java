@@ -28,15 +28,22 @@ import com.mastfrog.builder.annotation.processors.spi.ConstraintGenerator;
 import static com.mastfrog.builder.annotation.processors.spi.ConstraintGenerator.NULLABLE_ANNOTATION;
 import com.mastfrog.builder.annotation.processors.spi.ConstraintHandler;
 import com.mastfrog.java.vogon.ClassBuilder;
-import com.mastfrog.java.vogon.ClassBuilder.BlockBuilder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
 import java.util.function.Consumer;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.STATIC;
 import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
 
 /**
  *
@@ -44,11 +51,19 @@ import javax.lang.model.type.TypeMirror;
  */
 public class CollectionAndArraySizeHandler implements ConstraintHandler {
 
+    private static final String COLLECTION_CONSTRAINT = "com.mastfrog.builder.annotations.constraint.CollectionConstraint";
+    private static final Set<String> HANDLED = Collections.singleton(COLLECTION_CONSTRAINT);
+
+    @Override
+    public Set<String> handledAnnotationTypes() {
+        return HANDLED;
+    }
+
     @Override
     public void collect(AnnotationUtils utils, Element targetElement, VariableElement parameterElement,
             Consumer<ConstraintGenerator> genConsumer) {
         AnnotationMirror mir = utils.findAnnotationMirror(parameterElement,
-                "com.mastfrog.builder.annotations.constraint.CollectionConstraint");
+                COLLECTION_CONSTRAINT);
         if (mir == null) {
             return;
         }
@@ -57,7 +72,7 @@ public class CollectionAndArraySizeHandler implements ConstraintHandler {
         if (min < 0) {
             utils.fail("Minimum < 0: " + min, parameterElement, mir);
         }
-        int max = utils.annotationValue(mir, "maxSize", Integer.class, 0);
+        int max = utils.annotationValue(mir, "maxSize", Integer.class, Integer.MAX_VALUE);
         if (max < 0) {
             utils.fail("Maximum < 0: " + max, parameterElement, mir);
             return;
@@ -69,6 +84,12 @@ public class CollectionAndArraySizeHandler implements ConstraintHandler {
 
         boolean noNulls = utils.annotationValue(mir, "forbidNullValues", Boolean.class, false);
         boolean nullable = utils.findAnnotationMirror(parameterElement, NULLABLE_ANNOTATION) != null;
+        int parallelThreshold = utils.annotationValue(mir, "parallelThreshold", Integer.class, Integer.MAX_VALUE);
+        if (parallelThreshold < 0) {
+            utils.fail("Parallel threshold < 0: " + parallelThreshold, parameterElement, mir);
+            return;
+        }
+        String varName = parameterElement.getSimpleName().toString();
         TypeMirror checkedAs = utils.typeForSingleClassAnnotationMember(mir, "checked");
         if (checkedAs != null) {
             checkedAs = utils.erasureOf(checkedAs);
@@ -78,15 +99,14 @@ public class CollectionAndArraySizeHandler implements ConstraintHandler {
             boolean primitive = at.getComponentType().getKind().isPrimitive();
             genConsumer.accept(new ArrayConstraintGenerator(min, max, noNulls, nullable, primitive, checkedAs));
         } else if (isAssignable(utils, "java.util.Map", parameterElement)) {
-            if (noNulls) {
-//                utils.fail("Cannot null check a map's elements", parameterElement, mir);
-//                return;
-            }
-            genConsumer.accept(new CollectionConstraintGenerator(min, max, false, nullable, false, checkedAs, true));
+            genConsumer.accept(new CollectionConstraintGenerator(min, max, noNulls, nullable,
+                    false, checkedAs, true, varName, parallelThreshold));
         } else if (isAssignable(utils, "java.util.List", parameterElement)) {
-            genConsumer.accept(new CollectionConstraintGenerator(min, max, noNulls, nullable, true, checkedAs, false));
+            genConsumer.accept(new CollectionConstraintGenerator(min, max, noNulls, nullable,
+                    true, checkedAs, false, varName, parallelThreshold));
         } else if (isAssignable(utils, "java.util.Collection", parameterElement)) {
-            genConsumer.accept(new CollectionConstraintGenerator(min, max, noNulls, nullable, false, checkedAs, false));
+            genConsumer.accept(new CollectionConstraintGenerator(min, max, noNulls, nullable,
+                    false, checkedAs, false, varName, parallelThreshold));
         } else {
             utils.fail("Cannot apply collection constraint to a " + type
                     + " for " + parameterElement + " " + parameterElement.getKind()
@@ -97,58 +117,12 @@ public class CollectionAndArraySizeHandler implements ConstraintHandler {
     }
 
     private static boolean isAssignable(AnnotationUtils utils, String typeName, VariableElement param) {
-        // Hacky but will do for now
         TypeElement el = utils.processingEnv().getElementUtils().getTypeElement(typeName);
-        if (utils.erasureOf(el.asType()).toString().equals(typeName)) {
-            return true;
+        if (el == null) {
+            return false;
         }
-
-        boolean assig1 = utils.processingEnv().getTypeUtils().isAssignable(el.asType(), param.asType());
-        boolean assig2 = utils.processingEnv().getTypeUtils().isAssignable(param.asType(), el.asType());
-
-        if (!assig1 && !assig2) {
-            TypeElement pt = utils.processingEnv().getElementUtils().getTypeElement(param.asType().toString());
-            while (pt != null && !pt.asType().toString().equals("java.lang.Object")) {
-
-                for (TypeMirror iface : pt.getInterfaces()) {
-                    if (el.asType().equals(iface)) {
-                        return true;
-                    }
-                    TypeMirror eras = utils.processingEnv().getTypeUtils().erasure(iface);
-                    if (eras.equals(el.asType())) {
-                        return true;
-                    }
-                    eras = utils.erasureOf(iface);
-                    if (eras.equals(el.asType())) {
-                        return true;
-                    }
-                }
-
-                if (pt.getInterfaces().contains(el.asType())) {
-                    return true;
-                }
-
-                TypeMirror mir = pt.getSuperclass();
-                if (mir == null) {
-                    break;
-                }
-                mir = utils.erasureOf(mir);
-                assig1 = utils.processingEnv().getTypeUtils().isAssignable(el.asType(), mir);
-                assig2 = utils.processingEnv().getTypeUtils().isAssignable(mir, el.asType());
-                if (assig1 || assig2) {
-                    return true;
-                }
-                pt = utils.processingEnv().getElementUtils().getTypeElement(mir.toString());
-                if (pt == null) {
-                    break;
-                }
-                if (pt.getInterfaces().contains(el.asType())) {
-                    return true;
-                }
-            }
-        }
-
-        return assig1 || assig2;
+        Types types = utils.processingEnv().getTypeUtils();
+        return types.isAssignable(types.erasure(param.asType()), types.erasure(el.asType()));
     }
 
     private static abstract class AbstractGenerator implements ConstraintGenerator {
@@ -277,7 +251,7 @@ public class CollectionAndArraySizeHandler implements ConstraintHandler {
                     }
                     if (check) {
                         blk.ifNotNull(fieldVariableName + "[_i]")
-                                .iff().invoke("isInstance")
+                                .iff().invocationOf("isInstance")
                                 .withArgument(fieldVariableName + "[_i]")
                                 .on(checkedAs + ".class")
                                 .isFalse()
@@ -305,17 +279,23 @@ public class CollectionAndArraySizeHandler implements ConstraintHandler {
     private static final class CollectionConstraintGenerator extends AbstractGenerator {
 
         private final boolean isMap;
+        private final String varName;
+        private final int parallelThreshold;
 
         public CollectionConstraintGenerator(int min, int max, boolean noNullElements,
-                boolean nullableValue, boolean isList, TypeMirror checkedAs, boolean isMap) {
+                boolean nullableValue, boolean isList, TypeMirror checkedAs, boolean isMap,
+                String varName, int parallelThreshold) {
             super(min, max, noNullElements, nullableValue, isList, checkedAs);
             this.isMap = isMap;
+            this.varName = varName;
+            this.parallelThreshold = parallelThreshold;
         }
 
         @Override
         public void contributeDocComments(Consumer<String> bulletPoints) {
             if (noNullElements) {
-                bulletPoints.accept("Null elements are forbidden");
+                bulletPoints.accept(isMap ? "Null keys and values are forbidden"
+                        : "Null elements are forbidden");
             }
             if (nullableValue) {
                 bulletPoints.accept("Parameter is optional");
@@ -326,7 +306,7 @@ public class CollectionAndArraySizeHandler implements ConstraintHandler {
             if (max != Integer.MAX_VALUE) {
                 bulletPoints.accept("May contain at most " + max + " values");
             }
-            if (checkedAs != null) {
+            if (isChecked()) {
                 bulletPoints.accept("Values verified to be assignable to " + checkedAs);
             }
         }
@@ -337,12 +317,190 @@ public class CollectionAndArraySizeHandler implements ConstraintHandler {
             if (noNullElements) {
                 result += 475;
             }
-            if (checkedAs != null) {
+            if (isChecked()) {
                 result += 300;
             }
             return result;
         }
 
+        private boolean isChecked() {
+            return checkedAs != null && !"java.lang.Object".equals(checkedAs.toString());
+        }
+
+        private String scanMethodName() {
+            return "_" + varName + "ElementProblem";
+        }
+
+        @Override
+        public <C> void decorateClass(ClassBuilder<C> bldr) {
+            if (!noNullElements && !isChecked()) {
+                return;
+            }
+            ClassBuilder<?> top = bldr.topLevel();
+            if (top.containsMethodNamed(scanMethodName())) {
+                return;
+            }
+            // The JDK's immutable collections reject nulls on creation, so
+            // there is nothing to scan for if the type is not checked - except
+            // for the class List.of() uses for three or more elements, which
+            // Stream.toList() also returns, with nulls allowed
+            List<String> immutableTypes = new ArrayList<>();
+            if (noNullElements && !isChecked()) {
+                if (isMap) {
+                    immutableTypes.add(immutableClassField(top, "MAP", "java.util.Map.of(1, 1)"));
+                    immutableTypes.add(immutableClassField(top, "MAP", "java.util.Map.of(1, 1, 2, 2)"));
+                } else {
+                    immutableTypes.add(immutableClassField(top, "LIST", "java.util.List.of(1)"));
+                    if (!isListOrPrimitive) {
+                        immutableTypes.add(immutableClassField(top, "SET", "java.util.Set.of(1)"));
+                        immutableTypes.add(immutableClassField(top, "SET", "java.util.Set.of(1, 2, 3)"));
+                    }
+                }
+            }
+            top.method(scanMethodName(), mb -> {
+                mb.withModifier(PRIVATE, STATIC)
+                        .docComment("Checks the elements of " + varName + " in a single pass, "
+                                + "returning a description of the first problem found, or null."
+                                + "\n@param items The " + (isMap ? "map" : "collection")
+                                + "\n@return A problem description or null")
+                        .addArgument(isMap ? "java.util.Map<?, ?>" : "java.util.Collection<?>", "items")
+                        .returning("String")
+                        .body(bb -> {
+                            for (String type : immutableTypes) {
+                                bb.iff().booleanExpression("items.getClass() == " + type)
+                                        .returning("null").endIf();
+                            }
+                            if (parallelThreshold != Integer.MAX_VALUE) {
+                                // The common case is that there is no problem, so scan in
+                                // parallel, and rescan serially only to describe the problem
+                                String stream = isMap ? "items.entrySet().parallelStream()"
+                                        : "items.parallelStream()";
+                                String test = isMap ? mapEntryProblemTest("_e")
+                                        : elementProblemTest("_e");
+                                bb.iff().booleanExpression("items.size() >= " + parallelThreshold
+                                        + " && !" + stream + ".anyMatch(_e -> " + test + ")")
+                                        .returning("null").endIf();
+                            }
+                            if (isMap) {
+                                generateMapScan(bb);
+                            } else {
+                                generateCollectionScan(bb);
+                            }
+                        });
+            });
+        }
+
+        private static String immutableClassField(ClassBuilder<?> top, String kind, String example) {
+            String name = "__IMMUTABLE_" + kind + (example.contains("2") ? "_LARGE__" : "_SMALL__");
+            if (!top.containsFieldNamed(name)) {
+                top.field(name, fb -> {
+                    fb.withModifier(PRIVATE, STATIC, FINAL)
+                            .initializedTo(example + ".getClass()")
+                            .ofType("Class<?>");
+                });
+            }
+            return name;
+        }
+
+        private String elementProblemTest(String el) {
+            StringBuilder sb = new StringBuilder();
+            if (noNullElements) {
+                sb.append(el).append(" == null");
+            }
+            if (isChecked()) {
+                if (sb.length() > 0) {
+                    sb.append(" || ");
+                }
+                sb.append("(").append(el).append(" != null && !").append(checkedAs)
+                        .append(".class.isInstance(").append(el).append("))");
+            }
+            return sb.toString();
+        }
+
+        private String mapEntryProblemTest(String entry) {
+            StringBuilder sb = new StringBuilder();
+            if (noNullElements) {
+                sb.append(entry).append(".getKey() == null || ");
+            }
+            return sb.append(elementProblemTest(entry + ".getValue()")).toString();
+        }
+
+        /**
+         * Null and type checks for one element, returning a message from the
+         * method on failure. The type check is only performed when the
+         * element's class differs from the last one seen, which for the usual
+         * homogeneous collection means once.
+         */
+        private void elementChecks(ClassBuilder.BlockBuilderBase<?, ?, ?> bb, String el, String index) {
+            if (noNullElements) {
+                bb.iff().booleanExpression(el + " == null")
+                        .returning("\" should not contain null elements, but does at index \" + " + index)
+                        .endIf();
+            }
+            if (isChecked()) {
+                ClassBuilder.IfBuilder<?> iff = bb.iff().booleanExpression(
+                        el + " != null && " + el + ".getClass() != _type");
+                iff.iff().booleanExpression("!" + checkedAs + ".class.isInstance(" + el + ")")
+                        .returning("\" should contain instances of " + checkedAs
+                                + " but element at index \" + " + index + " + \" is a \" + "
+                                + el + ".getClass().getName()")
+                        .endIf();
+                iff.statement("_type = " + el + ".getClass()");
+                iff.endIf();
+            }
+        }
+
+        private <T, B extends ClassBuilder.BlockBuilderBase<T, B, X>, X> void generateCollectionScan(B bb) {
+            if (isChecked()) {
+                bb.statement("Class<?> _type = null");
+            }
+            // Indexed access for array-backed lists, the iterator for anything
+            // (like LinkedList) where get(int) is not constant-time
+            ClassBuilder.IfBuilder<B> iff = bb.iff().booleanExpression(
+                    "items instanceof java.util.RandomAccess && items instanceof java.util.List");
+            iff.statement("java.util.List<?> _list = (java.util.List<?>) items");
+            iff.forVar("_i", fv -> {
+                fv.initializedWith(0).condition().lessThan().expression("_list.size()")
+                        .endCondition().running(loop -> {
+                            loop.statement("Object _o = _list.get(_i)");
+                            elementChecks(loop, "_o", "_i");
+                        });
+            });
+            iff.returning("null");
+            iff.endIf();
+            bb.statement("int _i = 0");
+            bb.simpleLoop("Object", "_o", loop -> loop.over("items", bk -> {
+                elementChecks(bk, "_o", "_i");
+                bk.statement("_i++");
+            }));
+            bb.returning("null");
+        }
+
+        private <T, B extends ClassBuilder.BlockBuilderBase<T, B, X>, X> void generateMapScan(B bb) {
+            // forEach() lets maps iterate their own storage without
+            // materializing entries; the lambda records the first problem
+            bb.statement("String[] _result = new String[1]");
+            if (isChecked()) {
+                bb.statement("Class<?>[] _type = new Class<?>[1]");
+            }
+            StringBuilder lambda = new StringBuilder("items.forEach((_k, _v) -> { ")
+                    .append("if (_result[0] != null) { return; } ");
+            if (noNullElements) {
+                lambda.append("if (_k == null) { _result[0] = \" contains null keys\"; return; } ")
+                        .append("if (_v == null) { _result[0] = \" contains null values\"; return; } ");
+            }
+            if (isChecked()) {
+                lambda.append("if (_v != null && _v.getClass() != _type[0]) { ")
+                        .append("if (!").append(checkedAs).append(".class.isInstance(_v)) { ")
+                        .append("_result[0] = \" should contain values of ").append(checkedAs)
+                        .append(" but the value for \" + _k + \" is a \" + _v.getClass().getName(); ")
+                        .append("return; } _type[0] = _v.getClass(); } ");
+            }
+            lambda.append("})");
+            bb.statement(lambda.toString());
+            bb.returning("_result[0]");
+        }
+
         @Override
         public <T, B extends ClassBuilder.BlockBuilderBase<T, B, X>, X> void generate(
                 String fieldVariableName, String problemsListVariableName, String addMethodName, AnnotationUtils utils, B bb, String parameterName) {
@@ -381,63 +539,17 @@ public class CollectionAndArraySizeHandler implements ConstraintHandler {
                         .on(problemsListVariableName)
                         .endIf();
             }
-            if (noNullElements) {
-                if (isListOrPrimitive) {
-                    bb.forVar("_i", fv -> {
-                        fv.initializedWith(0).condition().lessThan().expression(fieldVariableName + ".size()")
-                                .endCondition().running()
-                                .ifNull(fieldVariableName + ".get(" + "_i" + ")")
-                                .invoke(addMethodName)
-                                .withStringConcatentationArgument(parameterName)
-                                .append(" should not contain null elements, but does at index ")
-                                .appendExpression(("_i")).append(": ")
-                                .appendExpression(fieldVariableName).endConcatenation()
-                                .on(problemsListVariableName)
-                                .statement("break")
-                                .endIf()
-                                .endBlock();
-                    });
-                } else if (!isMap) {
-                    String vn = "_" + fieldVariableName + "Item";
-                    bb.simpleLoop("Object", vn, loop -> loop.over(fieldVariableName, bk -> {
-                        bk.ifNull(vn).invoke(addMethodName)
-                                .withStringConcatentationArgument(parameterName)
-                                .append(" should not contain null elements: ")
-                                .appendExpression(fieldVariableName)
-                                .endConcatenation().on(problemsListVariableName)
-                                .statement("break")
-                                .endIf();
-                    }));
-                } else if (isMap) {
-                    String vn = "entry";
-                    bb.simpleLoop("Map.Entry<?,?>", vn, loop
-                            -> {
-                        BlockBuilder<?> lbb = loop.overInvocationOf("entrySet")
-                                .on(fieldVariableName);
-                        lbb.declare("key").initializedByInvoking("getKey")
-                                .on(vn).as("Object");
-                        lbb.ifNull("key")
-                                .invoke(addMethodName)
-                                .withStringConcatentationArgument(parameterName)
-                                .append("contains null keys.")
-                                .endConcatenation()
-                                .on(problemsListVariableName)
-                                .statement("break")
-                                .endIf();
-                        lbb.declare("value").initializedByInvoking("getValue")
-                                .on(vn).as("Object");
-                        lbb.ifNull("value")
-                                .invoke(addMethodName)
-                                .withStringConcatentationArgument(parameterName)
-                                .append("contains null values.")
-                                .endConcatenation()
-                                .on(problemsListVariableName)
-                                .statement("break")
-                                .endIf();
-                        lbb.endBlock();
-                    }
-                    );
-                }
+            if (noNullElements || isChecked()) {
+                String problem = "_" + varName + "Problem";
+                bb.statement("String " + problem + " = " + scanMethodName()
+                        + "(" + fieldVariableName + ")");
+                bb.ifNotNull(problem)
+                        .invoke(addMethodName)
+                        .withStringConcatentationArgument(parameterName)
+                        .appendExpression(problem)
+                        .endConcatenation()
+                        .on(problemsListVariableName)
+                        .endIf();
             }
         }
     }
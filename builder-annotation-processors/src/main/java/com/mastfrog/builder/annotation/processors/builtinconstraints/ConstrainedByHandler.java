@@ -0,0 +1,230 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.annotation.processors.builtinconstraints;
+
+import com.mastfrog.annotation.AnnotationUtils;
+import com.mastfrog.builder.annotation.processors.spi.ConstraintGenerator;
+import com.mastfrog.builder.annotation.processors.spi.ConstraintHandler;
+import com.mastfrog.java.vogon.ClassBuilder;
+import com.mastfrog.java.vogon.ClassBuilder.BlockBuilderBase;
+import com.mastfrog.java.vogon.ClassBuilder.IfBuilder;
+import com.mastfrog.util.service.ServiceProvider;
+import java.util.Collections;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import static javax.lang.model.element.Modifier.ABSTRACT;
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+
+/**
+ * Handles &#064;ConstrainedBy, which delegates validation to a
+ * <code>Function&lt;T, Optional&lt;String&gt;&gt;</code>.
+ *
+ * @author Tim Boudreau
+ */
+@ServiceProvider(ConstraintHandler.class)
+public final class ConstrainedByHandler implements ConstraintHandler {
+
+    private static final String CONSTRAINED_BY = "com.mastfrog.builder.annotations.constraint.ConstrainedBy";
+    private static final Set<String> HANDLED = Collections.singleton(CONSTRAINED_BY);
+
+    @Override
+    public Set<String> handledAnnotationTypes() {
+        return HANDLED;
+    }
+
+    @Override
+    public void collect(AnnotationUtils utils, Element targetElement, VariableElement parameterElement,
+            Consumer<ConstraintGenerator> genConsumer) {
+        AnnotationMirror mir = utils.findAnnotationMirror(parameterElement, CONSTRAINED_BY);
+        if (mir == null) {
+            return;
+        }
+        TypeMirror validatorType = utils.typeForSingleClassAnnotationMember(mir, "value");
+        if (validatorType == null || validatorType.getKind() != TypeKind.DECLARED) {
+            utils.fail("Cannot resolve the validator class", parameterElement, mir);
+            return;
+        }
+        TypeElement validator = (TypeElement) ((DeclaredType) validatorType).asElement();
+        if (!isInstantiable(validator)) {
+            utils.fail(validator.getQualifiedName() + " must be a public, non-abstract, "
+                    + "top-level or static class with a public no-argument constructor",
+                    parameterElement, mir);
+            return;
+        }
+        if (!acceptsParameterType(utils, validatorType, parameterElement.asType())) {
+            utils.fail(validator.getQualifiedName() + " cannot be applied to a "
+                    + parameterElement.asType(), parameterElement, mir);
+            return;
+        }
+        int weight = utils.annotationValue(mir, "weight", Integer.class, 0);
+        boolean nullable = ConstraintGenerator.isNullable(utils, targetElement, parameterElement);
+        genConsumer.accept(new ConstrainedByGenerator(
+                validator.getQualifiedName().toString(), weight, nullable));
+    }
+
+    private static boolean isInstantiable(TypeElement validator) {
+        if (validator.getKind() != ElementKind.CLASS
+                || validator.getModifiers().contains(ABSTRACT)
+                || !validator.getModifiers().contains(PUBLIC)) {
+            return false;
+        }
+        if (validator.getEnclosingElement() instanceof TypeElement
+                && !validator.getModifiers().contains(STATIC)) {
+            return false;
+        }
+        for (ExecutableElement con : ElementFilter.constructorsIn(validator.getEnclosedElements())) {
+            if (con.getParameters().isEmpty() && con.getModifiers().contains(PUBLIC)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean acceptsParameterType(AnnotationUtils utils,
+            TypeMirror validatorType, TypeMirror paramType) {
+        Types types = utils.processingEnv().getTypeUtils();
+        switch (paramType.getKind()) {
+            case TYPEVAR:
+                paramType = types.erasure(paramType);
+                break;
+            default:
+                if (paramType.getKind().isPrimitive()) {
+                    paramType = types.boxedClass((PrimitiveType) paramType).asType();
+                }
+        }
+        TypeElement function = utils.processingEnv().getElementUtils()
+                .getTypeElement(Function.class.getName());
+        DeclaredType accepting = types.getDeclaredType(function,
+                types.getWildcardType(null, paramType), types.getWildcardType(null, null));
+        return types.isAssignable(validatorType, accepting);
+    }
+
+    public boolean equals(Object o) {
+        return o instanceof ConstrainedByHandler;
+    }
+
+    public int hashCode() {
+        return ConstrainedByHandler.class.hashCode();
+    }
+
+    private static final class ConstrainedByGenerator implements ConstraintGenerator {
+
+        private final String validatorType;
+        private final int weight;
+        private final boolean nullable;
+
+        ConstrainedByGenerator(String validatorType, int weight, boolean nullable) {
+            this.validatorType = validatorType;
+            this.weight = weight;
+            this.nullable = nullable;
+        }
+
+        private String constantName() {
+            return "VALIDATOR_" + validatorType.replace('.', '_').toUpperCase();
+        }
+
+        @Override
+        public <C> void decorateClass(ClassBuilder<C> bldr) {
+            // One stateless instance per builder class, rather than one per
+            // call
+            String name = constantName();
+            if (!bldr.topLevel().containsFieldNamed(name)) {
+                bldr.topLevel().field(name, fb -> {
+                    fb.withModifier(PRIVATE, STATIC, FINAL)
+                            .initializedTo("new " + validatorType + "()")
+                            .ofType(validatorType);
+                });
+            }
+        }
+
+        @Override
+        public <T, B extends BlockBuilderBase<T, B, X>, X> void generate(
+                String localFieldName, String problemsListVariableName, String addMethodName,
+                AnnotationUtils utils, B bb, String parameterName) {
+            bb.lineComment(getClass().getName());
+            if (nullable) {
+                IfBuilder<B> test = bb.ifNotNull(localFieldName);
+                doGenerate(localFieldName, problemsListVariableName, addMethodName, test, parameterName);
+                test.endIf();
+            } else {
+                doGenerate(localFieldName, problemsListVariableName, addMethodName, bb, parameterName);
+            }
+        }
+
+        private <T, B extends BlockBuilderBase<T, B, X>, X> void doGenerate(
+                String localFieldName, String problemsListVariableName, String addMethodName,
+                B bb, String parameterName) {
+            // Optional.empty() is a singleton, so a passing value costs the
+            // call and nothing else
+            String result = "_" + parameterName + "Validation";
+            bb.statement("java.util.Optional<String> " + result + " = "
+                    + constantName() + ".apply(" + localFieldName + ")");
+            bb.ifNull(result).andThrow(nb -> {
+                nb.withStringLiteral(validatorType + " returned null rather than "
+                        + "Optional.empty() for " + parameterName)
+                        .ofType("IllegalStateException");
+            }).endIf();
+            bb.iff().booleanExpression(result + ".isPresent()")
+                    .invoke(addMethodName)
+                    .withStringConcatentationArgument(parameterName)
+                    .append(": ")
+                    .appendExpression(result + ".get()")
+                    .endConcatenation()
+                    .on(problemsListVariableName)
+                    .endIf();
+        }
+
+        @Override
+        public void contributeDocComments(Consumer<String> bulletPoints) {
+            bulletPoints.accept("Checked by <code>" + validatorType + "</code>");
+        }
+
+        @Override
+        public int weight() {
+            return weight;
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getSimpleName() + "(" + validatorType
+                    + " weight " + weight + " nullable " + nullable + ")";
+        }
+    }
+}
@@ -25,13 +25,16 @@ package com.mastfrog.builder.annotation.processors.builtinconstraints;
 
 import com.mastfrog.annotation.AnnotationUtils;
 import com.mastfrog.builder.annotation.processors.spi.ConstraintGenerator;
-import static com.mastfrog.builder.annotation.processors.spi.ConstraintGenerator.NULLABLE_ANNOTATION;
 import com.mastfrog.builder.annotation.processors.spi.ConstraintHandler;
 import com.mastfrog.java.vogon.ClassBuilder;
 import com.mastfrog.java.vogon.ClassBuilder.ComparisonBuilder;
 import com.mastfrog.java.vogon.ClassBuilder.IfBuilder;
 import static com.mastfrog.java.vogon.ClassBuilder.variable;
 import com.mastfrog.util.service.ServiceProvider;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.function.Consumer;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
@@ -47,15 +50,27 @@ public class DoubleMinMaxHandler implements ConstraintHandler {
 
     private static final String DBL_MIN = "com.mastfrog.builder.annotations.constraint.DoubleMin";
     private static final String DBL_MAX = "com.mastfrog.builder.annotations.constraint.DoubleMax";
+    private static final Set<String> HANDLED
+            = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(DBL_MIN, DBL_MAX)));
+
+    @Override
+    public Set<String> handledAnnotationTypes() {
+        return HANDLED;
+    }
 
     @Override
     public void collect(AnnotationUtils utils, Element targetElement, VariableElement parameterElement,
             Consumer<ConstraintGenerator> genConsumer) {
         AnnotationMirror min = utils.findAnnotationMirror(parameterElement, DBL_MIN);
         AnnotationMirror max = utils.findAnnotationMirror(parameterElement, DBL_MAX);
-        boolean nullable = utils.findAnnotationMirror(parameterElement, NULLABLE_ANNOTATION) != null;
+        boolean nullable = ConstraintGenerator.isNullable(utils, targetElement, parameterElement);
         if (min != null || max != null) {
             TypeMirror paramType = parameterElement.asType();
+            if ("double[]".equals(paramType.toString())) {
+                genConsumer.accept(ArrayElementRangeGenerator.create(parameterElement,
+                        utils, "double", Double.class, min, max, nullable));
+                return;
+            }
             boolean isBoxedDouble = utils.isAssignable(paramType, Double.class.getName());
             boolean isPrimitiveDouble = !isBoxedDouble && utils.isAssignable(paramType, double.class.getName());
             boolean isNumber
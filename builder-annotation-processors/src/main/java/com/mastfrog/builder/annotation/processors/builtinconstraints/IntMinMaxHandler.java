@@ -25,12 +25,15 @@ package com.mastfrog.builder.annotation.processors.builtinconstraints;
 
 import com.mastfrog.annotation.AnnotationUtils;
 import com.mastfrog.builder.annotation.processors.spi.ConstraintGenerator;
-import static com.mastfrog.builder.annotation.processors.spi.ConstraintGenerator.NULLABLE_ANNOTATION;
 import com.mastfrog.builder.annotation.processors.spi.ConstraintHandler;
 import com.mastfrog.java.vogon.ClassBuilder;
 import com.mastfrog.java.vogon.ClassBuilder.ComparisonBuilder;
 import com.mastfrog.java.vogon.ClassBuilder.IfBuilder;
 import com.mastfrog.util.service.ServiceProvider;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.function.Consumer;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
@@ -46,18 +49,25 @@ public class IntMinMaxHandler implements ConstraintHandler {
 
     private static final String INT_MIN = "com.mastfrog.builder.annotations.constraint.IntMin";
     private static final String INT_MAX = "com.mastfrog.builder.annotations.constraint.IntMax";
+    private static final Set<String> HANDLED
+            = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(INT_MIN, INT_MAX)));
+
+    @Override
+    public Set<String> handledAnnotationTypes() {
+        return HANDLED;
+    }
 
     @Override
     public void collect(AnnotationUtils utils, Element targetElement, VariableElement parameterElement,
             Consumer<ConstraintGenerator> genConsumer) {
         AnnotationMirror min = utils.findAnnotationMirror(parameterElement, INT_MIN);
         AnnotationMirror max = utils.findAnnotationMirror(parameterElement, INT_MAX);
-        boolean nullable = utils.findAnnotationMirror(parameterElement, NULLABLE_ANNOTATION) != null;
+        boolean nullable = ConstraintGenerator.isNullable(utils, targetElement, parameterElement);
         if (min != null || max != null) {
             TypeMirror paramType = parameterElement.asType();
             if ("int[]".equals(paramType.toString())) {
-                genConsumer.accept(new IntArrayMinMaxGenerator(parameterElement,
-                        utils, min, max, nullable));
+                genConsumer.accept(ArrayElementRangeGenerator.create(parameterElement,
+                        utils, "int", Integer.class, min, max, nullable));
                 return;
             }
             boolean isBoxedInt = utils.isAssignable(paramType, Integer.class.getName());
@@ -196,95 +206,4 @@ public class IntMinMaxHandler implements ConstraintHandler {
             return getClass().getSimpleName() + "(" + min + " nullable " + nullable + ")";
         }
     }
-
-    private static final class IntArrayMinMaxGenerator implements ConstraintGenerator {
-
-        private final int min;
-        private final int max;
-        private final boolean nullable;
-
-        IntArrayMinMaxGenerator(Element el, AnnotationUtils utils, AnnotationMirror min, AnnotationMirror max, boolean nullable) {
-            this.min = min == null ? Integer.MIN_VALUE : utils.annotationValue(min, "value", Integer.class, Integer.MIN_VALUE);
-            this.max = max == null ? Integer.MAX_VALUE : utils.annotationValue(max, "value", Integer.class, Integer.MAX_VALUE);
-            if (this.min > this.max) {
-                utils.fail("Minimum element value " + this.min + " is greater than maximum " + this.max, el);
-            }
-            this.nullable = nullable;
-        }
-
-        public String toString() {
-            return getClass().getSimpleName() + "(min " + min + " max " + max + " nullable " + nullable + ")";
-        }
-
-        @Override
-        public <T, B extends ClassBuilder.BlockBuilderBase<T, B, X>, X> void generate(
-                String localFieldName, String problemsListVariableName, String addMethodName,
-                AnnotationUtils utils, B bb, String parameterName) {
-            if (nullable) {
-                ClassBuilder.IfBuilder<B> iff = bb.iff().isNotNull(localFieldName).endCondition();
-                apply(localFieldName, problemsListVariableName, addMethodName, utils, iff, parameterName);
-                iff.endIf();
-            } else {
-                apply(localFieldName, problemsListVariableName, addMethodName, utils, bb, parameterName);
-            }
-        }
-
-        private <T, B extends ClassBuilder.BlockBuilderBase<T, B, X>, X> void apply(String localFieldName,
-                String problemsListVariableName, String addMethodName, AnnotationUtils utils, B bb,
-                String parameterName) {
-            String v = "_i";
-            bb.forVar(v, fv -> {
-                fv.initializedWith(0).condition().lessThan().field("length").of(localFieldName).endCondition().running(forBlock -> {
-                    if (min != Integer.MIN_VALUE) {
-                        forBlock.iff().variable(localFieldName + "[" + v + "]").isLessThan(min)
-                                .invoke(addMethodName)
-                                .withStringConcatentationArgument("int[] param", scb -> {
-                                    scb.append(parameterName)
-                                            .append("' at index ")
-                                            .appendExpression(v)
-                                            .append(" must be &gt;= ")
-                                            .append(min)
-                                            .append(" but is ")
-                                            .appendExpression(localFieldName + "[" + v + "]");
-
-                                })
-                                .on(problemsListVariableName)
-                                .breaking()
-                                .endIf();
-                    }
-                    if (max != Integer.MIN_VALUE) {
-                        forBlock.iff().variable(localFieldName + "[" + v + "]").isGreaterThan(max)
-                                .invoke(addMethodName)
-                                .withStringConcatentationArgument("int[] param '")
-                                .append(parameterName)
-                                .append("' at index ")
-                                .appendExpression(v)
-                                .append(" must be &lt;= ")
-                                .append(max)
-                                .append(" but is ")
-                                .appendExpression(localFieldName + "[" + v + "]")
-                                .endConcatenation()
-                                .on(problemsListVariableName)
-                                .statement("break")
-                                .endIf();
-
-                    }
-                });
-            });
-        }
-
-        @Override
-        public void contributeDocComments(Consumer<String> bulletPoints) {
-            if (nullable) {
-                bulletPoints.accept("Parameter is optional.");
-            }
-            bulletPoints.accept("All values must be &gt;= <code>" + min + "</code>");
-            bulletPoints.accept("All values must be &lt;= <code>" + max + "</code>");
-        }
-
-        @Override
-        public int weight() {
-            return 500;
-        }
-    }
 }
@@ -0,0 +1,998 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.annotation.processors.builtinconstraints;
+
+import com.mastfrog.java.vogon.ClassBuilder;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.STATIC;
+
+/**
+ * Compiles a regular expression into a DFA at annotation processing time, so
+ * that the generated code can validate a string in a single pass with no
+ * backtracking - guaranteed O(n) in the length of the input, regardless of the
+ * pattern. Also used to detect patterns at risk of catastrophic backtracking
+ * when they are left to <code>java.util.regex</code>.
+ * <p>
+ * The DFA tables are emitted as string constants (one char per entry) rather
+ * than array initializers, which keeps them out of the static initializer's
+ * 64Kb method size limit and needs no decoding at runtime.
+ * </p><p>
+ * Supported: literals, character classes (including negated ones and the
+ * <code>\d \w \s</code> escapes and their negations), <code>.</code>, groups,
+ * alternation, greedy and lazy quantifiers, <code>^</code> at the start and
+ * <code>$</code> at the end of the pattern. Back references, lookaround,
+ * atomic groups, possessive quantifiers, inline flags and other anchors cannot
+ * be matched by a DFA, or not with <code>Pattern</code>'s semantics, and are
+ * reported as {@link Unsupported}. Characters outside the basic multilingual
+ * plane are matched as two UTF-16 chars.
+ * </p>
+ *
+ * @author Tim Boudreau
+ */
+final class LinearPattern {
+
+    private static final int MAX_NFA_STATES = 8192;
+    private static final int MAX_DFA_STATES = 2048;
+    // Keeps the encoded table within the 65535 byte limit on string constants
+    private static final int MAX_TABLE_SIZE = 21000;
+    private static final int UNBOUNDED = -1;
+    private static final int[] ALL = {0, 0xFFFF};
+    private static final int[] DIGITS = {'0', '9'};
+    private static final int[] WORD = {'0', '9', 'A', 'Z', '_', '_', 'a', 'z'};
+    private static final int[] SPACE = {'\t', '\r', ' ', ' '};
+    private static final int[] LINE_TERMINATORS = {'\n', '\n', '\r', '\r',
+        0x0085, 0x0085, 0x2028, 0x2029};
+
+    private final String pattern;
+    private final boolean anchoredEnd;
+    private final char[] bounds;
+    private final char[] asciiClasses;
+    private final char[] table;
+    private final boolean[] accept;
+
+    private LinearPattern(String pattern, boolean anchoredEnd, char[] bounds,
+            char[] asciiClasses, char[] table, boolean[] accept) {
+        this.pattern = pattern;
+        this.anchoredEnd = anchoredEnd;
+        this.bounds = bounds;
+        this.asciiClasses = asciiClasses;
+        this.table = table;
+        this.accept = accept;
+    }
+
+    @Override
+    public String toString() {
+        return pattern + " (" + accept.length + " states, "
+                + bounds.length + " character classes)";
+    }
+
+    /**
+     * Thrown for patterns which cannot be compiled to a DFA.
+     */
+    static final class Unsupported extends Exception {
+
+        private static final long serialVersionUID = 1;
+
+        Unsupported(String msg) {
+            super(msg);
+        }
+    }
+
+    /**
+     * Compile a pattern.
+     *
+     * @param pattern A regular expression already known to be valid
+     * @return A LinearPattern
+     * @throws Unsupported if the pattern uses constructs that cannot be
+     * matched in linear time, or its automaton is too large
+     */
+    static LinearPattern compile(String pattern) throws Unsupported {
+        Parser parser = new Parser(pattern);
+        Node root = parser.parse();
+        Nfa nfa = new Nfa();
+        int accepting = nfa.newState();
+        int start = root.compile(nfa, accepting);
+        if (!parser.anchoredStart) {
+            // find() semantics - a match may begin anywhere
+            int loop = nfa.newState();
+            int any = nfa.newState();
+            nfa.ranges.set(any, ALL);
+            nfa.targets[any] = loop;
+            nfa.epsilon(loop, start);
+            nfa.epsilon(loop, any);
+            start = loop;
+        }
+        return nfa.toDfa(pattern, start, accepting, parser.anchoredEnd);
+    }
+
+    /**
+     * Look for the structures that make a backtracking matcher take
+     * exponential time on some inputs - a quantified expression which
+     * ends in another quantified expression that can match the same
+     * characters, as in <code>(a+)+</code> or <code>(\w+\s?)*</code>, and
+     * quantified alternations whose alternatives can start with the same
+     * character, as in <code>(a|ab)*</code>.
+     *
+     * @param pattern A regular expression
+     * @return A description of the problem, or null if none was found (or
+     * the pattern is one this class cannot parse)
+     */
+    static String backtrackingRisk(String pattern) {
+        Node root;
+        try {
+            root = new Parser(pattern).parse();
+        } catch (Unsupported ex) {
+            return null;
+        }
+        return root.backtrackingRisk(false);
+    }
+
+    /**
+     * Add the DFA tables, in a nested class of their own, and matching methods
+     * to a class; the method named <code>methodName</code> has the semantics
+     * of <code>Pattern.matcher(seq).find()</code>.
+     *
+     * @param bldr A class builder
+     * @param methodName The name of the method
+     */
+    <C> void generateMatchMethods(ClassBuilder<C> bldr, String methodName) {
+        // Kept out of the builder's own fields, which its generated
+        // toString() prints
+        String name = methodName.replaceAll("^_+", "");
+        String holderName = "__" + Character.toUpperCase(name.charAt(0))
+                + name.substring(1) + "Dfa__";
+        ClassBuilder<?> holder = bldr.innerClass(holderName)
+                .withModifier(PRIVATE, STATIC, FINAL)
+                .docComment("DFA tables for <code>" + methodName + "</code>.");
+        char[] acceptChars = new char[accept.length];
+        for (int i = 0; i < accept.length; i++) {
+            acceptChars[i] = accept[i] ? '1' : '0';
+        }
+        stringConstant(holder, "BOUNDS", bounds);
+        stringConstant(holder, "ASCII", asciiClasses);
+        stringConstant(holder, "TABLE", table);
+        stringConstant(holder, "ACCEPT", acceptChars);
+        holder.build();
+        String boundsField = holderName + ".BOUNDS";
+        String asciiField = holderName + ".ASCII";
+        String tableField = holderName + ".TABLE";
+        String acceptField = holderName + ".ACCEPT";
+
+        String classMethod = methodName + "Class";
+        bldr.method(classMethod, mb -> {
+            mb.withModifier(PRIVATE, STATIC)
+                    .addArgument("char", "c")
+                    .returning("int")
+                    .body(bb -> {
+                        bb.iff().booleanExpression("c < 128")
+                                .returning(asciiField + ".charAt(c)").endIf();
+                        bb.statement("int result = 0");
+                        bb.forVar("_b", fv -> {
+                            fv.initializedWith(0).condition().lessThan()
+                                    .expression(boundsField + ".length()").endCondition().running(loop -> {
+                                loop.iff().booleanExpression(boundsField + ".charAt(_b) > c")
+                                        .statement("break").endIf();
+                                loop.statement("result = _b");
+                            });
+                        });
+                        bb.returning("result");
+                    });
+        });
+        int classCount = bounds.length;
+        String accepting = acceptField + ".charAt(state) == '1'";
+        bldr.method(methodName, mb -> {
+            mb.withModifier(PRIVATE, STATIC)
+                    .docComment("Equivalent to <code>Pattern.compile(\""
+                            + SimplePattern.commentSafe(pattern)
+                            + "\").matcher(seq).find()</code>, using a DFA with "
+                            + accept.length + " states, in time linear in the "
+                            + "length of the input."
+                            + "\n@param seq A character sequence"
+                            + "\n@return true if it matches")
+                    .addArgument("CharSequence", "seq")
+                    .returning("boolean")
+                    .body(bb -> {
+                        bb.declare("len").initializedByInvoking("length").on("seq").as("int");
+                        bb.statement("int state = 0");
+                        if (!anchoredEnd) {
+                            bb.iff().booleanExpression(accepting).returning("true").endIf();
+                        }
+                        bb.forVar("_p", fv -> {
+                            fv.initializedWith(0).condition().lessThan()
+                                    .expression("len").endCondition().running(loop -> {
+                                if (anchoredEnd) {
+                                    // Pattern's $ also matches before a final line terminator
+                                    loop.iff().booleanExpression(accepting + " && ("
+                                            + "(_p == len - 1 && "
+                                            + SimplePattern.lineTerminatorTest("seq.charAt(_p)")
+                                            + " && !(_p > 0 && seq.charAt(_p) == '\\n' && seq.charAt(_p - 1) == '\\r'))"
+                                            + " || (_p == len - 2 && seq.charAt(_p) == '\\r' && seq.charAt(_p + 1) == '\\n'))")
+                                            .returning("true").endIf();
+                                }
+                                loop.statement("state = " + tableField + ".charAt(state * "
+                                        + classCount + " + " + classMethod + "(seq.charAt(_p))) - 1");
+                                loop.iff().booleanExpression("state < 0")
+                                        .returning("false").endIf();
+                                if (!anchoredEnd) {
+                                    loop.iff().booleanExpression(accepting)
+                                            .returning("true").endIf();
+                                }
+                            });
+                        });
+                        bb.returning(anchoredEnd ? accepting : "false");
+                    });
+        });
+    }
+
+    private static <C> void stringConstant(ClassBuilder<C> bldr, String name, char[] value) {
+        bldr.field(name, fb -> {
+            fb.withModifier(STATIC, FINAL)
+                    .initializedTo(stringLiteral(value))
+                    .ofType("String");
+        });
+    }
+
+    /**
+     * Encode chars as a Java string literal, avoiding unicode escapes for
+     * anything which could be a quote, backslash or line break, since those
+     * are translated before the source is tokenized.
+     */
+    static String stringLiteral(char[] chars) {
+        StringBuilder sb = new StringBuilder(chars.length * 2 + 2).append('"');
+        for (char c : chars) {
+            if (c >= ' ' && c < 127 && c != '"' && c != '\\') {
+                sb.append(c);
+            } else if (c < 256) {
+                String oct = Integer.toOctalString(c);
+                sb.append('\\');
+                for (int i = oct.length(); i < 3; i++) {
+                    sb.append('0');
+                }
+                sb.append(oct);
+            } else {
+                String hex = Integer.toHexString(c);
+                sb.append("\\u");
+                for (int i = hex.length(); i < 4; i++) {
+                    sb.append('0');
+                }
+                sb.append(hex);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    // Character sets are sorted arrays of inclusive [low, high] pairs
+    static int[] range(int lo, int hi) {
+        return new int[]{lo, hi};
+    }
+
+    static int[] union(int[] a, int[] b) {
+        int[] all = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, all, a.length, b.length);
+        int count = all.length / 2;
+        long[] pairs = new long[count];
+        for (int i = 0; i < count; i++) {
+            pairs[i] = ((long) all[i * 2] << 32) | all[i * 2 + 1];
+        }
+        Arrays.sort(pairs);
+        int[] result = new int[all.length];
+        int cursor = -2;
+        for (long pair : pairs) {
+            int lo = (int) (pair >>> 32);
+            int hi = (int) pair;
+            if (cursor >= 0 && lo <= result[cursor + 1] + 1) {
+                result[cursor + 1] = Math.max(hi, result[cursor + 1]);
+            } else {
+                cursor += 2;
+                result[cursor] = lo;
+                result[cursor + 1] = hi;
+            }
+        }
+        return Arrays.copyOf(result, cursor + 2);
+    }
+
+    static int[] complement(int[] set) {
+        int[] result = new int[set.length + 2];
+        int cursor = 0;
+        int next = 0;
+        for (int i = 0; i < set.length; i += 2) {
+            if (set[i] > next) {
+                result[cursor++] = next;
+                result[cursor++] = set[i] - 1;
+            }
+            next = set[i + 1] + 1;
+        }
+        if (next <= 0xFFFF) {
+            result[cursor++] = next;
+            result[cursor++] = 0xFFFF;
+        }
+        return Arrays.copyOf(result, cursor);
+    }
+
+    static boolean intersects(int[] a, int[] b) {
+        for (int i = 0; i < a.length; i += 2) {
+            for (int j = 0; j < b.length; j += 2) {
+                if (a[i] <= b[j + 1] && b[j] <= a[i + 1]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    static boolean contains(int[] set, int c) {
+        for (int i = 0; i < set.length; i += 2) {
+            if (c >= set[i] && c <= set[i + 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static abstract class Node {
+
+        abstract boolean nullable();
+
+        /**
+         * The set of characters a non-empty match can start with.
+         */
+        abstract int[] first();
+
+        /**
+         * Add states matching this node to the NFA, continuing to
+         * <code>next</code> once matched.
+         *
+         * @return The start state
+         */
+        abstract int compile(Nfa nfa, int next) throws Unsupported;
+
+        /**
+         * Repetitions which can be the last thing this node matches.
+         */
+        abstract void tailRepeats(List<Repeat> into);
+
+        abstract String backtrackingRisk(boolean repeated);
+    }
+
+    private static final class Chars extends Node {
+
+        private final int[] set;
+
+        Chars(int[] set) {
+            this.set = set;
+        }
+
+        @Override
+        boolean nullable() {
+            return false;
+        }
+
+        @Override
+        int[] first() {
+            return set;
+        }
+
+        @Override
+        int compile(Nfa nfa, int next) throws Unsupported {
+            int state = nfa.newState();
+            nfa.ranges.set(state, set);
+            nfa.targets[state] = next;
+            return state;
+        }
+
+        @Override
+        void tailRepeats(List<Repeat> into) {
+            // do nothing
+        }
+
+        @Override
+        String backtrackingRisk(boolean repeated) {
+            return null;
+        }
+    }
+
+    private static final class Seq extends Node {
+
+        private final List<Node> items;
+
+        Seq(List<Node> items) {
+            this.items = items;
+        }
+
+        @Override
+        boolean nullable() {
+            for (Node n : items) {
+                if (!n.nullable()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        int[] first() {
+            int[] result = new int[0];
+            for (Node n : items) {
+                result = union(result, n.first());
+                if (!n.nullable()) {
+                    break;
+                }
+            }
+            return result;
+        }
+
+        @Override
+        int compile(Nfa nfa, int next) throws Unsupported {
+            for (int i = items.size() - 1; i >= 0; i--) {
+                next = items.get(i).compile(nfa, next);
+            }
+            return next;
+        }
+
+        @Override
+        void tailRepeats(List<Repeat> into) {
+            for (int i = items.size() - 1; i >= 0; i--) {
+                Node n = items.get(i);
+                n.tailRepeats(into);
+                if (!n.nullable()) {
+                    break;
+                }
+            }
+        }
+
+        @Override
+        String backtrackingRisk(boolean repeated) {
+            for (Node n : items) {
+                String result = n.backtrackingRisk(repeated);
+                if (result != null) {
+                    return result;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class Alt extends Node {
+
+        private final List<Node> branches;
+
+        Alt(List<Node> branches) {
+            this.branches = branches;
+        }
+
+        @Override
+        boolean nullable() {
+            for (Node n : branches) {
+                if (n.nullable()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        int[] first() {
+            int[] result = new int[0];
+            for (Node n : branches) {
+                result = union(result, n.first());
+            }
+            return result;
+        }
+
+        @Override
+        int compile(Nfa nfa, int next) throws Unsupported {
+            int split = nfa.newState();
+            for (Node n : branches) {
+                nfa.epsilon(split, n.compile(nfa, next));
+            }
+            return split;
+        }
+
+        @Override
+        void tailRepeats(List<Repeat> into) {
+            for (Node n : branches) {
+                n.tailRepeats(into);
+            }
+        }
+
+        @Override
+        String backtrackingRisk(boolean repeated) {
+            if (repeated) {
+                for (int i = 0; i < branches.size(); i++) {
+                    for (int j = i + 1; j < branches.size(); j++) {
+                        if (intersects(branches.get(i).first(), branches.get(j).first())) {
+                            return "alternatives " + (i + 1) + " and " + (j + 1)
+                                    + " of a repeated alternation can start with the "
+                                    + "same character";
+                        }
+                    }
+                }
+            }
+            for (Node n : branches) {
+                String result = n.backtrackingRisk(repeated);
+                if (result != null) {
+                    return result;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class Repeat extends Node {
+
+        private final Node body;
+        private final int min;
+        private final int max;
+
+        Repeat(Node body, int min, int max) {
+            this.body = body;
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        boolean nullable() {
+            return min == 0 || body.nullable();
+        }
+
+        @Override
+        int[] first() {
+            return max == 0 ? new int[0] : body.first();
+        }
+
+        @Override
+        int compile(Nfa nfa, int next) throws Unsupported {
+            int tail = next;
+            if (max == UNBOUNDED) {
+                int loop = nfa.newState();
+                nfa.epsilon(loop, body.compile(nfa, loop));
+                nfa.epsilon(loop, next);
+                tail = loop;
+            } else {
+                for (int i = min; i < max; i++) {
+                    int optional = nfa.newState();
+                    nfa.epsilon(optional, body.compile(nfa, tail));
+                    nfa.epsilon(optional, next);
+                    tail = optional;
+                }
+            }
+            for (int i = 0; i < min; i++) {
+                tail = body.compile(nfa, tail);
+            }
+            return tail;
+        }
+
+        @Override
+        void tailRepeats(List<Repeat> into) {
+            if (max == UNBOUNDED) {
+                into.add(this);
+            }
+            body.tailRepeats(into);
+        }
+
+        @Override
+        String backtrackingRisk(boolean repeated) {
+            if (max == UNBOUNDED || max > 1) {
+                List<Repeat> inner = new ArrayList<>();
+                body.tailRepeats(inner);
+                int[] first = body.first();
+                for (Repeat r : inner) {
+                    if (intersects(first, r.body.first())) {
+                        return "it contains nested quantifiers which can match "
+                                + "the same characters";
+                    }
+                }
+            }
+            return body.backtrackingRisk(repeated || max == UNBOUNDED || max > 1);
+        }
+    }
+
+    private static final class Parser {
+
+        private final String p;
+        private int pos;
+        private int depth;
+        boolean anchoredStart;
+        boolean anchoredEnd;
+
+        Parser(String p) {
+            this.p = p;
+        }
+
+        Node parse() throws Unsupported {
+            if (p.startsWith("^")) {
+                anchoredStart = true;
+                pos = 1;
+            }
+            Node result = parseAlternation();
+            if (pos < p.length()) {
+                throw new Unsupported("unbalanced ')' at " + pos);
+            }
+            if ((anchoredStart || anchoredEnd) && result instanceof Alt) {
+                throw new Unsupported("^ or $ combined with top-level alternation");
+            }
+            return result;
+        }
+
+        private Node parseAlternation() throws Unsupported {
+            List<Node> branches = new ArrayList<>();
+            branches.add(parseSequence());
+            while (pos < p.length() && p.charAt(pos) == '|') {
+                pos++;
+                branches.add(parseSequence());
+            }
+            return branches.size() == 1 ? branches.get(0) : new Alt(branches);
+        }
+
+        private Node parseSequence() throws Unsupported {
+            List<Node> items = new ArrayList<>();
+            while (pos < p.length()) {
+                char c = p.charAt(pos);
+                if (c == '|' || c == ')') {
+                    break;
+                }
+                if (c == '$') {
+                    if (depth == 0 && pos == p.length() - 1) {
+                        anchoredEnd = true;
+                        pos++;
+                        break;
+                    }
+                    throw new Unsupported("$ anywhere but the end of the pattern");
+                }
+                if (c == '^') {
+                    throw new Unsupported("^ anywhere but the start of the pattern");
+                }
+                items.add(parseQuantifier(parseAtom()));
+            }
+            return items.size() == 1 ? items.get(0) : new Seq(items);
+        }
+
+        private Node parseAtom() throws Unsupported {
+            char c = p.charAt(pos++);
+            switch (c) {
+                case '(':
+                    if (p.startsWith("?:", pos)) {
+                        pos += 2;
+                    } else if (p.startsWith("?<", pos) && pos + 2 < p.length()
+                            && Character.isLetter(p.charAt(pos + 2))) {
+                        pos = p.indexOf('>', pos) + 1;
+                    } else if (p.startsWith("?", pos)) {
+                        throw new Unsupported("lookaround, atomic groups and inline flags");
+                    }
+                    depth++;
+                    Node body = parseAlternation();
+                    depth--;
+                    if (pos >= p.length() || p.charAt(pos) != ')') {
+                        throw new Unsupported("unterminated group");
+                    }
+                    pos++;
+                    return body;
+                case '[':
+                    return new Chars(parseClass());
+                case '.':
+                    return new Chars(complement(LINE_TERMINATORS));
+                case '\\':
+                    return new Chars(parseEscape());
+                case '*':
+                case '+':
+                case '?':
+                case '{':
+                    throw new Unsupported("dangling quantifier at " + (pos - 1));
+                default:
+                    return new Chars(single(c));
+            }
+        }
+
+        private Node parseQuantifier(Node atom) throws Unsupported {
+            if (pos >= p.length()) {
+                return atom;
+            }
+            int min;
+            int max;
+            switch (p.charAt(pos)) {
+                case '*':
+                    min = 0;
+                    max = UNBOUNDED;
+                    pos++;
+                    break;
+                case '+':
+                    min = 1;
+                    max = UNBOUNDED;
+                    pos++;
+                    break;
+                case '?':
+                    min = 0;
+                    max = 1;
+                    pos++;
+                    break;
+                case '{':
+                    int close = p.indexOf('}', pos);
+                    if (close < 0) {
+                        throw new Unsupported("unterminated quantifier");
+                    }
+                    String spec = p.substring(pos + 1, close);
+                    int comma = spec.indexOf(',');
+                    try {
+                        if (comma < 0) {
+                            min = max = Integer.parseInt(spec.trim());
+                        } else {
+                            min = Integer.parseInt(spec.substring(0, comma).trim());
+                            String mx = spec.substring(comma + 1).trim();
+                            max = mx.isEmpty() ? UNBOUNDED : Integer.parseInt(mx);
+                        }
+                    } catch (NumberFormatException ex) {
+                        throw new Unsupported("bad quantifier {" + spec + "}");
+                    }
+                    pos = close + 1;
+                    break;
+                default:
+                    return atom;
+            }
+            if (pos < p.length() && p.charAt(pos) == '+') {
+                throw new Unsupported("possessive quantifiers");
+            }
+            if (pos < p.length() && p.charAt(pos) == '?') {
+                // Lazy - which match is found does not change whether one is
+                pos++;
+            }
+            return new Repeat(atom, min, max);
+        }
+
+        private int[] single(char c) throws Unsupported {
+            if (Character.isSurrogate(c)) {
+                throw new Unsupported("characters outside the basic multilingual plane");
+            }
+            return range(c, c);
+        }
+
+        private int[] parseEscape() throws Unsupported {
+            if (pos >= p.length()) {
+                throw new Unsupported("trailing backslash");
+            }
+            char e = p.charAt(pos++);
+            switch (e) {
+                case 'd':
+                    return DIGITS;
+                case 'D':
+                    return complement(DIGITS);
+                case 'w':
+                    return WORD;
+                case 'W':
+                    return complement(WORD);
+                case 's':
+                    return SPACE;
+                case 'S':
+                    return complement(SPACE);
+                case 't':
+                    return range('\t', '\t');
+                case 'n':
+                    return range('\n', '\n');
+                case 'r':
+                    return range('\r', '\r');
+                case 'f':
+                    return range('\f', '\f');
+                case 'a':
+                    return range(7, 7);
+                case 'e':
+                    return range(27, 27);
+                case 'x':
+                    return hex(2);
+                case 'u':
+                    return hex(4);
+                default:
+                    if (Character.isLetterOrDigit(e)) {
+                        throw new Unsupported("\\" + e);
+                    }
+                    return single(e);
+            }
+        }
+
+        private int[] hex(int digits) throws Unsupported {
+            if (pos + digits > p.length()) {
+                throw new Unsupported("truncated hex escape");
+            }
+            try {
+                int c = Integer.parseInt(p.substring(pos, pos + digits), 16);
+                pos += digits;
+                return single((char) c);
+            } catch (NumberFormatException ex) {
+                throw new Unsupported("hex escape syntax");
+            }
+        }
+
+        private int[] parseClass() throws Unsupported {
+            boolean negated = pos < p.length() && p.charAt(pos) == '^';
+            if (negated) {
+                pos++;
+            }
+            int[] result = new int[0];
+            boolean first = true;
+            for (;;) {
+                if (pos >= p.length()) {
+                    throw new Unsupported("unterminated character class");
+                }
+                char c = p.charAt(pos++);
+                if (c == ']' && !first) {
+                    break;
+                }
+                first = false;
+                int[] item;
+                if (c == '[') {
+                    throw new Unsupported("character class unions");
+                } else if (c == '&' && pos < p.length() && p.charAt(pos) == '&') {
+                    throw new Unsupported("character class intersections");
+                } else if (c == '\\') {
+                    item = parseEscape();
+                } else {
+                    item = single(c);
+                }
+                if (item.length == 2 && item[0] == item[1] && pos + 1 < p.length()
+                        && p.charAt(pos) == '-' && p.charAt(pos + 1) != ']') {
+                    pos++;
+                    char upper = p.charAt(pos++);
+                    int[] end;
+                    if (upper == '\\') {
+                        end = parseEscape();
+                    } else if (upper == '[') {
+                        throw new Unsupported("character class unions");
+                    } else {
+                        end = single(upper);
+                    }
+                    if (end.length != 2 || end[0] != end[1] || end[0] < item[0]) {
+                        throw new Unsupported("bad character range");
+                    }
+                    item = range(item[0], end[0]);
+                }
+                result = union(result, item);
+            }
+            return negated ? complement(result) : result;
+        }
+    }
+
+    private static final class Nfa {
+
+        final List<int[]> ranges = new ArrayList<>();
+        int[] targets = new int[64];
+        final List<int[]> epsilons = new ArrayList<>();
+
+        int newState() throws Unsupported {
+            int result = ranges.size();
+            if (result >= MAX_NFA_STATES) {
+                throw new Unsupported("the pattern needs more than " + MAX_NFA_STATES
+                        + " NFA states");
+            }
+            ranges.add(null);
+            epsilons.add(new int[0]);
+            if (result >= targets.length) {
+                targets = Arrays.copyOf(targets, targets.length * 2);
+            }
+            targets[result] = -1;
+            return result;
+        }
+
+        void epsilon(int from, int to) {
+            int[] old = epsilons.get(from);
+            int[] nue = Arrays.copyOf(old, old.length + 1);
+            nue[old.length] = to;
+            epsilons.set(from, nue);
+        }
+
+        void closure(int state, BitSet into) {
+            Deque<Integer> stack = new ArrayDeque<>();
+            stack.push(state);
+            while (!stack.isEmpty()) {
+                int s = stack.pop();
+                if (into.get(s)) {
+                    continue;
+                }
+                into.set(s);
+                for (int e : epsilons.get(s)) {
+                    stack.push(e);
+                }
+            }
+        }
+
+        LinearPattern toDfa(String pattern, int start, int accepting, boolean anchoredEnd) throws Unsupported {
+            // Partition the character space into classes no transition
+            // distinguishes between
+            TreeSet<Integer> boundarySet = new TreeSet<>();
+            boundarySet.add(0);
+            for (int[] set : ranges) {
+                if (set != null) {
+                    for (int i = 0; i < set.length; i += 2) {
+                        boundarySet.add(set[i]);
+                        if (set[i + 1] < 0xFFFF) {
+                            boundarySet.add(set[i + 1] + 1);
+                        }
+                    }
+                }
+            }
+            char[] bounds = new char[boundarySet.size()];
+            int ix = 0;
+            for (int b : boundarySet) {
+                bounds[ix++] = (char) b;
+            }
+            int classes = bounds.length;
+            char[] ascii = new char[128];
+            for (int c = 0, cls = 0; c < 128; c++) {
+                while (cls + 1 < classes && bounds[cls + 1] <= c) {
+                    cls++;
+                }
+                ascii[c] = (char) cls;
+            }
+            Map<BitSet, Integer> ids = new HashMap<>();
+            List<BitSet> sets = new ArrayList<>();
+            BitSet initial = new BitSet();
+            closure(start, initial);
+            ids.put(initial, 0);
+            sets.add(initial);
+            List<char[]> rows = new ArrayList<>();
+            for (int i = 0; i < sets.size(); i++) {
+                BitSet current = sets.get(i);
+                char[] row = new char[classes];
+                for (int cls = 0; cls < classes; cls++) {
+                    BitSet next = new BitSet();
+                    for (int s = current.nextSetBit(0); s >= 0; s = current.nextSetBit(s + 1)) {
+                        int[] set = ranges.get(s);
+                        if (set != null && contains(set, bounds[cls])) {
+                            closure(targets[s], next);
+                        }
+                    }
+                    if (next.isEmpty()) {
+                        continue;
+                    }
+                    Integer id = ids.get(next);
+                    if (id == null) {
+                        id = sets.size();
+                        if (id >= MAX_DFA_STATES || (long) (id + 1) * classes > MAX_TABLE_SIZE) {
+                            throw new Unsupported("the pattern's DFA would be larger than "
+                                    + MAX_TABLE_SIZE + " entries");
+                        }
+                        ids.put(next, id);
+                        sets.add(next);
+                    }
+                    row[cls] = (char) (id + 1);
+                }
+                rows.add(row);
+            }
+            char[] table = new char[rows.size() * classes];
+            boolean[] accept = new boolean[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                System.arraycopy(rows.get(i), 0, table, i * classes, classes);
+                accept[i] = sets.get(i).get(accepting);
+            }
+            return new LinearPattern(pattern, anchoredEnd, bounds, ascii, table, accept);
+        }
+    }
+}
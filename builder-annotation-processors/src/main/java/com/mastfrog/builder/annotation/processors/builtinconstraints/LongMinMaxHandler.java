@@ -25,13 +25,16 @@ package com.mastfrog.builder.annotation.processors.builtinconstraints;
 
 import com.mastfrog.annotation.AnnotationUtils;
 import com.mastfrog.builder.annotation.processors.spi.ConstraintGenerator;
-import static com.mastfrog.builder.annotation.processors.spi.ConstraintGenerator.NULLABLE_ANNOTATION;
 import com.mastfrog.builder.annotation.processors.spi.ConstraintHandler;
 import com.mastfrog.java.vogon.ClassBuilder;
 import com.mastfrog.java.vogon.ClassBuilder.ComparisonBuilder;
 import com.mastfrog.java.vogon.ClassBuilder.IfBuilder;
 import com.mastfrog.java.vogon.ClassBuilder.ValueExpressionBuilder;
 import com.mastfrog.util.service.ServiceProvider;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.function.Consumer;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
@@ -47,15 +50,27 @@ public class LongMinMaxHandler implements ConstraintHandler {
 
     private static final String LONG_MIN = "com.mastfrog.builder.annotations.constraint.LongMin";
     private static final String LONG_MAX = "com.mastfrog.builder.annotations.constraint.LongMax";
+    private static final Set<String> HANDLED
+            = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(LONG_MIN, LONG_MAX)));
+
+    @Override
+    public Set<String> handledAnnotationTypes() {
+        return HANDLED;
+    }
 
     @Override
     public void collect(AnnotationUtils utils, Element targetElement, VariableElement parameterElement,
             Consumer<ConstraintGenerator> genConsumer) {
         AnnotationMirror min = utils.findAnnotationMirror(parameterElement, LONG_MIN);
         AnnotationMirror max = utils.findAnnotationMirror(parameterElement, LONG_MAX);
-        boolean nullable = utils.findAnnotationMirror(parameterElement, NULLABLE_ANNOTATION) != null;
+        boolean nullable = ConstraintGenerator.isNullable(utils, targetElement, parameterElement);
         if (min != null || max != null) {
             TypeMirror paramType = parameterElement.asType();
+            if ("long[]".equals(paramType.toString())) {
+                genConsumer.accept(ArrayElementRangeGenerator.create(parameterElement,
+                        utils, "long", Long.class, min, max, nullable));
+                return;
+            }
             boolean isBoxedLong = utils.isAssignable(paramType, Long.class.getName());
             boolean isPrimitiveLong = !isBoxedLong && utils.isAssignable(paramType, long.class.getName());
             boolean isNumber = !isBoxedLong && !isPrimitiveLong
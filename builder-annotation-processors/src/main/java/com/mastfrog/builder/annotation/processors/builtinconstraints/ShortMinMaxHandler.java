@@ -25,12 +25,15 @@ package com.mastfrog.builder.annotation.processors.builtinconstraints;
 
 import com.mastfrog.annotation.AnnotationUtils;
 import com.mastfrog.builder.annotation.processors.spi.ConstraintGenerator;
-import static com.mastfrog.builder.annotation.processors.spi.ConstraintGenerator.NULLABLE_ANNOTATION;
 import com.mastfrog.builder.annotation.processors.spi.ConstraintHandler;
 import com.mastfrog.java.vogon.ClassBuilder;
 import com.mastfrog.java.vogon.ClassBuilder.ComparisonBuilder;
 import com.mastfrog.java.vogon.ClassBuilder.IfBuilder;
 import com.mastfrog.util.service.ServiceProvider;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.function.Consumer;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
@@ -46,15 +49,27 @@ public class ShortMinMaxHandler implements ConstraintHandler {
 
     private static final String SHORT_MIN = "com.mastfrog.builder.annotations.constraint.ShortMin";
     private static final String SHORT_MAX = "com.mastfrog.builder.annotations.constraint.ShortMax";
+    private static final Set<String> HANDLED
+            = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(SHORT_MIN, SHORT_MAX)));
+
+    @Override
+    public Set<String> handledAnnotationTypes() {
+        return HANDLED;
+    }
 
     @Override
     public void collect(AnnotationUtils utils, Element targetElement, VariableElement parameterElement,
             Consumer<ConstraintGenerator> genConsumer) {
         AnnotationMirror min = utils.findAnnotationMirror(parameterElement, SHORT_MIN);
         AnnotationMirror max = utils.findAnnotationMirror(parameterElement, SHORT_MAX);
-        boolean nullable = utils.findAnnotationMirror(parameterElement, NULLABLE_ANNOTATION) != null;
+        boolean nullable = ConstraintGenerator.isNullable(utils, targetElement, parameterElement);
         if (min != null || max != null) {
             TypeMirror paramType = parameterElement.asType();
+            if ("short[]".equals(paramType.toString())) {
+                genConsumer.accept(ArrayElementRangeGenerator.create(parameterElement,
+                        utils, "short", Short.class, min, max, nullable));
+                return;
+            }
             boolean isBoxedShort = utils.isAssignable(paramType, Short.class.getName());
             boolean isPrimitiveShort = !isBoxedShort &&
                     utils.isAssignable(paramType, short.class.getName());
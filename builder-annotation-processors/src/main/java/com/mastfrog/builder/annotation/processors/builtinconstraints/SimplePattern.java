@@ -0,0 +1,502 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.annotation.processors.builtinconstraints;
+
+import com.mastfrog.java.vogon.ClassBuilder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.STATIC;
+
+/**
+ * A regular expression simple enough to be matched by a generated char loop
+ * instead of a <code>java.util.regex.Pattern</code> - a sequence of literal
+ * characters and positive character classes with greedy quantifiers,
+ * optionally anchored with <code>^</code> and <code>$</code>. Anything else
+ * (groups, alternation, <code>.</code>, negated classes, lazy or possessive
+ * quantifiers, flags, back references...) causes {@link #parse(String)} to
+ * return null and the caller to fall back to <code>Pattern</code>.
+ * <p>
+ * Since the generated code never backtracks, a pattern is also rejected if a
+ * variable-length element could give characters back to a following element
+ * (as in <code>[a-z]+a</code>), or to a trailing <code>$</code>, which also
+ * matches before a final line terminator (as in <code>\s?$</code>); for
+ * the patterns that are accepted, greedy matching without backtracking
+ * gives the same result as <code>Pattern.matcher(s).find()</code>.
+ * </p>
+ *
+ * @author Tim Boudreau
+ */
+final class SimplePattern {
+
+    private static final int UNBOUNDED = -1;
+    private static final Element LINE_TERMINATORS = new Element(
+            new char[]{'\n', '\n', '\r', '\r', 0x0085, 0x0085, 0x2028, 0x2029}, 1, 1);
+    private final String pattern;
+    private final boolean anchoredStart;
+    private final boolean anchoredEnd;
+    private final List<Element> elements;
+
+    private SimplePattern(String pattern, boolean anchoredStart, boolean anchoredEnd,
+            List<Element> elements) {
+        this.pattern = pattern;
+        this.anchoredStart = anchoredStart;
+        this.anchoredEnd = anchoredEnd;
+        this.elements = elements;
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+
+    boolean isAnchoredStart() {
+        return anchoredStart;
+    }
+
+    /**
+     * Parse a pattern, returning null if it uses any construct which cannot
+     * be matched by a simple loop.
+     *
+     * @param pattern A regular expression already known to be valid
+     * @return A SimplePattern or null
+     */
+    static SimplePattern parse(String pattern) {
+        String p = pattern;
+        boolean start = false;
+        boolean end = false;
+        if (p.startsWith("^")) {
+            start = true;
+            p = p.substring(1);
+        }
+        if (p.endsWith("$") && !escaped(p, p.length() - 1)) {
+            end = true;
+            p = p.substring(0, p.length() - 1);
+        }
+        List<Element> elements = new ArrayList<>();
+        int[] pos = new int[1];
+        while (pos[0] < p.length()) {
+            char[] ranges = parseAtom(p, pos);
+            if (ranges == null) {
+                return null;
+            }
+            int min = 1;
+            int max = 1;
+            if (pos[0] < p.length()) {
+                switch (p.charAt(pos[0])) {
+                    case '*':
+                        min = 0;
+                        max = UNBOUNDED;
+                        pos[0]++;
+                        break;
+                    case '+':
+                        max = UNBOUNDED;
+                        pos[0]++;
+                        break;
+                    case '?':
+                        min = 0;
+                        pos[0]++;
+                        break;
+                    case '{':
+                        int close = p.indexOf('}', pos[0]);
+                        if (close < 0) {
+                            return null;
+                        }
+                        String spec = p.substring(pos[0] + 1, close);
+                        int comma = spec.indexOf(',');
+                        try {
+                            if (comma < 0) {
+                                min = max = Integer.parseInt(spec);
+                            } else {
+                                min = Integer.parseInt(spec.substring(0, comma));
+                                String mx = spec.substring(comma + 1);
+                                max = mx.isEmpty() ? UNBOUNDED : Integer.parseInt(mx);
+                            }
+                        } catch (NumberFormatException ex) {
+                            return null;
+                        }
+                        pos[0] = close + 1;
+                        break;
+                    default:
+                        break;
+                }
+                if (pos[0] < p.length() && (p.charAt(pos[0]) == '?' || p.charAt(pos[0]) == '+')) {
+                    // Lazy or possessive quantifier
+                    return null;
+                }
+            }
+            if (max == 0) {
+                continue;
+            }
+            elements.add(new Element(ranges, min, max));
+        }
+        if (!isDeterministic(elements, end)) {
+            return null;
+        }
+        return new SimplePattern(pattern, start, end, elements);
+    }
+
+    private static boolean escaped(String p, int index) {
+        int count = 0;
+        for (int i = index - 1; i >= 0 && p.charAt(i) == '\\'; i--) {
+            count++;
+        }
+        return count % 2 == 1;
+    }
+
+    /**
+     * Greedy matching without backtracking is only correct if no element
+     * which consumes a variable number of characters can match a character
+     * that the next element to actually consume one could also match. With a
+     * trailing <code>$</code>, which also matches before a final line
+     * terminator, that includes any line terminator if nothing after the
+     * element must consume a character.
+     */
+    private static boolean isDeterministic(List<Element> elements, boolean anchoredEnd) {
+        for (int i = 0; i < elements.size(); i++) {
+            Element el = elements.get(i);
+            if (el.min == el.max) {
+                continue;
+            }
+            boolean last = true;
+            for (int j = i + 1; j < elements.size(); j++) {
+                Element next = elements.get(j);
+                if (el.intersects(next)) {
+                    return false;
+                }
+                if (next.min > 0) {
+                    last = false;
+                    break;
+                }
+            }
+            if (last && anchoredEnd && el.intersects(LINE_TERMINATORS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static char[] parseAtom(String p, int[] pos) {
+        char c = p.charAt(pos[0]++);
+        switch (c) {
+            case '[':
+                return parseCharClass(p, pos);
+            case '\\':
+                if (pos[0] >= p.length()) {
+                    return null;
+                }
+                return escape(p.charAt(pos[0]++));
+            case '.':
+            case '(':
+            case ')':
+            case '|':
+            case '*':
+            case '+':
+            case '?':
+            case '{':
+            case '}':
+            case '^':
+            case '$':
+                return null;
+            default:
+                return single(c);
+        }
+    }
+
+    private static char[] single(char c) {
+        if (Character.isSurrogate(c)) {
+            return null;
+        }
+        return new char[]{c, c};
+    }
+
+    private static char[] escape(char c) {
+        switch (c) {
+            case 'd':
+                return new char[]{'0', '9'};
+            case 'w':
+                return new char[]{'0', '9', 'A', 'Z', '_', '_', 'a', 'z'};
+            case 's':
+                return new char[]{'\t', '\r', ' ', ' '};
+            case 't':
+                return single('\t');
+            case 'n':
+                return single('\n');
+            case 'r':
+                return single('\r');
+            case 'f':
+                return single('\f');
+            default:
+                if (Character.isLetterOrDigit(c)) {
+                    // Negated classes, boundaries, back references,
+                    // quoting, unicode escapes and similar
+                    return null;
+                }
+                return single(c);
+        }
+    }
+
+    private static char[] parseCharClass(String p, int[] pos) {
+        if (pos[0] >= p.length() || p.charAt(pos[0]) == '^' || p.charAt(pos[0]) == ']') {
+            return null;
+        }
+        char[] result = new char[0];
+        while (pos[0] < p.length()) {
+            char c = p.charAt(pos[0]++);
+            char[] item;
+            switch (c) {
+                case ']':
+                    return normalize(result);
+                case '[':
+                    // Unions and intersections
+                    return null;
+                case '&':
+                    if (pos[0] < p.length() && p.charAt(pos[0]) == '&') {
+                        return null;
+                    }
+                    item = single(c);
+                    break;
+                case '\\':
+                    if (pos[0] >= p.length()) {
+                        return null;
+                    }
+                    item = escape(p.charAt(pos[0]++));
+                    break;
+                default:
+                    item = single(c);
+            }
+            if (item == null) {
+                return null;
+            }
+            if (item.length == 2 && item[0] == item[1] && pos[0] + 1 < p.length()
+                    && p.charAt(pos[0]) == '-' && p.charAt(pos[0] + 1) != ']') {
+                pos[0]++;
+                char upper = p.charAt(pos[0]++);
+                char[] end;
+                if (upper == '\\') {
+                    if (pos[0] >= p.length()) {
+                        return null;
+                    }
+                    end = escape(p.charAt(pos[0]++));
+                } else if (upper == '[') {
+                    return null;
+                } else {
+                    end = single(upper);
+                }
+                if (end == null || end.length != 2 || end[0] != end[1] || end[0] < item[0]) {
+                    return null;
+                }
+                item = new char[]{item[0], end[0]};
+            }
+            result = concat(result, item);
+        }
+        // Unterminated
+        return null;
+    }
+
+    private static char[] concat(char[] a, char[] b) {
+        char[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+
+    /**
+     * Sort and coalesce a set of ranges.
+     */
+    private static char[] normalize(char[] ranges) {
+        int count = ranges.length / 2;
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Character.compare(ranges[a * 2], ranges[b * 2]));
+        char[] result = new char[ranges.length];
+        int cursor = -2;
+        for (int ix : order) {
+            char lo = ranges[ix * 2];
+            char hi = ranges[ix * 2 + 1];
+            if (cursor >= 0 && lo <= result[cursor + 1] + 1) {
+                if (hi > result[cursor + 1]) {
+                    result[cursor + 1] = hi;
+                }
+            } else {
+                cursor += 2;
+                result[cursor] = lo;
+                result[cursor + 1] = hi;
+            }
+        }
+        return Arrays.copyOf(result, cursor + 2);
+    }
+
+    /**
+     * Add a static method which tests a CharSequence with the semantics of
+     * <code>Pattern.matcher(seq).find()</code>, and the static method it
+     * calls to test a single start position.
+     *
+     * @param bldr A class builder
+     * @param methodName The name of the method
+     */
+    <C> void generateMatchMethods(ClassBuilder<C> bldr, String methodName) {
+        String matchAt = methodName + "At";
+        bldr.method(methodName, mb -> {
+            mb.withModifier(PRIVATE, STATIC)
+                    .docComment("Equivalent to <code>Pattern.compile(\""
+                            + commentSafe(pattern)
+                            + "\").matcher(seq).find()</code> without allocating."
+                            + "\n@param seq A character sequence"
+                            + "\n@return true if it matches")
+                    .addArgument("CharSequence", "seq")
+                    .returning("boolean")
+                    .body(bb -> {
+                        bb.declare("len").initializedByInvoking("length").on("seq").as("int");
+                        if (anchoredStart) {
+                            bb.returning(matchAt + "(seq, 0, len)");
+                        } else {
+                            bb.forVar("_start", fv -> {
+                                fv.initializedWith(0).condition().lessThan()
+                                        .expression("len + 1").endCondition().running(loop -> {
+                                    loop.iff().booleanExpression(matchAt + "(seq, _start, len)")
+                                            .returning("true").endIf();
+                                });
+                            });
+                            bb.returning("false");
+                        }
+                    });
+        });
+        bldr.method(matchAt, mb -> {
+            mb.withModifier(PRIVATE, STATIC)
+                    .addArgument("CharSequence", "seq")
+                    .addArgument("int", "start")
+                    .addArgument("int", "len")
+                    .returning("boolean")
+                    .body(bb -> {
+                        bb.lineComment("Compiled from /" + commentSafe(pattern) + "/");
+                        bb.statement("int pos = start");
+                        for (int i = 0; i < elements.size(); i++) {
+                            elements.get(i).generate(bb, "_i" + i);
+                        }
+                        if (anchoredEnd) {
+                            // Pattern's $ also matches before a final line terminator
+                            bb.returning("pos == len"
+                                    + " || (pos == len - 1 && " + lineTerminatorTest("seq.charAt(pos)")
+                                    + " && !(pos > 0 && seq.charAt(pos) == '\\n' && seq.charAt(pos - 1) == '\\r'))"
+                                    + " || (pos == len - 2 && seq.charAt(pos) == '\\r' && seq.charAt(pos + 1) == '\\n')");
+                        } else {
+                            bb.returning("true");
+                        }
+                    });
+        });
+    }
+
+    static String lineTerminatorTest(String ch) {
+        return "(" + ch + " == '\\n' || " + ch + " == '\\r' || " + ch + " == 0x0085 || "
+                + ch + " == 0x2028 || " + ch + " == 0x2029)";
+    }
+
+    static String commentSafe(String s) {
+        return s.replace("\\", "\\\\").replace("\"", "\\\"")
+                .replace("\n", "\\n").replace("\r", "\\r").replace("*/", "*\\/");
+    }
+
+    private static final class Element {
+
+        private final char[] ranges;
+        private final int min;
+        private final int max;
+
+        Element(char[] ranges, int min, int max) {
+            this.ranges = ranges;
+            this.min = min;
+            this.max = max;
+        }
+
+        boolean intersects(Element other) {
+            for (int i = 0; i < ranges.length; i += 2) {
+                for (int j = 0; j < other.ranges.length; j += 2) {
+                    if (ranges[i] <= other.ranges[j + 1] && other.ranges[j] <= ranges[i + 1]) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        String test(String ch) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < ranges.length; i += 2) {
+                if (sb.length() > 0) {
+                    sb.append(" || ");
+                }
+                if (ranges[i] == ranges[i + 1]) {
+                    sb.append(ch).append(" == ").append(literal(ranges[i]));
+                } else {
+                    sb.append('(').append(ch).append(" >= ").append(literal(ranges[i]))
+                            .append(" && ").append(ch).append(" <= ")
+                            .append(literal(ranges[i + 1])).append(')');
+                }
+            }
+            return sb.toString();
+        }
+
+        private static String literal(char c) {
+            if (c >= ' ' && c < 127 && c != '\'' && c != '\\') {
+                return "'" + c + "'";
+            }
+            return Integer.toString(c);
+        }
+
+        <T, B extends ClassBuilder.BlockBuilderBase<T, B, X>, X> void generate(B bb, String counter) {
+            if (min == 1 && max == 1) {
+                bb.iff().booleanExpression("pos >= len || !(" + test("seq.charAt(pos)") + ")")
+                        .returning("false").endIf();
+                bb.statement("pos++");
+                return;
+            }
+            if (min > 0) {
+                bb.iff().booleanExpression("len - pos < " + min)
+                        .returning("false").endIf();
+                bb.forVar(counter, fv -> {
+                    fv.initializedWith(0).condition().lessThan()
+                            .expression(Integer.toString(min)).endCondition().running(loop -> {
+                        loop.statement("char c = seq.charAt(pos++)");
+                        loop.iff().booleanExpression("!(" + test("c") + ")")
+                                .returning("false").endIf();
+                    });
+                });
+            }
+            if (max != min) {
+                bb.forVar(counter, fv -> {
+                    fv.initializedWith(min).condition().lessThan()
+                            .expression(max == UNBOUNDED ? "len" : Integer.toString(max))
+                            .endCondition().running(loop -> {
+                                loop.iff().booleanExpression("pos >= len || !(" + test("seq.charAt(pos)") + ")")
+                                        .statement("break").endIf();
+                                loop.statement("pos++");
+                            });
+                });
+            }
+        }
+    }
+}
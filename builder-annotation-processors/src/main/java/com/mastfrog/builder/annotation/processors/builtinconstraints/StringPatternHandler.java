@@ -31,6 +31,8 @@ import com.mastfrog.java.vogon.ClassBuilder;
 import com.mastfrog.util.service.ServiceProvider;
 import com.mastfrog.util.strings.Escaper;
 import com.mastfrog.util.strings.Strings;
+import java.util.Collections;
+import java.util.Set;
 import java.util.function.Consumer;
 import java.util.regex.Pattern;
 import javax.lang.model.element.AnnotationMirror;
@@ -46,6 +48,12 @@ import javax.lang.model.element.VariableElement;
 public class StringPatternHandler implements ConstraintHandler {
 
     private static final String STRING_PATTERN = "com.mastfrog.builder.annotations.constraint.StringPattern";
+    private static final Set<String> HANDLED = Collections.singleton(STRING_PATTERN);
+
+    @Override
+    public Set<String> handledAnnotationTypes() {
+        return HANDLED;
+    }
 
     @Override
     public void collect(AnnotationUtils utils, Element targetElement, VariableElement parameterElement, Consumer<ConstraintGenerator> genConsumer) {
@@ -59,6 +67,12 @@ public class StringPatternHandler implements ConstraintHandler {
     static final class StringPatternConstraintGenerator implements ConstraintGenerator {
 
         private final Pattern pattern;
+        // Non-null if the pattern is simple enough to be matched by a
+        // generated loop, without Pattern and its per-call Matcher
+        private final SimplePattern compiled;
+        // Non-null if linear-time matching was requested and the pattern
+        // is not one the simple matcher handles in a single pass
+        private final LinearPattern linear;
         private final int minLength;
         private final int maxLength;
         private final String varName;
@@ -69,7 +83,7 @@ public class StringPatternHandler implements ConstraintHandler {
             this.varName = ve.getSimpleName().toString();
             String pat = utils.annotationValue(mir, "value", String.class, ".*");
             minLength = utils.annotationValue(mir, "minLength", Integer.class, 0);
-            maxLength = utils.annotationValue(mir, "maxLength", Integer.class, 0);
+            maxLength = utils.annotationValue(mir, "maxLength", Integer.class, Integer.MAX_VALUE);
             isSupplier = BigMinMaxHandler.isSupplierOf(utils, ve, String.class);
             if (pat != null && !".*".equals(pat) && !pat.isEmpty()) {
                 Pattern p = null;
@@ -79,8 +93,37 @@ public class StringPatternHandler implements ConstraintHandler {
                     utils.fail("Invalid regular expression '" + pat + "'", ve, mir);
                 }
                 pattern = p;
+                boolean linearTime = utils.annotationValue(mir, "linearTime", Boolean.class, false);
+                SimplePattern simple = p == null ? null : SimplePattern.parse(pat);
+                if (linearTime && simple != null && !simple.isAnchoredStart()) {
+                    // Tries each start position, so worst case is not O(n)
+                    simple = null;
+                }
+                compiled = simple;
+                LinearPattern lin = null;
+                if (p != null && simple == null) {
+                    if (linearTime) {
+                        try {
+                            lin = LinearPattern.compile(pat);
+                        } catch (LinearPattern.Unsupported ex) {
+                            utils.fail("Cannot match /" + pat + "/ in linear time: "
+                                    + ex.getMessage(), ve, mir);
+                        }
+                    } else {
+                        String risk = LinearPattern.backtrackingRisk(pat);
+                        if (risk != null) {
+                            utils.warn("Pattern /" + pat + "/ on " + varName
+                                    + " is at risk of catastrophic backtracking - "
+                                    + risk + ". Some inputs may take exponential "
+                                    + "time to validate; consider linearTime = true.", ve);
+                        }
+                    }
+                }
+                linear = lin;
             } else {
                 pattern = null;
+                compiled = null;
+                linear = null;
             }
             if (minLength > maxLength) {
                 utils.fail("Max length " + maxLength + " is less than min length "
@@ -105,7 +148,9 @@ public class StringPatternHandler implements ConstraintHandler {
         @Override
         public int weight() {
             int result = 0;
-            if (pattern != null) {
+            if (compiled != null || linear != null) {
+                result += 100;
+            } else if (pattern != null) {
                 result += 250;
             }
             if (minLength != 0) {
@@ -121,9 +166,21 @@ public class StringPatternHandler implements ConstraintHandler {
             return "_" + varName + "Pattern";
         }
 
+        private String matchMethodName() {
+            return "_" + varName + "Matches";
+        }
+
         @Override
         public <C> void decorateClass(ClassBuilder<C> bldr) {
-            if (pattern != null) {
+            if (compiled != null) {
+                if (!bldr.topLevel().containsMethodNamed(matchMethodName())) {
+                    compiled.generateMatchMethods(bldr.topLevel(), matchMethodName());
+                }
+            } else if (linear != null) {
+                if (!bldr.topLevel().containsMethodNamed(matchMethodName())) {
+                    linear.generateMatchMethods(bldr.topLevel(), matchMethodName());
+                }
+            } else if (pattern != null) {
                 bldr.importing(Pattern.class);
                 if (!bldr.topLevel().containsFieldNamed(patternVarName())) {
                     bldr.topLevel().field(patternVarName(), fb -> {
@@ -227,7 +284,23 @@ public class StringPatternHandler implements ConstraintHandler {
                             .endConcatenation().on(problemsListVariableName).endIf();
                 }
             }
-            if (pattern != null) {
+            if (compiled != null || linear != null) {
+                String value = isSupplier ? fieldVariableName + ".get()" : fieldVariableName;
+                applyNullCheck(fieldVariableName, bb.iff())
+                        .booleanExpression("!" + matchMethodName() + "(" + value + ")")
+                        .invoke(addMethodName)
+                        .withStringConcatentationArgument("Value of ")
+                        .append(parameterName)
+                        .append(" '")
+                        .appendExpression(fieldVariableName)
+                        .append("' does not match the pattern /")
+                        .append(pattern.pattern())
+                        .append('/')
+                        .append(": '").appendExpression(fieldVariableName).append('\'')
+                        .endConcatenation()
+                        .on(problemsListVariableName)
+                        .endIf();
+            } else if (pattern != null) {
                 if (isSupplier) {
                     applyNullCheck(fieldVariableName, bb.iff())
                             .invocationOf("find")
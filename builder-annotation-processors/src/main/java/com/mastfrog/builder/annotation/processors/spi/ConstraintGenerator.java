@@ -26,7 +26,11 @@ package com.mastfrog.builder.annotation.processors.spi;
 import com.mastfrog.annotation.AnnotationUtils;
 import com.mastfrog.builder.annotation.processors.BuilderAnnotationProcessor;
 import com.mastfrog.java.vogon.ClassBuilder;
+import java.util.Set;
 import java.util.function.Consumer;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.VariableElement;
 
 /**
  * A contraint on a builder parameter, which can generate validation code into
@@ -39,6 +43,34 @@ public interface ConstraintGenerator extends Comparable<ConstraintGenerator> {
 
     String NULLABLE_ANNOTATION = BuilderAnnotationProcessor.OPTIONALLY;
 
+    /**
+     * Determine whether the variable a constraint is applied to may be null
+     * in generated code - true for optional parameters unless they are
+     * primitives the builder stores unboxed.
+     *
+     * @param utils Annotation utils
+     * @param targetElement The constructor or method the builder is for
+     * @param parameterElement The parameter
+     * @return true if generated code should test for null before applying
+     * the constraint
+     */
+    static boolean isNullable(AnnotationUtils utils, Element targetElement,
+            VariableElement parameterElement) {
+        if (utils.findAnnotationMirror(parameterElement, NULLABLE_ANNOTATION) == null) {
+            return false;
+        }
+        if (!parameterElement.asType().getKind().isPrimitive()) {
+            return true;
+        }
+        AnnotationMirror gen = utils.findAnnotationMirror(targetElement,
+                BuilderAnnotationProcessor.ANNO);
+        if (gen == null) {
+            return true;
+        }
+        Set<String> styles = utils.enumConstantValues(gen, "styles", "CLOSURES");
+        return styles == null || !styles.contains("UNBOXED_OPTIONALS");
+    }
+
     /**
      * Generate a test into a method represented by the passed block builder. If
      * the test fails, call <code>addMethodName</code> on the object
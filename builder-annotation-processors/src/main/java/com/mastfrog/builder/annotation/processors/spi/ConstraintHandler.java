@@ -24,6 +24,8 @@
 package com.mastfrog.builder.annotation.processors.spi;
 
 import com.mastfrog.annotation.AnnotationUtils;
+import java.util.Collections;
+import java.util.Set;
 import java.util.function.Consumer;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.VariableElement;
@@ -36,6 +38,18 @@ import javax.lang.model.element.VariableElement;
  */
 public interface ConstraintHandler {
 
+    /**
+     * The fully qualified names of the annotation types this handler looks
+     * for on parameters.  If non-empty, the handler is only invoked for
+     * parameters that carry at least one of them; the default empty set means
+     * the handler is invoked for every parameter, as it always was.
+     *
+     * @return A set of annotation type names
+     */
+    default Set<String> handledAnnotationTypes() {
+        return Collections.emptySet();
+    }
+
     void collect(AnnotationUtils utils, Element targetElement,
             VariableElement parameterElement,
             Consumer<ConstraintGenerator> genConsumer);
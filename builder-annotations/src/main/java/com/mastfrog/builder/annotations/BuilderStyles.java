@@ -62,5 +62,105 @@ public enum BuilderStyles {
      * it.
      */
     PACKAGE_PRIVATE,
+    /**
+     * Use the same compile-time-checked API as the default (cartesian) style,
+     * but generate the intermediate builder types as interfaces implemented
+     * by a single mutable builder, so that a chain of setters allocates one
+     * object rather than one builder per call, each copying every value set
+     * so far. Ignored (with a warning) for types which need generic type
+     * parameters on their builder methods, and when <code>FLAT</code> is
+     * also present.
+     * <p>
+     * Since every intermediate type is the same object, a partly configured
+     * builder cannot be shared as a common prefix: given
+     * <code>b1 = builder.withA(a)</code>, calling <code>b1.withB(b)</code>
+     * and then <code>b1.withC(c)</code> sets both values on one builder,
+     * where with the default style, each call returns an independent copy.
+     * </p>
+     */
+    SINGLE_INSTANCE,
+    /**
+     * Keep compile-time checking that all required parameters are set, for
+     * any number of them, by requiring them to be set in the order they are
+     * declared: the builder's setter for the first required parameter returns
+     * an interface whose only required setter is for the second, and so on,
+     * with the setter for the last being a <code>buildWith</code> method.
+     * Optional parameters can be set at any stage. This generates one
+     * interface per required parameter, implemented by a single mutable
+     * builder as with <code>SINGLE_INSTANCE</code>, rather than the
+     * exponential number of types the default style needs, so unlike it, it
+     * can be used for types with more than ten required parameters. Ignored
+     * (with a warning) for types which need generic type parameters on their
+     * builder methods, and when <code>FLAT</code> is also present.
+     */
+    STAGED,
+    /**
+     * Use the default (cartesian) style, but only for as many required
+     * parameters as fit within the <code>classBudget</code> of the
+     * <code>&#064;GenerateBuilder</code> annotation, preferring ones marked
+     * with <code>&#064;CompileTimeChecked</code>, then ones declared first.
+     * The remaining required parameters can be set on every builder, like
+     * optional ones, and the <code>buildWith</code> methods throw an
+     * <code>IllegalStateException</code> if any of them has not been set.
+     * This keeps most of the compile-time safety of the default style for
+     * types with too many required parameters for it. Ignored when
+     * <code>FLAT</code> or <code>STAGED</code> is also present; takes
+     * precedence over <code>SINGLE_INSTANCE</code>.
+     */
+    HYBRID,
+    /**
+     * For cartesian builders, generate each intermediate builder as a
+     * top-level class in its own source file, next to the builder, rather
+     * than as a nested class of it, so no single generated source file grows
+     * with the number of required parameters. Intermediate builders are
+     * public unless <code>PACKAGE_PRIVATE</code> is also present. Raises the
+     * number of required parameters beyond which cartesian builders fall back
+     * to <code>FLAT</code> ones from 10 to 12. Ignored for other styles.
+     */
+    SEPARATE_FILES,
+    /**
+     * For <code>FLAT</code> builders, generate a static <code>pooled()</code>
+     * method which hands out a per-thread builder instance, which is reset and
+     * returned to the pool when <code>build()</code> succeeds - so code which
+     * builds many objects in a loop need not allocate a builder for each one.
+     * A pooled builder must not be used again after a successful
+     * <code>build()</code>; acquire another one. Every generated flat builder
+     * also gets a <code>reset()</code> method regardless of this style.
+     * Ignored (with a warning) for cartesian builders, builders for instance
+     * methods, and builders which need generic type parameters.
+     */
+    POOLED,
+    /**
+     * Store optional parameters of primitive types such as <code>int</code>
+     * in primitive fields, tracking whether each has been set with a bit in a
+     * mask, rather than as boxed objects which are null until set. Setters and
+     * build methods for such builders do not autobox. Setters for those
+     * parameters take the primitive type, so <code>null</code> cannot be
+     * passed to them, and <code>acceptNull</code> has no effect on them. At
+     * most 64 optional primitive parameters are supported in this mode.
+     */
+    UNBOXED_OPTIONALS,
+    /**
+     * For <code>FLAT</code> builders, generate a <code>tryBuild()</code>
+     * method which never throws because of invalid or missing parameters,
+     * returning a <code>BuildResult</code> which holds either the built object
+     * or the list of problems that prevented building it. So that invalid input
+     * can be handled without creating exceptions at all, setters in this style
+     * do not check constraints or throw on <code>null</code> - passing
+     * <code>null</code> is the same as not calling the setter - and every
+     * check is done by <code>build()</code> and <code>tryBuild()</code>.
+     * Setters which convert numbers to a narrower type still reject values
+     * which do not fit. Ignored (with a warning) for cartesian builders and
+     * builders for methods which return primitives.
+     */
+    TRY_BUILD,
+    /**
+     * For <code>FLAT</code> builders, stop checking parameters as soon as one
+     * problem is found, rather than collecting every problem to report - so
+     * rejecting invalid input costs no more than finding its first problem.
+     * Ignored (with a warning) for cartesian builders, whose setters always
+     * fail on the first problem.
+     */
+    FAIL_FAST,
     ;
 }
@@ -61,4 +61,15 @@ public @interface GenerateBuilder {
      * @return an integer
      */
     int codeGenerationVersion() default 1;
+
+    /**
+     * For builders generated with the <code>HYBRID</code> style, the maximum
+     * number of builder classes to generate. Enforcing <i>n</i> required
+     * parameters at compile time takes 2<sup>n</sup>-1 classes, so the number
+     * of parameters enforced is the largest which fits this budget (at least
+     * one); the presence of the rest is checked when building.
+     *
+     * @return A number of classes
+     */
+    int classBudget() default 64;
 }
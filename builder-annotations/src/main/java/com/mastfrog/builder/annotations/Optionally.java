@@ -93,6 +93,14 @@ public @interface Optionally {
      * <li><code>Locale</code> -- Locale.getDefault()</li>
      * <li><code>ZoneId</code> -- ZoneId.of("GMT")</li>
      * </ul>
+     * <p>
+     * Empty arrays, and defaults of immutable types such as
+     * <code>BigDecimal</code> or <code>ZoneId</code>, are created once and
+     * shared by every object built without the value. Defaults for interface
+     * collection types are the JDK's shared empty collections; defaults for
+     * mutable concrete types such as <code>ArrayList</code> are necessarily
+     * new instances.
+     * </p>
      *
      * @return Whether to pass null (where possible) or the logical null-value
      */
@@ -0,0 +1,58 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.annotations;
+
+/**
+ * How a generated builder treats array and collection arguments passed to its
+ * setters, with respect to who owns them afterwards.
+ *
+ * @see Ownership
+ * @author Tim Boudreau
+ */
+public enum OwnershipPolicy {
+    /**
+     * Make a defensive copy when the value is passed to the builder, so later
+     * changes by the caller cannot affect the built object. Arrays are copied
+     * with <code>Arrays.copyOf()</code>; <code>List</code> and
+     * <code>Collection</code> into an <code>ArrayList</code>,
+     * <code>Set</code> into a <code>LinkedHashSet</code> and
+     * <code>Map</code> into a <code>LinkedHashMap</code>.
+     */
+    COPY,
+    /**
+     * Take ownership of the passed value and use it as-is, with no copy. The
+     * caller promises not to modify it afterwards. Use this for large arrays
+     * that go straight into the constructed object, where a copy per build
+     * would be pure overhead.
+     */
+    TRUST,
+    /**
+     * Collections are copied into an unmodifiable collection - unless they are
+     * empty, or are already one of the JDK's immutable collections as
+     * returned by <code>List.of()</code>, <code>Set.of()</code> or
+     * <code>Map.of()</code>, in which case no copy is made. Arrays cannot be
+     * made immutable, so for arrays this is the same as <code>COPY</code>.
+     */
+    FREEZE;
+}
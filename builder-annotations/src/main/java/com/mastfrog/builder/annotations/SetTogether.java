@@ -0,0 +1,57 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.annotations;
+
+import static java.lang.annotation.ElementType.PARAMETER;
+import java.lang.annotation.Retention;
+import static java.lang.annotation.RetentionPolicy.CLASS;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a required parameter as belonging to a group of parameters which are
+ * always set together, such as a host and port. All parameters of a
+ * constructor or method annotated with the same group name form one group.
+ * <p>
+ * In the default (cartesian) style, a group is set with a single method which
+ * takes all of its parameters in declaration order - e.g.
+ * <code>withHostAndPort(host, port)</code> - and counts as a single required
+ * parameter when determining the set of intermediate builder classes to
+ * generate, which halves their number for every parameter grouped with
+ * another. Other styles ignore groups and generate one setter per parameter;
+ * groups cannot contain optional parameters.
+ * </p>
+ *
+ * @author Tim Boudreau
+ */
+@Retention(CLASS)
+@Target(PARAMETER)
+public @interface SetTogether {
+
+    /**
+     * The name of the group, shared by every parameter in it.
+     *
+     * @return A name
+     */
+    String value();
+}
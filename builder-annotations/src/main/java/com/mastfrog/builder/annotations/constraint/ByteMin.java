@@ -30,12 +30,13 @@ import java.lang.annotation.Target;
 
 /**
  * <i>Inclusive</i> minimum byte value.
+ * When applied to an array, every element is checked.
  * 
  * @author Tim Boudreau
  */
 @Retention(CLASS)
 @Target(PARAMETER)
-@AppliesTo({Byte.class, byte.class})
+@AppliesTo({Byte.class, byte.class, byte[].class})
 public @interface ByteMin {
 
     byte value();
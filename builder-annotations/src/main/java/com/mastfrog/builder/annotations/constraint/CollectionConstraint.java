@@ -74,8 +74,8 @@ public @interface CollectionConstraint {
     boolean forbidNullValues() default false;
 
     /**
-     * Check the type of all elements to be assignable to this type, if
-     * specified as something other than java.lang.Object. This allows for
+     * Check the type of all elements (the values, for maps) to be assignable
+     * to this type, if specified as something other than java.lang.Object. This allows for
      * applying the &064;SafeVarags annotation since builder setters for arrays
      * use varargs, and allows for the creation of generic arrays without a
      * <i>Generic array creation</i> error.
@@ -86,4 +86,14 @@ public @interface CollectionConstraint {
      * @return A type to check against
      */
     Class<?> checked() default Object.class;
+
+    /**
+     * For collections and maps, the size at or above which null and type
+     * checks of elements are performed using a parallel stream; the
+     * collection is then scanned serially only if a problem is found, to
+     * describe it. By default, scans are always serial.
+     *
+     * @return A size
+     */
+    int parallelThreshold() default Integer.MAX_VALUE;
 }
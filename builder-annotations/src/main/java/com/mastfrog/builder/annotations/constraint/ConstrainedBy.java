@@ -23,18 +23,32 @@
  */
 package com.mastfrog.builder.annotations.constraint;
 
+import static java.lang.annotation.ElementType.PARAMETER;
 import java.lang.annotation.Retention;
 import static java.lang.annotation.RetentionPolicy.RUNTIME;
+import java.lang.annotation.Target;
 import java.util.Optional;
 import java.util.function.Function;
 
 /**
  * Allows a custom constraint to be plugged in. The constraint class must be
  * accessible on the class path and have a default, no-arg constructor.
+ * A single instance of it is created per generated builder class, so it
+ * should be stateless; it is not passed null values of optional parameters.
+ * Return <code>Optional.empty()</code> if the value is valid; returning null
+ * is treated as a bug in the constraint, and throws an
+ * IllegalStateException.
+ * <p>
+ * Primitive values are boxed to pass them to the function, so for
+ * primitive parameters each check may allocate - for example, an
+ * <code>int</code> outside the range cached by <code>Integer.valueOf()</code>.
+ * Prefer the built-in min and max constraints where they suffice.
+ * </p>
  *
  * @author Tim Boudreau
  */
 @Retention(RUNTIME)
+@Target(PARAMETER)
 public @interface ConstrainedBy {
 
     /**
@@ -43,4 +57,13 @@ public @interface ConstrainedBy {
      * @return The type of function which will constrain this value
      */
     Class<? extends Function<?, Optional<String>>> value();
+
+    /**
+     * The relative cost of running the constraint; constraints with a weight
+     * of 500 or more are run after all others, and only if none of those
+     * found a problem - use that for expensive checks.
+     *
+     * @return A weight
+     */
+    int weight() default 0;
 }
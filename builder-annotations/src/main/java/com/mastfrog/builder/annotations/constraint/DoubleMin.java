@@ -30,12 +30,13 @@ import java.lang.annotation.Target;
 
 /**
  * <i>Inclusive</i> minimum double value.
+ * When applied to an array, every element is checked.
  *
  * @author Tim Boudreau
  */
 @Retention(CLASS)
 @Target(PARAMETER)
-@AppliesTo({Double.class, double.class, Number.class})
+@AppliesTo({Double.class, double.class, double[].class, Number.class})
 public @interface DoubleMin {
 
     double value();
@@ -30,12 +30,13 @@ import java.lang.annotation.Target;
 
 /**
  * <i>Inclusive</i> minimum float value.
+ * When applied to an array, every element is checked.
  *
  * @author Tim Boudreau
  */
 @Retention(CLASS)
 @Target(PARAMETER)
-@AppliesTo({Float.class, float.class})
+@AppliesTo({Float.class, float.class, float[].class})
 public @interface FloatMin {
 
     float value();
@@ -31,6 +31,7 @@ import java.lang.annotation.Target;
 
 /**
  * <i>Inclusive</i> maximum int value.
+ * When applied to an array, every element is checked.
  *
  * @author Tim Boudreau
  */
@@ -30,6 +30,7 @@ import java.lang.annotation.Target;
 
 /**
  * <i>Inclusive</i> minimum int value.
+ * When applied to an array, every element is checked.
  *
  * @author Tim Boudreau
  */
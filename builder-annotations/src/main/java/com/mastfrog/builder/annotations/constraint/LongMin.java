@@ -31,12 +31,13 @@ import java.lang.annotation.Target;
 
 /**
  * <i>Inclusive</i> minimum int value.
+ * When applied to an array, every element is checked.
  *
  * @author Tim Boudreau
  */
 @Retention(CLASS)
 @Target(PARAMETER)
-@AppliesTo({Long.class, long.class, Number.class})
+@AppliesTo({Long.class, long.class, long[].class, Number.class})
 public @interface LongMin {
 
     long value();
@@ -30,12 +30,13 @@ import java.lang.annotation.Target;
 
 /**
  * <i>Inclusive</i> maximum short value.
+ * When applied to an array, every element is checked.
  *
  * @author Tim Boudreau
  */
 @Retention(CLASS)
 @Target(PARAMETER)
-@AppliesTo({Short.class, short.class})
+@AppliesTo({Short.class, short.class, short[].class})
 public @interface ShortMax {
 
     short value();
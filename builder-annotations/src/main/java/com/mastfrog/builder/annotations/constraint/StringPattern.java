@@ -61,4 +61,23 @@ public @interface StringPattern {
      * equal to minLiength() if specified.
      */
     int maxLength() default Integer.MAX_VALUE;
+
+    /**
+     * If true, validate with a matcher generated at compile time which runs
+     * in time linear in the length of the input and never backtracks, rather
+     * than with <code>java.util.regex.Pattern</code>, so no input can make
+     * validation pathologically slow. Patterns using constructs which cannot
+     * be matched that way - back references, lookaround, atomic groups,
+     * possessive quantifiers, inline flags, or anchors other than
+     * <code>^</code> at the start and <code>$</code> at the end - cause a
+     * compile error. Characters outside the basic multilingual plane are
+     * matched as two UTF-16 chars.
+     * <p>
+     * Patterns at risk of catastrophic backtracking cause a compile-time
+     * warning when this is not set.
+     * </p>
+     *
+     * @return Whether to use a linear-time matcher
+     */
+    boolean linearTime() default false;
 }
@@ -0,0 +1,113 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.benchmarks;
+
+import com.timboudreau.bugdemo.attribution.bug.demo.BuilderBuilderDemo;
+import com.timboudreau.bugdemo.attribution.bug.demo.Thing;
+import com.timboudreau.bugdemo.attribution.bug.demo.ThingBuilder;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures building an object through a full chain of setters. Run with
+ * <code>-prof gc</code> to see the allocation per build, which is where the
+ * builder styles differ: a cartesian builder allocates a new builder, with a
+ * copy of every value set so far, for each setter, while a
+ * <code>SINGLE_INSTANCE</code> builder allocates one.
+ *
+ * @author Tim Boudreau
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BuilderBenchmark {
+
+    private static final Instant WHEN = Instant.parse("2022-10-17T00:00:00Z");
+    private final Thing thing = new ThingBuilder()
+            .withShortValue((short) 30)
+            .withStringValue("thing")
+            .build();
+    private final List<StringBuilder> emmm = Arrays.asList(
+            new StringBuilder("foo"), new StringBuilder("bar"), new StringBuilder("baz"));
+    private final AtomicInteger tee = new AtomicInteger(5);
+    private final int[] ints = {6, 7, 8, 9, 10, 11};
+
+    /**
+     * BuilderBuilderDemo itself; its builder methods need type parameters,
+     * so it always gets a cartesian builder.
+     */
+    @Benchmark
+    public BuilderBuilderDemo<AtomicInteger, Instant, StringBuilder> demo() throws Exception {
+        return BuilderBuilderDemo.builder()
+                .withName("1234_1234_1234_1234_1234")
+                .withCount(23)
+                .withIntArray(ints)
+                .withTType(AtomicInteger.class)
+                .withTheTee(tee)
+                .<Instant>withTheR(WHEN)
+                .withEmmm(emmm)
+                .buildWithThing(thing);
+    }
+
+    @Benchmark
+    public CartesianDemo cartesian() {
+        return new CartesianDemoBuilder()
+                .withName("1234_1234_1234_1234_1234")
+                .withCount(23)
+                .withIntArray(ints)
+                .withTType(AtomicInteger.class)
+                .withTheTee(tee)
+                .withTheR(WHEN)
+                .withEmmm(emmm)
+                .buildWithThing(thing);
+    }
+
+    @Benchmark
+    public SingleInstanceDemo singleInstance() {
+        return new SingleInstanceDemoBuilder()
+                .withName("1234_1234_1234_1234_1234")
+                .withCount(23)
+                .withIntArray(ints)
+                .withTType(AtomicInteger.class)
+                .withTheTee(tee)
+                .withTheR(WHEN)
+                .withEmmm(emmm)
+                .buildWithThing(thing);
+    }
+}
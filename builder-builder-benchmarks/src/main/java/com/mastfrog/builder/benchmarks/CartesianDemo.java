@@ -0,0 +1,74 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.benchmarks;
+
+import com.mastfrog.builder.annotations.GenerateBuilder;
+import com.mastfrog.builder.annotations.constraint.CollectionConstraint;
+import com.mastfrog.builder.annotations.constraint.IntMax;
+import com.mastfrog.builder.annotations.constraint.IntMin;
+import com.mastfrog.builder.annotations.constraint.LongMax;
+import com.mastfrog.builder.annotations.constraint.LongMin;
+import com.mastfrog.builder.annotations.constraint.StringPattern;
+import com.timboudreau.bugdemo.attribution.bug.demo.Thing;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * BuilderBuilderDemo with its type parameters replaced by concrete types, so
+ * the same parameters can be compared across builder styles; this one uses
+ * the default (cartesian) style, as BuilderBuilderDemo does.
+ *
+ * @author Tim Boudreau
+ */
+public final class CartesianDemo {
+
+    final long count;
+    final Instant theR;
+    final String name;
+    final Number theTee;
+    final Class<? extends Number> tType;
+    final Thing thing;
+    final List<StringBuilder> emmm;
+    final int[] intArray;
+
+    @GenerateBuilder
+    CartesianDemo(
+            Class<? extends Number> tType,
+            Number theTee,
+            @StringPattern(maxLength = 24, minLength = 24, value = "^[\\d_]+$") String name,
+            Instant theR,
+            @LongMax(53) @LongMin(1) long count,
+            Thing thing,
+            @CollectionConstraint(minSize = 3, maxSize = 16, forbidNullValues = true) List<StringBuilder> emmm,
+            @IntMin(5) @IntMax(123) int[] intArray) {
+        this.tType = tType;
+        this.theTee = theTee;
+        this.name = name;
+        this.theR = theR;
+        this.count = count;
+        this.thing = thing;
+        this.emmm = emmm;
+        this.intArray = intArray;
+    }
+}
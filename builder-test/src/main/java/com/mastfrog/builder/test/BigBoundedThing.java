@@ -0,0 +1,57 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.test;
+
+import com.mastfrog.builder.annotations.BuilderStyles;
+import com.mastfrog.builder.annotations.GenerateBuilder;
+import com.mastfrog.builder.annotations.constraint.BigMax;
+import com.mastfrog.builder.annotations.constraint.BigMin;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.function.Supplier;
+
+/**
+ * Exercises each way a BigMin or BigMax bound can be tested - against zero,
+ * with long arithmetic, and against a precomputed constant.
+ *
+ * @author Tim Boudreau
+ */
+public class BigBoundedThing {
+
+    public final BigDecimal amount;
+    public final BigInteger count;
+    public final BigInteger huge;
+    public final Supplier<BigDecimal> rate;
+
+    @GenerateBuilder(styles = BuilderStyles.FLAT)
+    public BigBoundedThing(@BigMin("0") @BigMax("1000000.50") BigDecimal amount,
+            @BigMin("-5") @BigMax("9000000000") BigInteger count,
+            @BigMax("99999999999999999999") BigInteger huge,
+            @BigMin("1.5") Supplier<BigDecimal> rate) {
+        this.amount = amount;
+        this.count = count;
+        this.huge = huge;
+        this.rate = rate;
+    }
+}
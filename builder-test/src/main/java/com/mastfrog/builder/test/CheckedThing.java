@@ -0,0 +1,79 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.test;
+
+import com.mastfrog.builder.annotations.BuilderStyles;
+import com.mastfrog.builder.annotations.GenerateBuilder;
+import com.mastfrog.builder.annotations.constraint.IntMax;
+import com.mastfrog.builder.annotations.constraint.IntMin;
+
+/**
+ * A flat builder with enough constraints that the checks its build() runs
+ * are split across several methods.
+ *
+ * @author Tim Boudreau
+ */
+public class CheckedThing {
+
+    public final int a0;
+    public final int a1;
+    public final int a2;
+    public final int a3;
+    public final int a4;
+    public final int a5;
+    public final int a6;
+    public final int a7;
+    public final int a8;
+    public final int a9;
+    public final int a10;
+    public final int a11;
+
+    @GenerateBuilder(styles = {BuilderStyles.FLAT, BuilderStyles.TRY_BUILD})
+    public CheckedThing(
+            @IntMin(0) @IntMax(100) int a0,
+            @IntMin(0) @IntMax(100) int a1,
+            @IntMin(0) @IntMax(100) int a2,
+            @IntMin(0) @IntMax(100) int a3,
+            @IntMin(0) @IntMax(100) int a4,
+            @IntMin(0) @IntMax(100) int a5,
+            @IntMin(0) @IntMax(100) int a6,
+            @IntMin(0) @IntMax(100) int a7,
+            @IntMin(0) @IntMax(100) int a8,
+            @IntMin(0) @IntMax(100) int a9,
+            @IntMin(0) @IntMax(100) int a10,
+            @IntMin(0) @IntMax(100) int a11) {
+        this.a0 = a0;
+        this.a1 = a1;
+        this.a2 = a2;
+        this.a3 = a3;
+        this.a4 = a4;
+        this.a5 = a5;
+        this.a6 = a6;
+        this.a7 = a7;
+        this.a8 = a8;
+        this.a9 = a9;
+        this.a10 = a10;
+        this.a11 = a11;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.test;
+
+import com.mastfrog.builder.annotations.GenerateBuilder;
+import com.mastfrog.builder.annotations.Optionally;
+import com.mastfrog.builder.annotations.SetTogether;
+import com.mastfrog.builder.annotations.constraint.IntMin;
+
+/**
+ * Has required parameters which are always set in pairs, to test
+ * <code>&#064;SetTogether</code> groups.
+ *
+ * @author Tim Boudreau
+ */
+public class GroupedThing {
+
+    public final String name;
+    public final String host;
+    public final int port;
+    public final double lat;
+    public final double lon;
+    public final String note;
+
+    @GenerateBuilder
+    public GroupedThing(String name,
+            @SetTogether("address") String host,
+            @SetTogether("address") @IntMin(1) int port,
+            @SetTogether("location") double lat,
+            @SetTogether("location") double lon,
+            @Optionally String note) {
+        this.name = name;
+        this.host = host;
+        this.port = port;
+        this.lat = lat;
+        this.lon = lon;
+        this.note = note;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.test;
+
+import com.mastfrog.builder.annotations.BuilderStyles;
+import com.mastfrog.builder.annotations.CompileTimeChecked;
+import com.mastfrog.builder.annotations.GenerateBuilder;
+import com.mastfrog.builder.annotations.Optionally;
+import com.mastfrog.builder.annotations.constraint.IntMin;
+
+/**
+ * Has too many required parameters for a cartesian builder, to test the
+ * HYBRID style with a class budget which allows three of them to be enforced
+ * at compile time.
+ *
+ * @author Tim Boudreau
+ */
+public class HybridThing {
+
+    public final String p0;
+    public final int p1;
+    public final long p2;
+    public final boolean p3;
+    public final String p4;
+    public final int p5;
+    public final long p6;
+    public final boolean p7;
+    public final String p8;
+    public final int p9;
+    public final long p10;
+    public final boolean p11;
+    public final String note;
+    public final int extra;
+
+    @GenerateBuilder(styles = BuilderStyles.HYBRID, classBudget = 7)
+    public HybridThing(String p0,
+            @IntMin(1) int p1,
+            long p2,
+            boolean p3,
+            String p4,
+            @CompileTimeChecked int p5,
+            long p6,
+            boolean p7,
+            String p8,
+            @CompileTimeChecked int p9,
+            long p10,
+            boolean p11,
+            @Optionally String note,
+            @Optionally(numericDefault = 5) int extra) {
+        this.p0 = p0;
+        this.p1 = p1;
+        this.p2 = p2;
+        this.p3 = p3;
+        this.p4 = p4;
+        this.p5 = p5;
+        this.p6 = p6;
+        this.p7 = p7;
+        this.p8 = p8;
+        this.p9 = p9;
+        this.p10 = p10;
+        this.p11 = p11;
+        this.note = note;
+        this.extra = extra;
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.test;
+
+import com.mastfrog.builder.annotations.BuilderStyles;
+import com.mastfrog.builder.annotations.GenerateBuilder;
+import com.mastfrog.builder.annotations.Optionally;
+import com.mastfrog.builder.annotations.Ownership;
+import static com.mastfrog.builder.annotations.OwnershipPolicy.COPY;
+import static com.mastfrog.builder.annotations.OwnershipPolicy.FREEZE;
+import static com.mastfrog.builder.annotations.OwnershipPolicy.TRUST;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ *
+ * @author Tim Boudreau
+ */
+public class OwnedThing {
+
+    public final byte[] payload;
+    public final int[] copied;
+    public final List<String> frozenList;
+    public final Set<String> frozenSet;
+    public final Map<String, Integer> copiedMap;
+    public final List<String> trustedList;
+
+    @GenerateBuilder(styles = BuilderStyles.FLAT)
+    public OwnedThing(@Ownership(TRUST) byte[] payload,
+            int[] copied,
+            @Ownership(FREEZE) List<String> frozenList,
+            @Optionally(acceptNull = true) @Ownership(FREEZE) Set<String> frozenSet,
+            @Ownership(COPY) Map<String, Integer> copiedMap,
+            List<String> trustedList) {
+        this.payload = payload;
+        this.copied = copied;
+        this.frozenList = frozenList;
+        this.frozenSet = frozenSet;
+        this.copiedMap = copiedMap;
+        this.trustedList = trustedList;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.test;
+
+import com.mastfrog.builder.annotations.BuilderStyles;
+import com.mastfrog.builder.annotations.GenerateBuilder;
+import com.mastfrog.builder.annotations.constraint.StringPattern;
+
+/**
+ * Exercises patterns which can be compiled to loops, one which needs a real
+ * Pattern, and ones matched in linear time.
+ *
+ * @author Tim Boudreau
+ */
+public class PatternedThing {
+
+    public static final String DIGITS = "^[\\d_]+$";
+    public static final String WORD = "[a-z]+";
+    public static final String CODE = "^\\w{2}-\\s*x$";
+    public static final String BACKTRACKING = "[a-z]+a";
+    // Exponential for a backtracking matcher, given a long run of word
+    // characters followed by something else
+    public static final String REDOS = "^(\\w+\\s?)*$";
+    public static final String ALTERNATION = "(ab|a)+c";
+    // $ also matches before a final line terminator, which \s? could take
+    public static final String TRAILING = "^\\s?[a\\-z]*$";
+
+    public final String digits;
+    public final String word;
+    public final String code;
+    public final String backtracking;
+    public final String redos;
+    public final String alternation;
+    public final String trailing;
+
+    @GenerateBuilder(styles = BuilderStyles.FLAT)
+    public PatternedThing(@StringPattern(DIGITS) String digits,
+            @StringPattern(WORD) String word,
+            @StringPattern(CODE) String code,
+            @StringPattern(BACKTRACKING) String backtracking,
+            @StringPattern(value = REDOS, linearTime = true) String redos,
+            @StringPattern(value = ALTERNATION, linearTime = true) String alternation,
+            @StringPattern(TRAILING) String trailing) {
+        this.digits = digits;
+        this.word = word;
+        this.code = code;
+        this.backtracking = backtracking;
+        this.redos = redos;
+        this.alternation = alternation;
+        this.trailing = trailing;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.test;
+
+import com.mastfrog.builder.annotations.BuilderStyles;
+import com.mastfrog.builder.annotations.GenerateBuilder;
+import com.mastfrog.builder.annotations.Optionally;
+import com.mastfrog.builder.annotations.constraint.ByteMax;
+import com.mastfrog.builder.annotations.constraint.ByteMin;
+import com.mastfrog.builder.annotations.constraint.DoubleMax;
+import com.mastfrog.builder.annotations.constraint.DoubleMin;
+import com.mastfrog.builder.annotations.constraint.FloatMax;
+import com.mastfrog.builder.annotations.constraint.FloatMin;
+import com.mastfrog.builder.annotations.constraint.IntMax;
+import com.mastfrog.builder.annotations.constraint.IntMin;
+import com.mastfrog.builder.annotations.constraint.LongMax;
+import com.mastfrog.builder.annotations.constraint.LongMin;
+import com.mastfrog.builder.annotations.constraint.ShortMax;
+import com.mastfrog.builder.annotations.constraint.ShortMin;
+
+/**
+ * Element range constraints on each primitive array type.
+ *
+ * @author Tim Boudreau
+ */
+public class RangedArrays {
+
+    public final int[] ints;
+    public final long[] longs;
+    public final short[] shorts;
+    public final byte[] bytes;
+    public final float[] floats;
+    public final double[] doubles;
+
+    @GenerateBuilder(styles = BuilderStyles.FLAT)
+    public RangedArrays(@IntMin(-10) @IntMax(10) int[] ints,
+            @LongMin(-5_000_000_000L) long[] longs,
+            @ShortMax(1000) short[] shorts,
+            @ByteMin(0) @ByteMax(100) byte[] bytes,
+            @FloatMin(0F) @FloatMax(1F) float[] floats,
+            @Optionally @DoubleMin(-1.5) @DoubleMax(1.5) double[] doubles) {
+        this.ints = ints;
+        this.longs = longs;
+        this.shorts = shorts;
+        this.bytes = bytes;
+        this.floats = floats;
+        this.doubles = doubles;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.test;
+
+import com.mastfrog.builder.annotations.BuilderStyles;
+import com.mastfrog.builder.annotations.GenerateBuilder;
+import com.mastfrog.builder.annotations.Ownership;
+import static com.mastfrog.builder.annotations.OwnershipPolicy.FREEZE;
+import com.mastfrog.builder.annotations.constraint.CollectionConstraint;
+import com.mastfrog.builder.annotations.constraint.StringPattern;
+import java.util.List;
+
+/**
+ * Has constrained parameters whose values can and cannot change after they are
+ * set, to test which ones build() validates again.
+ *
+ * @author Tim Boudreau
+ */
+public class RevalidatedThing {
+
+    public final String name;
+    public final String[] tags;
+    public final List<String> trusted;
+    public final List<String> frozen;
+
+    @GenerateBuilder(styles = BuilderStyles.FLAT)
+    public RevalidatedThing(@StringPattern("[a-z]+") String name,
+            @CollectionConstraint(forbidNullValues = true, maxSize = 3) String[] tags,
+            @CollectionConstraint(forbidNullValues = true) List<String> trusted,
+            @Ownership(FREEZE) @CollectionConstraint(forbidNullValues = true) List<String> frozen) {
+        this.name = name;
+        this.tags = tags;
+        this.trusted = trusted;
+        this.frozen = frozen;
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.test;
+
+import com.mastfrog.builder.annotations.BuilderStyles;
+import com.mastfrog.builder.annotations.GenerateBuilder;
+import com.mastfrog.builder.annotations.Optionally;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ *
+ * @author Tim Boudreau
+ */
+public class SharedDefaults {
+
+    public final String name;
+    public final BigDecimal amount;
+    public final BigInteger count;
+    public final Duration timeout;
+    public final int[] ints;
+    public final String[] names;
+    public final List<String> list;
+
+    @GenerateBuilder(styles = BuilderStyles.FLAT)
+    public SharedDefaults(String name,
+            @Optionally(stringDefault = "1.25") BigDecimal amount,
+            @Optionally(numericDefault = 12) BigInteger count,
+            @Optionally(stringDefault = "PT5S") Duration timeout,
+            @Optionally(defaulted = true) int[] ints,
+            @Optionally(defaulted = true) String[] names,
+            @Optionally(defaulted = true) List<String> list) {
+        this.name = name;
+        this.amount = amount;
+        this.count = count;
+        this.timeout = timeout;
+        this.ints = ints;
+        this.names = names;
+        this.list = list;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.test;
+
+import com.mastfrog.builder.annotations.BuilderStyles;
+import com.mastfrog.builder.annotations.GenerateBuilder;
+import com.mastfrog.builder.annotations.Optionally;
+import com.mastfrog.builder.annotations.constraint.CollectionConstraint;
+import com.mastfrog.builder.annotations.constraint.ConstrainedBy;
+import com.mastfrog.builder.annotations.constraint.IntMax;
+import com.mastfrog.builder.annotations.constraint.IntMin;
+import com.mastfrog.builder.annotations.constraint.StringPattern;
+import java.util.List;
+
+/**
+ * Builds without throwing on invalid input.
+ *
+ * @author Tim Boudreau
+ */
+public class TryBuildThing {
+
+    public final String name;
+    public final int level;
+    public final List<String> tags;
+    public final String note;
+    public final String code;
+
+    @GenerateBuilder(styles = {BuilderStyles.FLAT, BuilderStyles.TRY_BUILD})
+    public TryBuildThing(@StringPattern("[a-z]+") String name,
+            @IntMin(1) @IntMax(10) int level,
+            @CollectionConstraint(forbidNullValues = true, minSize = 1) List<String> tags,
+            @Optionally @StringPattern("[A-Z]+") String note,
+            @Optionally @ConstrainedBy(value = ValidatedThing.Broken.class, weight = 400) String code) {
+        this.name = name;
+        this.level = level;
+        this.tags = tags;
+        this.note = note;
+        this.code = code;
+    }
+}
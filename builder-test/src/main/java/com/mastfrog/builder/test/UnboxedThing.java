@@ -0,0 +1,59 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.test;
+
+import com.mastfrog.builder.annotations.BuilderStyles;
+import com.mastfrog.builder.annotations.GenerateBuilder;
+import com.mastfrog.builder.annotations.Optionally;
+import com.mastfrog.builder.annotations.constraint.IntMin;
+import com.mastfrog.builder.annotations.constraint.LongMax;
+
+/**
+ *
+ * @author Tim Boudreau
+ */
+public class UnboxedThing {
+
+    public final String name;
+    public final long id;
+    public final long count;
+    public final int level;
+    public final double ratio;
+    public final boolean enabled;
+
+    @GenerateBuilder(styles = {BuilderStyles.FLAT, BuilderStyles.UNBOXED_OPTIONALS})
+    public UnboxedThing(String name,
+            long id,
+            @LongMax(1_000_000) @Optionally(numericDefault = 7) long count,
+            @IntMin(1) @Optionally(numericDefault = 2) int level,
+            @Optionally double ratio,
+            @Optionally(booleanDefault = true) boolean enabled) {
+        this.name = name;
+        this.id = id;
+        this.count = count;
+        this.level = level;
+        this.ratio = ratio;
+        this.enabled = enabled;
+    }
+}
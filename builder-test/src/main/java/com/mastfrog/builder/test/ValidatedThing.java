@@ -0,0 +1,120 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.test;
+
+import com.mastfrog.builder.annotations.BuilderStyles;
+import com.mastfrog.builder.annotations.GenerateBuilder;
+import com.mastfrog.builder.annotations.Optionally;
+import com.mastfrog.builder.annotations.constraint.CollectionConstraint;
+import com.mastfrog.builder.annotations.constraint.ConstrainedBy;
+import com.mastfrog.builder.annotations.constraint.IntMin;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Parameters checked by custom validators.
+ *
+ * @author Tim Boudreau
+ */
+public class ValidatedThing {
+
+    public final int even;
+    public final String name;
+    public final String nickname;
+    public final String code;
+    public final List<String> items;
+
+    @GenerateBuilder(styles = BuilderStyles.FLAT)
+    public ValidatedThing(@IntMin(0) @ConstrainedBy(Even.class) int even,
+            @ConstrainedBy(value = NoSpaces.class, weight = 1000) String name,
+            @Optionally @ConstrainedBy(NoSpaces.class) String nickname,
+            @Optionally @ConstrainedBy(Broken.class) String code,
+            @Optionally @CollectionConstraint(checked = String.class)
+            @ConstrainedBy(Distinct.class) List<String> items) {
+        this.even = even;
+        this.name = name;
+        this.nickname = nickname;
+        this.code = code;
+        this.items = items;
+    }
+
+    public static final class Even implements Function<Integer, Optional<String>> {
+
+        @Override
+        public Optional<String> apply(Integer t) {
+            return t % 2 == 0 ? Optional.empty() : Optional.of("not even: " + t);
+        }
+    }
+
+    public static final class Distinct implements Function<List<String>, Optional<String>> {
+
+        @Override
+        public Optional<String> apply(List<String> t) {
+            // Iterates as Object, since this may run on a list which
+            // fails its CollectionConstraint
+            Set<Object> seen = new HashSet<>();
+            for (Object o : t) {
+                if (!seen.add(o)) {
+                    return Optional.of("duplicate item " + o);
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * A validator with a bug - it returns null rather than an empty Optional
+     * for some values.
+     */
+    public static final class Broken implements Function<String, Optional<String>> {
+
+        @Override
+        public Optional<String> apply(String t) {
+            return "broken".equals(t) ? null : Optional.empty();
+        }
+    }
+
+    public static final class NoSpaces implements Function<CharSequence, Optional<String>> {
+
+        public static final AtomicInteger INSTANCES = new AtomicInteger();
+
+        public NoSpaces() {
+            INSTANCES.incrementAndGet();
+        }
+
+        @Override
+        public Optional<String> apply(CharSequence t) {
+            for (int i = 0; i < t.length(); i++) {
+                if (Character.isWhitespace(t.charAt(i))) {
+                    return Optional.of("contains whitespace at " + i);
+                }
+            }
+            return Optional.empty();
+        }
+    }
+}
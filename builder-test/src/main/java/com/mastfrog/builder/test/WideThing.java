@@ -0,0 +1,371 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.test;
+
+import com.mastfrog.builder.annotations.BuilderStyles;
+import com.mastfrog.builder.annotations.GenerateBuilder;
+
+/**
+ * A flat builder with more than 64 required fields, both primitive and
+ * object, so its mask of set fields spans several words.
+ *
+ * @author Tim Boudreau
+ */
+public class WideThing {
+
+    public final int i0;
+    public final int i1;
+    public final int i2;
+    public final int i3;
+    public final int i4;
+    public final int i5;
+    public final int i6;
+    public final int i7;
+    public final int i8;
+    public final int i9;
+    public final int i10;
+    public final int i11;
+    public final int i12;
+    public final int i13;
+    public final int i14;
+    public final int i15;
+    public final int i16;
+    public final int i17;
+    public final int i18;
+    public final int i19;
+    public final int i20;
+    public final int i21;
+    public final int i22;
+    public final int i23;
+    public final int i24;
+    public final int i25;
+    public final int i26;
+    public final int i27;
+    public final int i28;
+    public final int i29;
+    public final int i30;
+    public final int i31;
+    public final int i32;
+    public final int i33;
+    public final int i34;
+    public final int i35;
+    public final int i36;
+    public final int i37;
+    public final int i38;
+    public final int i39;
+    public final int i40;
+    public final int i41;
+    public final int i42;
+    public final int i43;
+    public final int i44;
+    public final int i45;
+    public final int i46;
+    public final int i47;
+    public final int i48;
+    public final int i49;
+    public final int i50;
+    public final int i51;
+    public final int i52;
+    public final int i53;
+    public final int i54;
+    public final int i55;
+    public final int i56;
+    public final int i57;
+    public final int i58;
+    public final int i59;
+    public final int i60;
+    public final int i61;
+    public final int i62;
+    public final int i63;
+    public final int i64;
+    public final int i65;
+    public final int i66;
+    public final int i67;
+    public final int i68;
+    public final int i69;
+    public final String s0;
+    public final String s1;
+    public final String s2;
+    public final String s3;
+    public final String s4;
+    public final String s5;
+    public final String s6;
+    public final String s7;
+    public final String s8;
+    public final String s9;
+    public final String s10;
+    public final String s11;
+    public final String s12;
+    public final String s13;
+    public final String s14;
+    public final String s15;
+    public final String s16;
+    public final String s17;
+    public final String s18;
+    public final String s19;
+    public final String s20;
+    public final String s21;
+    public final String s22;
+    public final String s23;
+    public final String s24;
+    public final String s25;
+    public final String s26;
+    public final String s27;
+    public final String s28;
+    public final String s29;
+    public final String s30;
+    public final String s31;
+    public final String s32;
+    public final String s33;
+    public final String s34;
+    public final String s35;
+    public final String s36;
+    public final String s37;
+    public final String s38;
+    public final String s39;
+
+    @GenerateBuilder(styles = BuilderStyles.FLAT)
+    public WideThing(
+            int i0,
+            int i1,
+            int i2,
+            int i3,
+            int i4,
+            int i5,
+            int i6,
+            int i7,
+            int i8,
+            int i9,
+            int i10,
+            int i11,
+            int i12,
+            int i13,
+            int i14,
+            int i15,
+            int i16,
+            int i17,
+            int i18,
+            int i19,
+            int i20,
+            int i21,
+            int i22,
+            int i23,
+            int i24,
+            int i25,
+            int i26,
+            int i27,
+            int i28,
+            int i29,
+            int i30,
+            int i31,
+            int i32,
+            int i33,
+            int i34,
+            int i35,
+            int i36,
+            int i37,
+            int i38,
+            int i39,
+            int i40,
+            int i41,
+            int i42,
+            int i43,
+            int i44,
+            int i45,
+            int i46,
+            int i47,
+            int i48,
+            int i49,
+            int i50,
+            int i51,
+            int i52,
+            int i53,
+            int i54,
+            int i55,
+            int i56,
+            int i57,
+            int i58,
+            int i59,
+            int i60,
+            int i61,
+            int i62,
+            int i63,
+            int i64,
+            int i65,
+            int i66,
+            int i67,
+            int i68,
+            int i69,
+            String s0,
+            String s1,
+            String s2,
+            String s3,
+            String s4,
+            String s5,
+            String s6,
+            String s7,
+            String s8,
+            String s9,
+            String s10,
+            String s11,
+            String s12,
+            String s13,
+            String s14,
+            String s15,
+            String s16,
+            String s17,
+            String s18,
+            String s19,
+            String s20,
+            String s21,
+            String s22,
+            String s23,
+            String s24,
+            String s25,
+            String s26,
+            String s27,
+            String s28,
+            String s29,
+            String s30,
+            String s31,
+            String s32,
+            String s33,
+            String s34,
+            String s35,
+            String s36,
+            String s37,
+            String s38,
+            String s39) {
+        this.i0 = i0;
+        this.i1 = i1;
+        this.i2 = i2;
+        this.i3 = i3;
+        this.i4 = i4;
+        this.i5 = i5;
+        this.i6 = i6;
+        this.i7 = i7;
+        this.i8 = i8;
+        this.i9 = i9;
+        this.i10 = i10;
+        this.i11 = i11;
+        this.i12 = i12;
+        this.i13 = i13;
+        this.i14 = i14;
+        this.i15 = i15;
+        this.i16 = i16;
+        this.i17 = i17;
+        this.i18 = i18;
+        this.i19 = i19;
+        this.i20 = i20;
+        this.i21 = i21;
+        this.i22 = i22;
+        this.i23 = i23;
+        this.i24 = i24;
+        this.i25 = i25;
+        this.i26 = i26;
+        this.i27 = i27;
+        this.i28 = i28;
+        this.i29 = i29;
+        this.i30 = i30;
+        this.i31 = i31;
+        this.i32 = i32;
+        this.i33 = i33;
+        this.i34 = i34;
+        this.i35 = i35;
+        this.i36 = i36;
+        this.i37 = i37;
+        this.i38 = i38;
+        this.i39 = i39;
+        this.i40 = i40;
+        this.i41 = i41;
+        this.i42 = i42;
+        this.i43 = i43;
+        this.i44 = i44;
+        this.i45 = i45;
+        this.i46 = i46;
+        this.i47 = i47;
+        this.i48 = i48;
+        this.i49 = i49;
+        this.i50 = i50;
+        this.i51 = i51;
+        this.i52 = i52;
+        this.i53 = i53;
+        this.i54 = i54;
+        this.i55 = i55;
+        this.i56 = i56;
+        this.i57 = i57;
+        this.i58 = i58;
+        this.i59 = i59;
+        this.i60 = i60;
+        this.i61 = i61;
+        this.i62 = i62;
+        this.i63 = i63;
+        this.i64 = i64;
+        this.i65 = i65;
+        this.i66 = i66;
+        this.i67 = i67;
+        this.i68 = i68;
+        this.i69 = i69;
+        this.s0 = s0;
+        this.s1 = s1;
+        this.s2 = s2;
+        this.s3 = s3;
+        this.s4 = s4;
+        this.s5 = s5;
+        this.s6 = s6;
+        this.s7 = s7;
+        this.s8 = s8;
+        this.s9 = s9;
+        this.s10 = s10;
+        this.s11 = s11;
+        this.s12 = s12;
+        this.s13 = s13;
+        this.s14 = s14;
+        this.s15 = s15;
+        this.s16 = s16;
+        this.s17 = s17;
+        this.s18 = s18;
+        this.s19 = s19;
+        this.s20 = s20;
+        this.s21 = s21;
+        this.s22 = s22;
+        this.s23 = s23;
+        this.s24 = s24;
+        this.s25 = s25;
+        this.s26 = s26;
+        this.s27 = s27;
+        this.s28 = s28;
+        this.s29 = s29;
+        this.s30 = s30;
+        this.s31 = s31;
+        this.s32 = s32;
+        this.s33 = s33;
+        this.s34 = s34;
+        this.s35 = s35;
+        this.s36 = s36;
+        this.s37 = s37;
+        this.s38 = s38;
+        this.s39 = s39;
+    }
+}
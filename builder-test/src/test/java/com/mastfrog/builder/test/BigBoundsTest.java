@@ -0,0 +1,89 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks BigMin and BigMax bounds, including values either side of the range
+ * of a long.
+ *
+ * @author Tim Boudreau
+ */
+public class BigBoundsTest {
+
+    private static final BigInteger BEYOND_LONG
+            = BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE);
+
+    @Test
+    public void testDecimalBounds() {
+        assertTrue(isValid("0", "0", "0", "1.5"));
+        assertTrue(isValid("1000000.50", "0", "0", "1.5"));
+        assertTrue(isValid("1000000.500", "0", "0", "1.5"));
+        assertFalse(isValid("-0.01", "0", "0", "1.5"));
+        assertFalse(isValid("1000000.51", "0", "0", "1.5"));
+    }
+
+    @Test
+    public void testIntegerBoundsWithinLongRange() {
+        assertTrue(isValid("0", "-5", "0", "1.5"));
+        assertTrue(isValid("0", "9000000000", "0", "1.5"));
+        assertFalse(isValid("0", "-6", "0", "1.5"));
+        assertFalse(isValid("0", "9000000001", "0", "1.5"));
+        assertFalse(isValid("0", BEYOND_LONG.toString(), "0", "1.5"));
+        assertFalse(isValid("0", BEYOND_LONG.negate().toString(), "0", "1.5"));
+    }
+
+    @Test
+    public void testIntegerBoundsBeyondLongRange() {
+        assertTrue(isValid("0", "0", "99999999999999999999", "1.5"));
+        assertTrue(isValid("0", "0", BEYOND_LONG.negate().toString(), "1.5"));
+        assertFalse(isValid("0", "0", "100000000000000000000", "1.5"));
+    }
+
+    @Test
+    public void testSupplierBound() {
+        assertTrue(isValid("0", "0", "0", "1.50"));
+        assertFalse(isValid("0", "0", "0", "1.49"));
+    }
+
+    private static boolean isValid(String amount, String count, String huge, String rate) {
+        BigDecimal rateValue = new BigDecimal(rate);
+        try {
+            new BigBoundedThingBuilder()
+                    .withAmount(new BigDecimal(amount))
+                    .withCount(new BigInteger(count))
+                    .withHuge(new BigInteger(huge))
+                    .withRate(() -> rateValue)
+                    .build();
+            return true;
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+}
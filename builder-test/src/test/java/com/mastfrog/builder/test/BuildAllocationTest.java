@@ -0,0 +1,248 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies that a successful build() allocates nothing beyond the object it
+ * constructs, by comparing per-call allocation against invoking the
+ * constructor directly with the same arguments.
+ *
+ * @author Tim Boudreau
+ */
+public class BuildAllocationTest {
+
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 200_000;
+    // Allow for the odd allocation by the management bean itself,
+    // amortized over all iterations
+    private static final double TOLERANCE = 0.5D;
+
+    private static final byte B = 10;
+    private static final short S = 10;
+    private static final int I = 10;
+    private static final long L = 10L;
+    private static final char C = 'c';
+    private static final boolean Z = true;
+    private static final double D = 0.5D;
+    private static final float F = 2F;
+
+    private volatile Object sink;
+
+    @Test
+    public void testManyFieldsBuildDoesNotAllocate() {
+        ManyFieldsBuilder bldr = new ManyFieldsBuilder()
+                .withF0(B)
+                .withF1(S)
+                .withF2(I)
+                .withF3(L)
+                .withF4(C)
+                .withF5(Z)
+                .withF6(D)
+                .withF7(F)
+                .withF8(B)
+                .withF9(S)
+                .withF10(I)
+                .withF11(L)
+                .withF12(C)
+                .withF13(Z)
+                .withF14(D)
+                .withF15(F)
+                .withF16(B)
+                .withF17(S)
+                .withF18(I)
+                .withF19(L)
+                .withF20(C)
+                .withF21(Z)
+                .withF22(D)
+                .withF23(F)
+                .withF24(B)
+                .withF25(S)
+                .withF26(I)
+                .withF27(L)
+                .withF28(C)
+                .withF29(Z)
+                .withF30(D)
+                .withF31(F)
+                .withF32(B)
+                .withF33(S)
+                .withF34(I)
+                .withF35(L)
+                .withF36(C)
+                .withF37(Z)
+                .withF38(D)
+                .withF39(F)
+                .withF40(B)
+                .withF41(S)
+                .withF42(I)
+                .withF43(L)
+                .withF44(C)
+                .withF45(Z)
+                .withF46(D)
+                .withF47(F)
+                .withF48(B)
+                .withF49(S)
+                .withF50(I)
+                .withF51(L)
+                .withF52(C)
+                .withF53(Z)
+                .withF54(D)
+                .withF55(F)
+                .withF56(B)
+                .withF57(S)
+                .withF58(I)
+                .withF59(L)
+                .withF60(C)
+                .withF61(Z);
+        assertNoExtraAllocation("ManyFields", () -> sink = bldr.build(),
+                () -> sink = new ManyFields(B, S, I, L, C, Z, D, F, B, S, I, L, C, Z, D, F, B, S, I, L,
+                C, Z, D, F, B, S, I, L, C, Z, D, F, B, S, I, L, C, Z, D, F,
+                B, S, I, L, C, Z, D, F, B, S, I, L, C, Z, D, F, B, S, I, L,
+                C, Z));
+    }
+
+    @Test
+    public void testDefaultedThingsBuildDoesNotAllocate() {
+        HashMap<String, String> hashMap = new HashMap<>();
+        String[] qs = new String[]{"a", "b"};
+        TreeMap<String, Float> sortedMap = new TreeMap<>();
+        TreeSet<Optional<String>> sortedSet = new TreeSet<>((a, b) -> 0);
+        int[] ints = new int[]{1, 2, 3};
+        StringBuilder sb = new StringBuilder("sb");
+        TreeMap<String, String> nmap = new TreeMap<>();
+        Set<Integer> intSet = Collections.singleton(1);
+        List<String> otherStuff = Arrays.asList("x", "y");
+        Locale locale = Locale.US;
+        ZoneId zone = ZoneId.of("GMT");
+        Optional<StringBuilder> optional = Optional.of(sb);
+        String doodad = "ABCDEFGHIJKLMNOPQRSTUVWX";
+
+        DefaultedThingsBuilder.DefaultedThingsBuilderWithDoodad<String> bldr
+                = new DefaultedThingsBuilder<String>().withDoodad(doodad);
+        bldr.withHashMap(hashMap)
+                .withQs(qs)
+                .withSortedMap(sortedMap)
+                .withSortedSet(sortedSet)
+                .withInts(ints)
+                .withSb(sb)
+                .withNmap(nmap)
+                .withIntSet(intSet)
+                .withLongVal(5L)
+                .withIntVal(5)
+                .withByteVal(B)
+                .withShortVal((short) 30)
+                .withFloatVal(F)
+                .withCharVal(C)
+                .withStringVal("s")
+                .withOtherStuff(otherStuff)
+                .withCharset(StandardCharsets.UTF_8)
+                .withLocale(locale)
+                .withZone(zone)
+                .withOptional(optional)
+                .withLongValWithDefault(L)
+                .withIntValWithDefault(I)
+                .withByteValWithDefault(B)
+                .withShortValWithDefault(S)
+                .withFloatValWithDefault(F)
+                .withCharValWithDefault(C)
+                .withStringValWithDefault("t")
+                .withCsWithDefault("u")
+                .withDefaultedToTrue(true)
+                .withDefaultedToFalse(false);
+        // Every optional is set, so this measures validation and
+        // unset-checking, not the construction of default values
+        assertNoExtraAllocation("DefaultedThings", () -> sink = bldr.buildWithWhatzit("w"),
+                () -> sink = new DefaultedThings<>(hashMap, qs, sortedMap, sortedSet,
+                        ints, sb, nmap, intSet, 5L, 5, B, (short) 30, F, C, "s",
+                        otherStuff, StandardCharsets.UTF_8, locale, zone, optional,
+                        L, I, B, S, F, C, "t", "u", true, false, doodad, "w"));
+    }
+
+    @Test
+    public void testUnboxedOptionalSettersDoNotAllocate() {
+        // Values outside the Integer and Long caches, so boxing would show
+        UnboxedThingBuilder bldr = new UnboxedThingBuilder()
+                .withName("x");
+        assertNoExtraAllocation("UnboxedThing", () -> sink = bldr.withId(100_000L)
+                .withCount(200_000L)
+                .withLevel(300_000)
+                .withRatio(D)
+                .build(),
+                () -> sink = new UnboxedThing("x", 100_000L, 200_000L, 300_000, D, true));
+    }
+
+    @Test
+    public void testDefaultsDoNotAllocate() {
+        SharedDefaultsBuilder bldr = new SharedDefaultsBuilder().withName("x");
+        SharedDefaults defaults = bldr.build();
+        assertNoExtraAllocation("SharedDefaults", () -> sink = bldr.build(),
+                () -> sink = new SharedDefaults("x", defaults.amount, defaults.count,
+                        defaults.timeout, defaults.ints, defaults.names, defaults.list));
+    }
+
+    private void assertNoExtraAllocation(String what, Runnable viaBuilder, Runnable viaConstructor) {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean,
+                "Thread allocation accounting not available");
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported(),
+                "Thread allocation accounting not supported");
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        double builderBytes = bytesPerCall(threads, viaBuilder);
+        double constructorBytes = bytesPerCall(threads, viaConstructor);
+        assertTrue(builderBytes - constructorBytes <= TOLERANCE,
+                what + " build allocated " + builderBytes + " bytes per call, "
+                + "but invoking the constructor directly allocates only "
+                + constructorBytes);
+    }
+
+    private static double bytesPerCall(com.sun.management.ThreadMXBean threads, Runnable r) {
+        for (int i = 0; i < WARMUP; i++) {
+            r.run();
+        }
+        long id = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(id);
+        for (int i = 0; i < ITERATIONS; i++) {
+            r.run();
+        }
+        long after = threads.getThreadAllocatedBytes(id);
+        return (after - before) / (double) ITERATIONS;
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs builders in a child JVM with <code>-XX:+PrintCompilation</code> and
+ * <code>-XX:+PrintInlining</code>, to confirm their build methods are small
+ * enough to be compiled and inlined. WideThing's build() is only required to
+ * be compiled: passing its 110 arguments to the constructor alone takes more
+ * bytecode than HotSpot will inline, and a constructor call cannot be split.
+ *
+ * @author Tim Boudreau
+ */
+public class BuilderCompilationTest {
+
+    private static final int ITERATIONS = 200_000;
+    private static final int ARGS = 12;
+
+    @Test
+    public void testSplitChecksStillReportEveryProblem() throws Exception {
+        CheckedThingBuilder bldr = populated(5);
+        bldr.withA0(-1).withA11(101);
+        CheckedThingBuilder.BuildResult<CheckedThing> result = bldr.tryBuild();
+        assertFalse(result.isValid());
+        assertEquals(2, result.problems().size(), result.problems()::toString);
+        assertTrue(result.problems().toString().contains("a0"), result.problems()::toString);
+        assertTrue(result.problems().toString().contains("a11"), result.problems()::toString);
+
+        bldr.withA0(0).withA11(100);
+        CheckedThing thing = bldr.build();
+        assertEquals(0, thing.a0);
+        assertEquals(100, thing.a11);
+    }
+
+    @Test
+    public void testBuildMethodsAreCompiledAndInlined() throws Exception {
+        File java = new File(new File(System.getProperty("java.home"), "bin"), "java");
+        assumeTrue(java.exists(), "No java executable in " + java.getParent());
+        ProcessBuilder pb = new ProcessBuilder(java.getAbsolutePath(),
+                "-XX:+UnlockDiagnosticVMOptions",
+                "-XX:+PrintCompilation",
+                "-XX:+PrintInlining",
+                "-cp", System.getProperty("java.class.path"),
+                Driver.class.getName())
+                .redirectErrorStream(true);
+        Process proc = pb.start();
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                proc.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        assertTrue(proc.waitFor(2, TimeUnit.MINUTES), "Child JVM did not exit");
+        assertEquals(0, proc.exitValue(), () -> String.join("\n", lines));
+
+        assertCompiled(lines, "CheckedThingBuilder::build");
+        assertCompiled(lines, "WideThingBuilder::build");
+        assertTrue(lines.stream().anyMatch(line -> line.contains("CheckedThingBuilder::__checkConstraints")
+                && line.contains("inline (hot)")),
+                () -> "Constraint checks were never inlined:\n" + String.join("\n", lines));
+        for (String line : lines) {
+            if (line.contains("CheckedThingBuilder::") && line.contains("too big")) {
+                throw new AssertionError("Generated method too big to inline: " + line);
+            }
+        }
+    }
+
+    private static void assertCompiled(List<String> lines, String method) {
+        for (String line : lines) {
+            if (line.contains(method + " (")) {
+                return;
+            }
+        }
+        throw new AssertionError(method + " was never compiled:\n" + String.join("\n", lines));
+    }
+
+    private static CheckedThingBuilder populated(int value) throws Exception {
+        CheckedThingBuilder bldr = new CheckedThingBuilder();
+        for (int i = 0; i < ARGS; i++) {
+            Method m = CheckedThingBuilder.class.getMethod("withA" + i, int.class);
+            m.invoke(bldr, value);
+        }
+        return bldr;
+    }
+
+    private static WideThingBuilder populatedWide() throws Exception {
+        WideThingBuilder bldr = new WideThingBuilder();
+        for (int i = 0; i < 70; i++) {
+            Method m = WideThingBuilder.class.getMethod("withI" + i, int.class);
+            m.invoke(bldr, i);
+        }
+        for (int i = 0; i < 40; i++) {
+            Method m = WideThingBuilder.class.getMethod("withS" + i, String.class);
+            m.invoke(bldr, "s" + i);
+        }
+        return bldr;
+    }
+
+    /**
+     * Runs in the child JVM, building often enough that the build methods
+     * become hot.
+     */
+    public static final class Driver {
+
+        public static void main(String[] args) throws Exception {
+            CheckedThingBuilder checked = populated(5);
+            WideThingBuilder wide = populatedWide();
+            long total = 0;
+            for (int i = 0; i < ITERATIONS; i++) {
+                total += checked.build().a11;
+                total += wide.build().i69;
+            }
+            // Use the result so the loop cannot be eliminated
+            System.out.println("Total " + total);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the element checks generated for CollectionConstraint.
+ *
+ * @author Tim Boudreau
+ */
+public class CollectionConstraintTest {
+
+    @Test
+    public void testValidCollectionsPass() {
+        List<Object> numbers = List.of(1, 2L, 3.5D);
+        Collection<String> strings = new LinkedList<>(Arrays.asList("a", "b"));
+        Map<String, Object> map = Map.of("a", "b", "c", new StringBuilder("d"));
+        CheckedCollections cc = build(numbers, strings, map);
+        assertSame(numbers, cc.numbers);
+        assertSame(strings, cc.strings);
+        assertSame(map, cc.map);
+    }
+
+    @Test
+    public void testNullsAreFoundInRandomAccessAndSequentialLists() {
+        List<Object> withNull = new ArrayList<>(Arrays.asList(1, 2, null, 4));
+        assertProblem("index 2", () -> build(withNull, List.of("a"), Map.of()));
+        Collection<String> linked = new LinkedList<>(Arrays.asList("a", "b", null));
+        assertProblem("index 2", () -> build(List.of(1), linked, Map.of()));
+    }
+
+    @Test
+    public void testNullsAreFoundInImmutableListsWhichAllowThem() throws Exception {
+        // Stream.toList() returns the class List.of() uses for three or more
+        // elements, but with nulls allowed
+        Method toList = Arrays.stream(Stream.class.getMethods())
+                .filter(m -> "toList".equals(m.getName()))
+                .findFirst().orElse(null);
+        assumeTrue(toList != null, "Stream.toList() needs JDK 16 or later");
+        @SuppressWarnings("unchecked")
+        List<String> withNull = (List<String>) toList.invoke(Stream.of("a", "b", null, "d"));
+        assertProblem("index 2", () -> build(List.of(1), withNull, Map.of()));
+        @SuppressWarnings("unchecked")
+        List<String> single = (List<String>) toList.invoke(Stream.of((String) null));
+        assertProblem("index 0", () -> build(List.of(1), single, Map.of()));
+    }
+
+    @Test
+    public void testElementTypesAreChecked() {
+        List<Object> mixed = new ArrayList<>(Arrays.asList(1, 2, 3, "four", 5));
+        assertProblem("java.lang.String", () -> build(mixed, List.of("a"), Map.of()));
+        Map<String, Object> map = new HashMap<>();
+        map.put("a", "b");
+        map.put("c", 23);
+        assertProblem("java.lang.Integer", () -> build(List.of(1), List.of("a"), map));
+    }
+
+    @Test
+    public void testMapNullsAreFound() {
+        Map<String, Object> nullKey = new HashMap<>();
+        nullKey.put(null, "x");
+        assertProblem("null keys", () -> build(List.of(1), List.of("a"), nullKey));
+        Map<String, Object> nullValue = new HashMap<>();
+        nullValue.put("x", null);
+        assertProblem("null values", () -> build(List.of(1), List.of("a"), nullValue));
+    }
+
+    @Test
+    public void testLargeListsAreScannedInParallel() {
+        List<Object> numbers = new ArrayList<>(Collections.nCopies(100_000, 1));
+        build(numbers, List.of("a"), Map.of());
+        numbers.set(99_998, null);
+        assertProblem("index 99998", () -> build(numbers, List.of("a"), Map.of()));
+        numbers.set(99_998, 1);
+        numbers.set(12, 'c');
+        assertProblem("index 12", () -> build(numbers, List.of("a"), Map.of()));
+    }
+
+    private static void assertProblem(String expectedText, Runnable r) {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, r::run);
+        assertTrue(ex.getMessage().contains(expectedText), ex.getMessage());
+    }
+
+    private static CheckedCollections build(List<Object> numbers, Collection<String> strings,
+            Map<String, Object> map) {
+        return new CheckedCollectionsBuilder()
+                .withNumbers(numbers)
+                .withStrings(strings)
+                .withMap(map)
+                .build();
+    }
+}
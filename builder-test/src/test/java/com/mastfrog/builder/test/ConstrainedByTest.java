@@ -0,0 +1,102 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.test;
+
+import com.mastfrog.builder.test.ValidatedThing.NoSpaces;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks parameters annotated with ConstrainedBy.
+ *
+ * @author Tim Boudreau
+ */
+public class ConstrainedByTest {
+
+    @Test
+    public void testValidatorsAreApplied() {
+        ValidatedThing thing = new ValidatedThingBuilder().withEven(4).withName("fred").build();
+        assertEquals(4, thing.even);
+        assertNull(thing.nickname);
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> new ValidatedThingBuilder().withEven(3).withName("fred").build());
+        assertTrue(ex.getMessage().contains("not even: 3"), ex.getMessage());
+
+        ex = assertThrows(IllegalArgumentException.class,
+                () -> new ValidatedThingBuilder().withEven(2).withName("fr ed").build());
+        assertTrue(ex.getMessage().contains("whitespace at 2"), ex.getMessage());
+
+        ex = assertThrows(IllegalArgumentException.class,
+                () -> new ValidatedThingBuilder().withEven(2).withName("fred")
+                        .withNickname("f\tred").build());
+        assertTrue(ex.getMessage().contains("whitespace at 1"), ex.getMessage());
+    }
+
+    @Test
+    public void testValidatorReturningNullIsABug() {
+        ValidatedThing thing = new ValidatedThingBuilder().withEven(2).withName("fred")
+                .withCode("fine").build();
+        assertEquals("fine", thing.code);
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> new ValidatedThingBuilder().withEven(2).withName("fred")
+                        .withCode("broken").build());
+        assertTrue(ex.getMessage().contains(ValidatedThing.Broken.class.getCanonicalName()),
+                ex.getMessage());
+    }
+
+    @Test
+    public void testValidatorsCombineWithCollectionConstraints() {
+        List<String> items = Arrays.asList("a", "b");
+        ValidatedThing thing = new ValidatedThingBuilder().withEven(2).withName("fred")
+                .withItems(items).build();
+        assertEquals(items, thing.items);
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> new ValidatedThingBuilder().withEven(2).withName("fred")
+                        .withItems(Arrays.asList("a", "b", "a")).build());
+        assertTrue(ex.getMessage().contains("duplicate item a"), ex.getMessage());
+
+        @SuppressWarnings("unchecked")
+        List<String> mixed = (List<String>) (List<?>) Arrays.asList("a", 1);
+        ex = assertThrows(IllegalArgumentException.class,
+                () -> new ValidatedThingBuilder().withEven(2).withName("fred")
+                        .withItems(mixed).build());
+        assertTrue(ex.getMessage().contains("instances of java.lang.String"), ex.getMessage());
+    }
+
+    @Test
+    public void testValidatorIsCreatedOncePerBuilderClass() {
+        for (int i = 0; i < 10; i++) {
+            new ValidatedThingBuilder().withEven(i * 2).withName("name" + i)
+                    .withNickname("nick" + i).build();
+        }
+        assertEquals(1, NoSpaces.INSTANCES.get());
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests builders generated with the HYBRID style.
+ *
+ * @author Tim Boudreau
+ */
+public class HybridBuilderTest {
+
+    @Test
+    public void testBuild() {
+        HybridThing thing = new HybridThingBuilder()
+                .withP1(2)
+                .withP2(2L)
+                .withP3(true)
+                .withP4("s4")
+                .withP6(6L)
+                .withP7(true)
+                .withP8("s8")
+                .withP10(10L)
+                .withP11(true)
+                .withP5(5)
+                .withP0("s0")
+                .withNote("note")
+                .buildWithP9(9);
+        assertEquals("s0", thing.p0);
+        assertEquals(2, thing.p1);
+        assertEquals(5, thing.p5);
+        assertEquals(9, thing.p9);
+        assertEquals(10L, thing.p10);
+        assertTrue(thing.p11);
+        assertEquals("note", thing.note);
+        assertEquals(5, thing.extra);
+    }
+
+    @Test
+    public void testRuntimeCheckedFieldsCanBeSetOnAnyBuilder() {
+        HybridThing thing = new HybridThingBuilder()
+                .withP0("s0")
+                .withP1(2)
+                .withP2(2L)
+                .withP9(9)
+                .withP3(false)
+                .withP4("s4")
+                .withP6(6L)
+                .withP7(false)
+                .withP8("s8")
+                .withP10(10L)
+                .withP11(false)
+                .buildWithP5(5);
+        assertEquals("s8", thing.p8);
+        assertNull(thing.note);
+    }
+
+    @Test
+    public void testUnsetRuntimeCheckedFieldsAreDetected() {
+        assertThrows(IllegalStateException.class, () -> new HybridThingBuilder()
+                .withP1(2)
+                .withP2(2L)
+                .withP3(true)
+                .withP4("s4")
+                .withP6(6L)
+                .withP7(true)
+                .withP8("s8")
+                .withP10(10L)
+                .withP0("s0")
+                .withP5(5)
+                .buildWithP9(9));
+        assertThrows(IllegalStateException.class, () -> new HybridThingBuilder()
+                .withP2(2L)
+                .withP3(true)
+                .withP4("s4")
+                .withP6(6L)
+                .withP7(true)
+                .withP8("s8")
+                .withP10(10L)
+                .withP11(true)
+                .withP0("s0")
+                .withP5(5)
+                .buildWithP9(9));
+    }
+
+    @Test
+    public void testConstraintsAreChecked() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new HybridThingBuilder().withP1(0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new HybridThingBuilder().withP4(null));
+    }
+
+    @Test
+    public void testClassBudgetIsRespected() {
+        int builders = 1;
+        for (Class<?> type : HybridThingBuilder.class.getDeclaredClasses()) {
+            if (type.getSimpleName().startsWith("HybridThingBuilder")) {
+                builders++;
+            }
+        }
+        assertEquals(7, builders);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the COPY, TRUST and FREEZE ownership policies.
+ *
+ * @author Tim Boudreau
+ */
+public class OwnershipTest {
+
+    @Test
+    public void testPolicies() {
+        byte[] payload = new byte[]{1, 2, 3};
+        int[] copied = new int[]{4, 5};
+        List<String> mutable = new ArrayList<>(Arrays.asList("a", "b"));
+        Map<String, Integer> map = new HashMap<>();
+        map.put("x", 1);
+        List<String> trusted = new ArrayList<>();
+
+        OwnedThing thing = new OwnedThingBuilder()
+                .withPayload(payload)
+                .withCopied(copied)
+                .withFrozenList(mutable)
+                .withFrozenSet(new HashSet<>(Arrays.asList("c")))
+                .withCopiedMap(map)
+                .withTrustedList(trusted)
+                .build();
+
+        assertSame(payload, thing.payload, "TRUST should not copy");
+        assertNotSame(copied, thing.copied, "Arrays are copied by default");
+        assertArrayEquals(copied, thing.copied);
+
+        assertNotSame(mutable, thing.frozenList);
+        assertEquals(mutable, thing.frozenList);
+        assertThrows(UnsupportedOperationException.class, () -> thing.frozenList.add("c"));
+        mutable.add("z");
+        assertEquals(2, thing.frozenList.size(), "Frozen list affected by changes to the original");
+
+        assertThrows(UnsupportedOperationException.class, () -> thing.frozenSet.add("d"));
+
+        assertNotSame(map, thing.copiedMap);
+        assertEquals(map, thing.copiedMap);
+
+        assertSame(trusted, thing.trustedList, "Collections are trusted by default");
+    }
+
+    @Test
+    public void testFreezeDoesNotCopyImmutableCollections() {
+        List<String> immutable = List.of("a", "b", "c");
+        OwnedThing thing = new OwnedThingBuilder()
+                .withPayload(new byte[0])
+                .withCopied(new int[0])
+                .withFrozenList(immutable)
+                .withCopiedMap(new HashMap<>())
+                .withTrustedList(new ArrayList<>())
+                .build();
+        assertSame(immutable, thing.frozenList);
+        assertNull(thing.frozenSet);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies that sources rendered in parallel are byte-identical to those
+ * rendered serially.
+ *
+ * @author Tim Boudreau
+ */
+public class ParallelGenerationTest {
+
+    private static final String PROCESSOR
+            = "com.mastfrog.builder.annotation.processors.BuilderAnnotationProcessor";
+    private static final String PACKAGE = "gen";
+    private static final String[] STYLES = {"CLOSURES", "FLAT", "SINGLE_INSTANCE", "STAGED"};
+
+    @Test
+    public void testParallelOutputMatchesSerial() throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assumeTrue(compiler != null, "No system java compiler");
+        Path dir = Files.createTempDirectory("builder-parallel");
+        try {
+            List<File> sources = new ArrayList<>();
+            for (int i = 0; i < STYLES.length * 3; i++) {
+                String name = "Gen" + i;
+                Path src = dir.resolve(name + ".java");
+                Files.write(src, source(name, STYLES[i % STYLES.length], 3 + i % 5).getBytes("UTF-8"));
+                sources.add(src.toFile());
+            }
+            Path serial = process(compiler, dir, sources, "serial", "-Abuilder.serial.generation");
+            Path parallel = process(compiler, dir, sources, "parallel");
+            for (int i = 0; i < sources.size(); i++) {
+                String builder = "Gen" + i + "Builder.java";
+                assertArrayEquals(Files.readAllBytes(serial.resolve(builder)),
+                        Files.readAllBytes(parallel.resolve(builder)), builder);
+            }
+        } finally {
+            try (Stream<Path> all = Files.walk(dir)) {
+                all.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+    private Path process(JavaCompiler compiler, Path dir, List<File> sources,
+            String outName, String... extraOptions) throws IOException {
+        Path out = Files.createDirectories(dir.resolve(outName));
+        List<String> options = new ArrayList<>(Arrays.asList("-proc:only",
+                "-processor", PROCESSOR,
+                "-classpath", System.getProperty("java.class.path"),
+                "-s", out.toString(),
+                "-d", out.toString()));
+        options.addAll(Arrays.asList(extraOptions));
+        StringWriter errors = new StringWriter();
+        try (StandardJavaFileManager mgr = compiler.getStandardFileManager(null, null, null)) {
+            boolean ok = compiler.getTask(errors, mgr, null, options, null,
+                    mgr.getJavaFileObjectsFromFiles(sources)).call();
+            assertTrue(ok, errors::toString);
+        }
+        return out.resolve(PACKAGE);
+    }
+
+    private static String source(String name, String style, int fields) {
+        StringBuilder sb = new StringBuilder("package ").append(PACKAGE).append(";\n\n")
+                .append("import com.mastfrog.builder.annotations.BuilderStyles;\n")
+                .append("import com.mastfrog.builder.annotations.GenerateBuilder;\n")
+                .append("import com.mastfrog.builder.annotations.Optionally;\n\n")
+                .append("public class ").append(name).append(" {\n")
+                .append("    @GenerateBuilder(styles = BuilderStyles.").append(style).append(")\n")
+                .append("    public ").append(name).append('(');
+        for (int i = 0; i < fields; i++) {
+            sb.append(i % 2 == 0 ? "String" : "int").append(" f").append(i).append(", ");
+        }
+        return sb.append("@Optionally String note) {\n    }\n}\n").toString();
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests reset() and pooled() on flat builders.
+ *
+ * @author Tim Boudreau
+ */
+public class PooledBuilderTest {
+
+    @Test
+    public void testResetClearsEverything() {
+        PooledThingBuilder b = new PooledThingBuilder()
+                .withName("a")
+                .withCount(1)
+                .withStamp(2L)
+                .withDescription("d");
+        assertSame(b, b.reset());
+        assertThrows(IllegalStateException.class, b::build,
+                "Required fields should be unset after reset()");
+        PooledThing thing = b.withName("b").withCount(3).withStamp(4L).build();
+        assertEquals("b", thing.name);
+        assertEquals(3, thing.count);
+        assertEquals(4L, thing.stamp);
+        assertNull(thing.description, "Optional field should be cleared by reset()");
+    }
+
+    @Test
+    public void testPooledBuildersAreReused() {
+        PooledThingBuilder first = PooledThingBuilder.pooled();
+        PooledThingBuilder nested = PooledThingBuilder.pooled();
+        assertNotSame(first, nested, "Builder in use handed out twice");
+        first.withName("a").withCount(1).withStamp(2L).withDescription("d").build();
+
+        PooledThingBuilder second = PooledThingBuilder.pooled();
+        assertSame(first, second, "Released builder not reused");
+        // Nothing should leak from the previous use
+        assertThrows(IllegalStateException.class, second::build);
+        PooledThing thing = second.withName("b").withCount(3).withStamp(4L).build();
+        assertEquals("b", thing.name);
+        assertNull(thing.description);
+    }
+
+    @Test
+    public void testUnpooledBuildersAreNotAddedToThePool() {
+        PooledThingBuilder b = new PooledThingBuilder();
+        b.withName("a").withCount(1).withStamp(2L).build();
+        assertNotSame(b, PooledThingBuilder.pooled());
+    }
+}
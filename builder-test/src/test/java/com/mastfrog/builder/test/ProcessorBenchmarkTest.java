@@ -0,0 +1,123 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Measures how long the annotation processor takes to generate cartesian
+ * builders for 8, 9 and 10 required parameters - 255, 511 and 1023 builder
+ * classes - by running javac with <code>-proc:only</code> over a synthesized
+ * source file. Only runs when the system property
+ * <code>builder.benchmark</code> is <code>true</code>.
+ *
+ * @author Tim Boudreau
+ */
+public class ProcessorBenchmarkTest {
+
+    private static final String PROCESSOR
+            = "com.mastfrog.builder.annotation.processors.BuilderAnnotationProcessor";
+    private static final int WARMUP = 2;
+    private static final int ITERATIONS = 3;
+    private static final String PACKAGE = "bench";
+    private static final Logger LOG = Logger.getLogger(ProcessorBenchmarkTest.class.getName());
+
+    @Test
+    public void benchmarkCartesianGeneration() throws IOException {
+        assumeTrue(Boolean.getBoolean("builder.benchmark"),
+                "Run with -Dbuilder.benchmark=true to benchmark generation");
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assumeTrue(compiler != null, "No system java compiler");
+        Path dir = Files.createTempDirectory("builder-bench");
+        try {
+            for (int i = 0; i < WARMUP; i++) {
+                generate(compiler, dir, 8);
+            }
+            for (int fields = 8; fields <= 10; fields++) {
+                long best = Long.MAX_VALUE;
+                for (int i = 0; i < ITERATIONS; i++) {
+                    best = Math.min(best, generate(compiler, dir, fields));
+                }
+                LOG.info("Cartesian builder for " + fields
+                        + " required parameters generated in " + best + "ms");
+            }
+        } finally {
+            try (Stream<Path> all = Files.walk(dir)) {
+                all.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+    private long generate(JavaCompiler compiler, Path dir, int fields) throws IOException {
+        String name = "Bench" + fields;
+        Path src = dir.resolve(name + ".java");
+        Path out = Files.createDirectories(dir.resolve("out" + fields));
+        Files.write(src, source(name, fields).getBytes("UTF-8"));
+        List<String> options = Arrays.asList("-proc:only",
+                "-processor", PROCESSOR,
+                "-classpath", System.getProperty("java.class.path"),
+                "-s", out.toString(),
+                "-d", out.toString());
+        StringWriter errors = new StringWriter();
+        try (StandardJavaFileManager mgr = compiler.getStandardFileManager(null, null, null)) {
+            Iterable<? extends JavaFileObject> units = mgr.getJavaFileObjects(src.toFile());
+            long start = System.nanoTime();
+            boolean ok = compiler.getTask(errors, mgr, null, options, null, units).call();
+            long elapsed = (System.nanoTime() - start) / 1_000_000;
+            assertTrue(ok, errors::toString);
+            assertTrue(Files.exists(out.resolve(PACKAGE).resolve(name + "Builder.java")),
+                    () -> "No builder generated for " + name + ": " + errors);
+            return elapsed;
+        }
+    }
+
+    private static String source(String name, int fields) {
+        StringBuilder sb = new StringBuilder("package ").append(PACKAGE).append(";\n\n")
+                .append("import com.mastfrog.builder.annotations.GenerateBuilder;\n\n")
+                .append("public class ").append(name).append(" {\n")
+                .append("    @GenerateBuilder\n    public ").append(name).append('(');
+        for (int i = 0; i < fields; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(i % 2 == 0 ? "String" : "int").append(" f").append(i);
+        }
+        return sb.append(") {\n    }\n}\n").toString();
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.test;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+/**
+ * Checks element range constraints on primitive arrays.
+ *
+ * @author Tim Boudreau
+ */
+public class RangedArraysTest {
+
+    @Test
+    public void testValidArraysAreAccepted() {
+        RangedArrays ra = builder().build();
+        assertNull(ra.doubles);
+        builder().withInts(-10, 10).withLongs(-5_000_000_000L, Long.MAX_VALUE)
+                .withShorts(Short.MIN_VALUE, (short) 1000)
+                .withBytes((byte) 0, (byte) 100)
+                .withFloats(0F, Float.NaN, 1F)
+                .withDoubles(-1.5, 1.5)
+                .build();
+        builder().withInts().withLongs().withShorts().withBytes()
+                .withFloats().withDoubles().build();
+    }
+
+    @Test
+    public void testOutOfRangeElementsAreRejected() {
+        assertRejected("index 2", () -> builder().withInts(1, 2, 11).build());
+        assertRejected("index 0", () -> builder().withInts(-11, 12).build());
+        assertRejected("index 1", () -> builder().withLongs(0, -5_000_000_001L).build());
+        assertRejected("index 1", () -> builder().withShorts((short) 0, (short) 1001).build());
+        assertRejected("index 0", () -> builder().withBytes((byte) -1).build());
+        assertRejected("index 1", () -> builder().withFloats(0.5F, 1.01F).build());
+        assertRejected("index 2", () -> builder().withDoubles(0, Double.NaN, -2).build());
+    }
+
+    private static void assertRejected(String expectedIndex, Executable build) {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, build);
+        assertTrue(ex.getMessage().contains(expectedIndex), ex.getMessage());
+    }
+
+    private static RangedArraysBuilder builder() {
+        return new RangedArraysBuilder()
+                .withInts(0)
+                .withLongs(0)
+                .withShorts((short) 0)
+                .withBytes((byte) 0)
+                .withFloats(0F);
+    }
+}
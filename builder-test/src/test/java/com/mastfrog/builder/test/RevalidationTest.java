@@ -0,0 +1,94 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that build() validates again only values which may have changed since
+ * their setter validated them.
+ *
+ * @author Tim Boudreau
+ */
+public class RevalidationTest {
+
+    private static RevalidatedThingBuilder builder(List<String> trusted) {
+        return new RevalidatedThingBuilder()
+                .withName("abc")
+                .withTags("a", "b")
+                .withTrusted(trusted)
+                .withFrozen(new ArrayList<>(Arrays.asList("x")));
+    }
+
+    @Test
+    public void testTrustedValuesAreValidatedByBuild() {
+        List<String> trusted = new ArrayList<>(Arrays.asList("t"));
+        RevalidatedThingBuilder bldr = builder(trusted);
+        bldr.build();
+        trusted.add(null);
+        assertThrows(IllegalStateException.class, bldr::build,
+                "A collection the caller still holds must be checked by build()");
+    }
+
+    @Test
+    public void testCopiesAreValidatedAgainOnceShared() {
+        RevalidatedThingBuilder bldr = builder(new ArrayList<>());
+        RevalidatedThing first = bldr.build();
+        first.tags[0] = null;
+        assertThrows(IllegalStateException.class, bldr::build,
+                "The copy passed to the first object was altered, and must be checked again");
+        bldr.withTags("c");
+        assertEquals(Arrays.asList("c"), Arrays.asList(bldr.build().tags));
+    }
+
+    @Test
+    public void testSettersRecordValidation() throws Exception {
+        RevalidatedThingBuilder bldr = builder(new ArrayList<>());
+        Field validated = RevalidatedThingBuilder.class.getDeclaredField("validatedFields");
+        validated.setAccessible(true);
+        assertNotEquals(0L, ((Number) validated.get(bldr)).longValue());
+        bldr.build();
+        assertEquals(0L, ((Number) validated.get(bldr)).longValue());
+        bldr.withTags("d", "e");
+        assertNotEquals(0L, ((Number) validated.get(bldr)).longValue());
+        bldr.reset();
+        assertEquals(0L, ((Number) validated.get(bldr)).longValue());
+    }
+
+    @Test
+    public void testSettersStillReject() {
+        RevalidatedThingBuilder bldr = new RevalidatedThingBuilder();
+        assertThrows(IllegalArgumentException.class, () -> bldr.withName("ABC"));
+        assertThrows(IllegalArgumentException.class, () -> bldr.withTags("a", null));
+        assertThrows(IllegalArgumentException.class, () -> bldr.withTags("a", "b", "c", "d"));
+        assertThrows(IllegalArgumentException.class, () -> bldr.withFrozen(Arrays.asList("x", null)));
+    }
+}
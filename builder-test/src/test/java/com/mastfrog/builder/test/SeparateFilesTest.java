@@ -0,0 +1,69 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.test;
+
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests cartesian builders whose intermediate builders are generated in
+ * their own source files.
+ *
+ * @author Tim Boudreau
+ */
+public class SeparateFilesTest {
+
+    @Test
+    public void testBuild() {
+        SeparateThing thing = new SeparateThingBuilder()
+                .withCount(3)
+                .withNote("hey")
+                .withName("thing")
+                .buildWithWhen(5L);
+        assertEquals("thing", thing.name);
+        assertEquals(3, thing.count);
+        assertEquals(5L, thing.when);
+        assertEquals("hey", thing.note);
+        assertEquals(0, BigDecimal.valueOf(1.5D).compareTo(thing.amount));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SeparateThingBuilder().withCount(0));
+    }
+
+    @Test
+    public void testIntermediateBuildersAreTopLevel() throws ClassNotFoundException {
+        for (Class<?> type : SeparateThingBuilder.class.getDeclaredClasses()) {
+            assertTrue(type.getSimpleName().startsWith("__"),
+                    "Unexpected nested class " + type);
+        }
+        Class<?> intermediate = new SeparateThingBuilder().withCount(3).getClass();
+        assertNull(intermediate.getEnclosingClass());
+        assertEquals(SeparateThingBuilder.class.getPackage(), intermediate.getPackage());
+        assertTrue(Modifier.isPublic(intermediate.getModifiers()));
+    }
+}
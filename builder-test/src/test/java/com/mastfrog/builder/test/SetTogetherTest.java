@@ -0,0 +1,85 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests cartesian builders for parameters grouped with
+ * <code>&#064;SetTogether</code>.
+ *
+ * @author Tim Boudreau
+ */
+public class SetTogetherTest {
+
+    @Test
+    public void testGroupsAreSetTogether() {
+        GroupedThing thing = new GroupedThingBuilder()
+                .withHostAndPort("localhost", 8080)
+                .withNote("hello")
+                .withLatAndLon(42.5, -71.25)
+                .buildWithName("home");
+        assertEquals("home", thing.name);
+        assertEquals("localhost", thing.host);
+        assertEquals(8080, thing.port);
+        assertEquals(42.5, thing.lat);
+        assertEquals(-71.25, thing.lon);
+        assertEquals("hello", thing.note);
+    }
+
+    @Test
+    public void testGroupCanBeSetLast() {
+        GroupedThing thing = new GroupedThingBuilder()
+                .withName("work")
+                .withLatAndLon(1, 2)
+                .buildWithHostAndPort("example.com", 443);
+        assertEquals("example.com", thing.host);
+        assertEquals(443, thing.port);
+        assertEquals(2, thing.lon);
+        assertNull(thing.note);
+    }
+
+    @Test
+    public void testConstraintsAreChecked() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new GroupedThingBuilder().withHostAndPort("localhost", 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new GroupedThingBuilder().withHostAndPort(null, 80));
+    }
+
+    @Test
+    public void testEachGroupIsOneDimension() {
+        // Three dimensions - the name and two groups - need 2^3-1 builders
+        int builders = 1;
+        for (Class<?> type : GroupedThingBuilder.class.getDeclaredClasses()) {
+            if (type.getSimpleName().startsWith("GroupedThingBuilder")) {
+                builders++;
+            }
+        }
+        assertEquals(7, builders);
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that immutable defaults are created once and shared.
+ *
+ * @author Tim Boudreau
+ */
+public class SharedDefaultsTest {
+
+    @Test
+    public void testDefaultsHaveExpectedValues() {
+        SharedDefaults sd = new SharedDefaultsBuilder().withName("a").build();
+        assertEquals(new BigDecimal("1.25"), sd.amount);
+        assertEquals(BigInteger.valueOf(12), sd.count);
+        assertEquals(Duration.ofSeconds(5), sd.timeout);
+        assertEquals(0, sd.ints.length);
+        assertEquals(0, sd.names.length);
+        assertTrue(sd.list.isEmpty());
+    }
+
+    @Test
+    public void testImmutableDefaultsAreShared() {
+        SharedDefaults a = new SharedDefaultsBuilder().withName("a").build();
+        SharedDefaults b = new SharedDefaultsBuilder().withName("b").build();
+        assertSame(a.amount, b.amount);
+        assertSame(a.count, b.count);
+        assertSame(a.timeout, b.timeout);
+        assertSame(a.ints, b.ints);
+        assertSame(a.names, b.names);
+        assertSame(a.list, b.list);
+    }
+}
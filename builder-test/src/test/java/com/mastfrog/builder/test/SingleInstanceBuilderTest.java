@@ -0,0 +1,96 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests builders generated with the SINGLE_INSTANCE style.
+ *
+ * @author Tim Boudreau
+ */
+public class SingleInstanceBuilderTest {
+
+    @Test
+    public void testSettersReturnTheSameBuilder() {
+        Object first = new SingleInstanceThingBuilder().withName("a");
+        Object second = ((SingleInstanceThingBuilder.SingleInstanceThingBuilderWithName) first)
+                .withDescription("b");
+        assertSame(first, second, "Optional setters on an intermediate builder "
+                + "should not create a new builder");
+    }
+
+    @Test
+    public void testRequiredSettersReuseOneCarrier() {
+        SingleInstanceThingBuilder.SingleInstanceThingBuilderWithName first
+                = new SingleInstanceThingBuilder().withName("a");
+        SingleInstanceThingBuilder.SingleInstanceThingBuilderSansStamp second
+                = first.withCount(23);
+        assertSame(first, second, "Each required setter in the chain "
+                + "should return the same carrier");
+        SingleInstanceThing thing = second.buildWithStamp(42L);
+        assertEquals("a", thing.name);
+        assertEquals(23, thing.count);
+    }
+
+    @Test
+    public void testBuildInAnyOrder() {
+        SingleInstanceThing a = new SingleInstanceThingBuilder()
+                .withDescription("desc")
+                .withName("a")
+                .withCount(23)
+                .buildWithStamp(42L);
+        assertEquals("a", a.name);
+        assertEquals(23, a.count);
+        assertEquals(42L, a.stamp);
+        assertEquals("desc", a.description);
+
+        SingleInstanceThing b = new SingleInstanceThingBuilder()
+                .withStamp(42L)
+                .withCount(23)
+                .buildWithName("b");
+        assertEquals("b", b.name);
+        assertEquals(23, b.count);
+        assertEquals(42L, b.stamp);
+        assertNull(b.description);
+    }
+
+    @Test
+    public void testConstraintsAreChecked() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            new SingleInstanceThingBuilder()
+                    .withName("a")
+                    .withStamp(1L)
+                    .buildWithCount(101);
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            new SingleInstanceThingBuilder()
+                    .withCount(-1);
+        });
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests builders generated with the STAGED style.
+ *
+ * @author Tim Boudreau
+ */
+public class StagedBuilderTest {
+
+    @Test
+    public void testBuildInDeclarationOrder() {
+        StagedThing thing = new StagedThingBuilder()
+                .withNote("before")
+                .withP0("s0")
+                .withP1(2)
+                .withP2(2L)
+                .withP3(true)
+                .withP4("s4")
+                .withP5(6)
+                .withP6(6L)
+                .withP7(true)
+                .withP8("s8")
+                .withP9(10)
+                .withP10(10L)
+                .withP11(true)
+                .withP12("s12")
+                .withP13(14)
+                .withP14(14L)
+                .buildWithP15(true);
+        assertEquals("s0", thing.p0);
+        assertEquals(2, thing.p1);
+        assertEquals(14L, thing.p14);
+        assertTrue(thing.p15);
+        assertEquals("before", thing.note);
+        assertEquals(5, thing.extra);
+    }
+
+    @Test
+    public void testOptionalsAtAnyStage() {
+        StagedThingBuilder.StagedThingBuilderNeedsP2 stage = new StagedThingBuilder()
+                .withP0("a")
+                .withP1(3);
+        assertSame(stage, stage.withExtra(7), "Optional setters should not create a new builder");
+        StagedThing thing = stage.withP2(2L)
+                .withP3(false)
+                .withP4("b")
+                .withP5(6)
+                .withP6(6L)
+                .withP7(true)
+                .withP8("c")
+                .withP9(10)
+                .withP10(10L)
+                .withP11(true)
+                .withP12("d")
+                .withP13(14)
+                .withP14(14L)
+                .buildWithP15(false);
+        assertEquals(7, thing.extra);
+        assertNull(thing.note);
+        assertEquals("d", thing.p12);
+    }
+
+    @Test
+    public void testConstraintsAreChecked() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new StagedThingBuilder().withP0("a").withP1(0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new StagedThingBuilder().withP0(null));
+    }
+
+    @Test
+    public void testOneInterfacePerStage() {
+        int stages = 0;
+        for (Class<?> type : StagedThingBuilder.class.getDeclaredClasses()) {
+            if (type.isInterface()) {
+                stages++;
+            }
+        }
+        assertEquals(15, stages);
+    }
+}
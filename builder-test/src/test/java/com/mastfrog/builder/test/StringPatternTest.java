@@ -0,0 +1,108 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.test;
+
+import java.util.regex.Pattern;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that generated matchers for simple patterns agree with
+ * java.util.regex.
+ *
+ * @author Tim Boudreau
+ */
+public class StringPatternTest {
+
+    private static final String[] INPUTS = {"", "1", "12_3", "12\n", "12\r\n",
+        "12\n\n", "a1", "abc", "ABC", "xabcx", "ab-x", "ab-  x", "a_-\tx",
+        "ab-x\n", "ab-xx", "a-x", "aaa", "ba", "b", " ", "_", "\u00e9t\u00e9",
+        "ab c", "ab  c", "abc!", "ac", "abac", "aabc", "abab", "x ac\n", "\n",
+        "\r\n", " \r\n", "\t\n", "a-z\r\n", " a\n\n", "\u2028"};
+
+    @Test
+    public void testGeneratedMatchersAgreeWithPattern() {
+        for (String input : INPUTS) {
+            check(PatternedThing.DIGITS, input, input, "abc", "ab-x", "aa", "a", "ac", "a");
+            check(PatternedThing.WORD, input, "1", input, "ab-x", "aa", "a", "ac", "a");
+            check(PatternedThing.CODE, input, "1", "abc", input, "aa", "a", "ac", "a");
+            check(PatternedThing.BACKTRACKING, input, "1", "abc", "ab-x", input, "a", "ac", "a");
+            check(PatternedThing.REDOS, input, "1", "abc", "ab-x", "aa", input, "ac", "a");
+            check(PatternedThing.ALTERNATION, input, "1", "abc", "ab-x", "aa", "a", input, "a");
+            check(PatternedThing.TRAILING, input, "1", "abc", "ab-x", "aa", "a", "ac", input);
+        }
+    }
+
+    @Test
+    public void testLinearTimeMatcherIsNotExponential() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            sb.append('a');
+        }
+        // java.util.regex would not finish on this in our lifetimes
+        String evil = sb.append('!').toString();
+        long start = System.nanoTime();
+        assertFalse(isValid("1", "abc", "ab-x", "aa", evil, "ac", "a"));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(elapsedMillis < 5_000, "Took " + elapsedMillis + "ms");
+    }
+
+    @Test
+    public void testDfaTablesAreNotPartOfToString() {
+        String str = new PatternedThingBuilder().withAlternation("abc").toString();
+        assertTrue(str.contains("abc"), str);
+        assertFalse(str.contains("TABLE"), str);
+        assertFalse(str.contains("ACCEPT"), str);
+    }
+
+    private void check(String regex, String input, String digits, String word,
+            String code, String backtracking, String redos, String alternation,
+            String trailing) {
+        boolean expected = Pattern.compile(regex).matcher(input).find();
+        assertEquals(expected, isValid(digits, word, code, backtracking, redos, alternation,
+                trailing),
+                "Wrong result for /" + regex + "/ on '"
+                + input.replace("\n", "\\n").replace("\r", "\\r") + "'");
+    }
+
+    private static boolean isValid(String digits, String word, String code,
+            String backtracking, String redos, String alternation, String trailing) {
+        try {
+            new PatternedThingBuilder()
+                    .withDigits(digits)
+                    .withWord(word)
+                    .withCode(code)
+                    .withBacktracking(backtracking)
+                    .withRedos(redos)
+                    .withAlternation(alternation)
+                    .withTrailing(trailing)
+                    .build();
+            return true;
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the TRY_BUILD and FAIL_FAST styles.
+ *
+ * @author Tim Boudreau
+ */
+public class TryBuildTest {
+
+    @Test
+    public void testValid() {
+        TryBuildThingBuilder.BuildResult<TryBuildThing> result = new TryBuildThingBuilder()
+                .withName("abc")
+                .withLevel(3)
+                .withTags(Arrays.asList("x"))
+                .withNote("NOTE")
+                .tryBuild();
+        assertTrue(result.isValid(), result::toString);
+        assertTrue(result.problems().isEmpty());
+        assertEquals("abc", result.value().name);
+        assertEquals(3, result.value().level);
+        assertEquals("NOTE", result.value().note);
+    }
+
+    @Test
+    public void testProblemsAreCollectedWithoutThrowing() {
+        // Setters must not throw either
+        TryBuildThingBuilder bldr = new TryBuildThingBuilder()
+                .withName("ABC")
+                .withLevel(11)
+                .withTags(Arrays.asList("x", null))
+                .withNote("note");
+        TryBuildThingBuilder.BuildResult<TryBuildThing> result = bldr.tryBuild();
+        assertFalse(result.isValid());
+        assertNull(result.value());
+        List<String> problems = result.problems();
+        assertEquals(3, problems.size(), problems::toString);
+        assertThrows(UnsupportedOperationException.class, () -> problems.clear());
+        assertThrows(IllegalStateException.class, bldr::build);
+
+        // The builder can be fixed and reused
+        bldr.withName("abc").withLevel(10).withNote("NOTE");
+        assertFalse(bldr.tryBuild().isValid());
+        bldr.withTags(Collections.singletonList("y"));
+        assertTrue(bldr.tryBuild().isValid());
+        assertEquals("abc", bldr.build().name);
+    }
+
+    @Test
+    public void testProblemsAreNotKeptWhenACheckThrows() {
+        // The level check finds a problem before the broken validator throws
+        TryBuildThingBuilder bldr = new TryBuildThingBuilder()
+                .withName("abc")
+                .withLevel(0)
+                .withTags(Arrays.asList("x"))
+                .withCode("broken");
+        assertThrows(IllegalStateException.class, bldr::tryBuild);
+        assertThrows(IllegalStateException.class, bldr::build);
+
+        bldr.withLevel(1).withCode("fine");
+        TryBuildThingBuilder.BuildResult<TryBuildThing> result = bldr.tryBuild();
+        assertTrue(result.isValid(), result::toString);
+        assertEquals("fine", bldr.build().code);
+
+        bldr.withLevel(0).withCode("broken");
+        assertThrows(IllegalStateException.class, bldr::build);
+        bldr.reset().withName("abc").withLevel(2).withTags(Arrays.asList("y"));
+        assertTrue(bldr.tryBuild().isValid());
+    }
+
+    @Test
+    public void testNullIsUnset() {
+        TryBuildThingBuilder.BuildResult<TryBuildThing> result = new TryBuildThingBuilder()
+                .withName(null)
+                .withLevel(2)
+                .withTags(Arrays.asList("x"))
+                .withNote(null)
+                .tryBuild();
+        assertEquals(1, result.problems().size(), result.problems()::toString);
+        assertTrue(result.problems().get(0).contains("'name'"), result.problems()::toString);
+
+        result = new TryBuildThingBuilder().tryBuild();
+        assertEquals(3, result.problems().size(), result.problems()::toString);
+    }
+
+    @Test
+    public void testFailFastReportsOneProblem() {
+        FailFastThingBuilder bldr = new FailFastThingBuilder()
+                .withName("ABC")
+                .withLevel(0)
+                .withTags(Collections.emptyList())
+                .withNote("note");
+        FailFastThingBuilder.BuildResult<FailFastThing> result = bldr.tryBuild();
+        assertFalse(result.isValid());
+        assertEquals(1, result.problems().size(), result.problems()::toString);
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, bldr::build);
+        assertFalse(ex.getMessage().contains("\n"), ex::getMessage);
+
+        assertEquals(1, new FailFastThingBuilder().tryBuild().problems().size());
+        assertTrue(new FailFastThingBuilder().withName("a").withLevel(1)
+                .withTags(Arrays.asList("b")).tryBuild().isValid());
+    }
+}
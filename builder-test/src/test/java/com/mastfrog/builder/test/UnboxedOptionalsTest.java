@@ -0,0 +1,90 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests builders generated with the UNBOXED_OPTIONALS style.
+ *
+ * @author Tim Boudreau
+ */
+public class UnboxedOptionalsTest {
+
+    @Test
+    public void testFlatDefaultsApplyWhenUnset() {
+        UnboxedThing thing = new UnboxedThingBuilder()
+                .withName("x")
+                .withId(1)
+                .build();
+        assertEquals(7L, thing.count);
+        assertEquals(2, thing.level);
+        assertEquals(0D, thing.ratio);
+        assertTrue(thing.enabled);
+    }
+
+    @Test
+    public void testFlatValuesSetToZeroAreNotDefaulted() {
+        UnboxedThing thing = new UnboxedThingBuilder()
+                .withName("x")
+                .withId(1)
+                .withCount(0)
+                .withEnabled(false)
+                .withRatio(0.25)
+                .build();
+        assertEquals(0L, thing.count, "Setting the zero value must not be "
+                + "mistaken for being unset");
+        assertFalse(thing.enabled);
+        assertEquals(0.25D, thing.ratio);
+    }
+
+    @Test
+    public void testFlatConstraintsAreChecked() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            new UnboxedThingBuilder().withLevel(0);
+        });
+        UnboxedThingBuilder bldr = new UnboxedThingBuilder()
+                .withName("x").withId(1).withLevel(5);
+        assertEquals(5, bldr.build().level);
+        assertEquals(2, bldr.reset().withName("y").withId(2).build().level,
+                "reset() should clear which optionals are set");
+    }
+
+    @Test
+    public void testCartesianCarriesSetStateBetweenBuilders() {
+        UnboxedCartesianThing thing = new UnboxedCartesianThingBuilder()
+                .withCount(0)
+                .withName("x")
+                .withEnabled(false)
+                .buildWithId(3);
+        assertEquals(0L, thing.count);
+        assertEquals(2, thing.level);
+        assertFalse(thing.enabled);
+        assertEquals(3L, thing.id);
+    }
+}
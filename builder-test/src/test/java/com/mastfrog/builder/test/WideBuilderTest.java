@@ -0,0 +1,97 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Mastfrog Technologies.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.mastfrog.builder.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.lang.reflect.Method;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks unset-field detection for a builder with more required fields than
+ * fit in one long.
+ *
+ * @author Tim Boudreau
+ */
+public class WideBuilderTest {
+
+    private static final int INTS = 70;
+    private static final int STRINGS = 40;
+
+    @Test
+    public void testAllFieldsSetBuilds() throws Exception {
+        WideThing thing = populated(null).build();
+        assertEquals(69, thing.i69);
+        assertEquals("s39", thing.s39);
+    }
+
+    @Test
+    public void testEachMissingFieldIsReported() throws Exception {
+        for (int i = 0; i < INTS; i++) {
+            assertMissing("i" + i);
+        }
+        for (int i = 0; i < STRINGS; i++) {
+            assertMissing("s" + i);
+        }
+    }
+
+    @Test
+    public void testResetClearsEveryWord() throws Exception {
+        WideThingBuilder bldr = populated(null);
+        bldr.build();
+        bldr.reset();
+        IllegalStateException ex = assertThrows(IllegalStateException.class, bldr::build);
+        assertTrue(ex.getMessage().contains("i69"), ex.getMessage());
+        assertTrue(ex.getMessage().contains("'s39'"), ex.getMessage());
+    }
+
+    private static void assertMissing(String name) throws Exception {
+        WideThingBuilder bldr = populated(name);
+        IllegalStateException ex = assertThrows(IllegalStateException.class, bldr::build,
+                name + " unset but builder did not fail");
+        assertTrue(ex.getMessage().contains(name + " is unset")
+                || ex.getMessage().contains("'" + name + "' is unset"), ex.getMessage());
+        // Only the missing field is reported
+        assertFalse(ex.getMessage().contains("\n"), ex.getMessage());
+    }
+
+    private static WideThingBuilder populated(String skip) throws Exception {
+        WideThingBuilder bldr = new WideThingBuilder();
+        for (int i = 0; i < INTS; i++) {
+            if (!("i" + i).equals(skip)) {
+                Method m = WideThingBuilder.class.getMethod("withI" + i, int.class);
+                m.invoke(bldr, i);
+            }
+        }
+        for (int i = 0; i < STRINGS; i++) {
+            if (!("s" + i).equals(skip)) {
+                Method m = WideThingBuilder.class.getMethod("withS" + i, String.class);
+                m.invoke(bldr, "s" + i);
+            }
+        }
+        return bldr;
+    }
+}